@@ -1,21 +1,43 @@
 package games.minesweeper;
 
-import java.util.Random;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * 扫雷游戏棋盘类
  */
 public class Board {
-    private Cell[][] cells;
+    // 棋盘单元格数量达到该值时，连锁翻开使用并行模式
+    private static final int PARALLEL_REVEAL_THRESHOLD = 1 << 20;
+    // 棋盘单元格数量达到该值时，相邻地雷数量使用 fork/join 并行计算
+    private static final int PARALLEL_PLACEMENT_THRESHOLD = 1 << 24;
+    
+    private final CellStorage storage; // 紧凑的单元格状态存储
+    private final NeighborTable neighbors; // 按棋盘拓扑预先计算的邻居表
+    private Cell[][] cells;             // 按需创建的单元格视图
     private Settings settings;
     private int rows;
     private int cols;
     private int mines;
     private int revealedCells;
+    private int flaggedCells;           // 当前标记的单元格数量
+    private int lastRevealCount;        // 最近一次点击翻开的单元格数量
+    private IntQueue revealQueue;       // 连锁翻开使用的队列，反复使用
+    private ParallelReveal parallelReveal;
+    private boolean minesPlaced;
+    private long seed;                  // 最近一次布雷使用的随机种子
+    private int[] positions;            // 洗牌用的下标排列，布雷后恢复为恒等排列
     private boolean gameOver;
     private boolean gameWon;
+    private final List<BoardListener> listeners = new ArrayList<>();
+    
+    // 本次操作中变化单元格的外接矩形和数量
+    private int dirtyFirstRow;
+    private int dirtyFirstCol;
+    private int dirtyLastRow;
+    private int dirtyLastCol;
+    private int dirtyCells;
     
     /**
      * 构造函数
@@ -26,23 +48,82 @@ public class Board {
         this.rows = settings.getRows();
         this.cols = settings.getCols();
         this.mines = settings.getMines();
-        this.cells = new Cell[rows][cols];
+        this.storage = new CellStorage(rows, cols);
+        this.neighbors = settings.getTopology().createNeighborTable(rows, cols);
         this.revealedCells = 0;
+        this.flaggedCells = 0;
         this.gameOver = false;
         this.gameWon = false;
-        
-        initializeBoard();
+        resetDirtyRegion();
     }
     
     /**
-     * 初始化棋盘
+     * 添加棋盘变化监听器
+     * @param listener 监听器
      */
-    private void initializeBoard() {
-        // 创建所有单元格
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                cells[row][col] = new Cell(row, col);
-            }
+    public void addBoardListener(BoardListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * 移除棋盘变化监听器
+     * @param listener 监听器
+     */
+    public void removeBoardListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * 记录一个变化的单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     */
+    private void markDirty(int row, int col) {
+        markDirty(row, col, row, col, 1);
+    }
+    
+    /**
+     * 记录一块变化的区域
+     * @param firstRow 起始行
+     * @param firstCol 起始列
+     * @param lastRow 结束行
+     * @param lastCol 结束列
+     * @param count 区域内变化的单元格数量
+     */
+    private void markDirty(int firstRow, int firstCol, int lastRow, int lastCol, int count) {
+        if (count <= 0) {
+            return;
+        }
+        dirtyFirstRow = Math.min(dirtyFirstRow, firstRow);
+        dirtyFirstCol = Math.min(dirtyFirstCol, firstCol);
+        dirtyLastRow = Math.max(dirtyLastRow, lastRow);
+        dirtyLastCol = Math.max(dirtyLastCol, lastCol);
+        dirtyCells += count;
+    }
+    
+    private void resetDirtyRegion() {
+        dirtyFirstRow = Integer.MAX_VALUE;
+        dirtyFirstCol = Integer.MAX_VALUE;
+        dirtyLastRow = -1;
+        dirtyLastCol = -1;
+        dirtyCells = 0;
+    }
+    
+    /**
+     * 把本次操作积累的变化一次性通知给所有监听器
+     */
+    private void fireCellsChanged() {
+        if (dirtyCells == 0) {
+            return;
+        }
+        int firstRow = dirtyFirstRow;
+        int firstCol = dirtyFirstCol;
+        int lastRow = dirtyLastRow;
+        int lastCol = dirtyLastCol;
+        int count = dirtyCells;
+        resetDirtyRegion();
+        for (BoardListener listener : listeners) {
+            listener.cellsChanged(this, firstRow, firstCol, lastRow, lastCol, count);
         }
     }
     
@@ -52,56 +133,102 @@ public class Board {
      * @param firstClickCol 玩家第一次点击的列
      */
     public void placeMines(int firstClickRow, int firstClickCol) {
-        Random random = new Random();
-        int minesPlaced = 0;
+        placeMines(firstClickRow, firstClickCol, new Random().nextLong());
+    }
+    
+    /**
+     * 使用指定种子放置地雷，相同的种子和第一次点击位置总是生成相同的棋盘
+     * 使用部分 Fisher-Yates 洗牌，耗时只与地雷数量成正比
+     * @param firstClickRow 玩家第一次点击的行
+     * @param firstClickCol 玩家第一次点击的列
+     * @param seed 随机种子
+     */
+    public void placeMines(int firstClickRow, int firstClickCol, long seed) {
+        if (minesPlaced) {
+            storage.clearMines();
+        }
+        Random random = new Random(seed);
+        int total = storage.size();
+        boolean parallel = total >= PARALLEL_PLACEMENT_THRESHOLD;
         
-        // 创建一个排除第一次点击位置及其相邻位置的列表
-        List<Integer> excludedPositions = new ArrayList<>();
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                int r = firstClickRow + dr;
-                int c = firstClickCol + dc;
-                if (isValidPosition(r, c)) {
-                    excludedPositions.add(r * cols + c);
-                }
+        // 第一次点击位置及其相邻位置不放地雷；地雷太多时只排除点击位置本身
+        int firstIndex = storage.index(firstClickRow, firstClickCol);
+        boolean excludeNeighbors = mines <= total - 1 - neighbors.count(firstIndex);
+        
+        if (positions == null) {
+            positions = new int[total];
+            for (int i = 0; i < total; i++) {
+                positions[i] = i;
             }
         }
+        int[] swaps = new int[Math.min(total, mines + 1 + neighbors.getMaxNeighbors())];
         
-        // 随机放置地雷
-        while (minesPlaced < mines) {
-            int r = random.nextInt(rows);
-            int c = random.nextInt(cols);
-            int position = r * cols + c;
+        // 部分洗牌：每一步从剩余区间中随机取一个位置，被排除的位置直接跳过
+        int placed = 0;
+        int step = 0;
+        while (placed < mines) {
+            int j = step + random.nextInt(total - step);
+            int position = positions[j];
+            positions[j] = positions[step];
+            positions[step] = position;
+            swaps[step++] = j;
             
-            if (!cells[r][c].isMine() && !excludedPositions.contains(position)) {
-                cells[r][c].setMine(true);
-                minesPlaced++;
+            if (position == firstIndex || (excludeNeighbors && neighbors.isNeighbor(firstIndex, position))) {
+                continue;
+            }
+            storage.setMine(position, true);
+            placed++;
+            if (!parallel) {
+                incrementNeighborCounts(position);
             }
         }
         
-        // 计算每个单元格的相邻地雷数量
-        calculateAdjacentMines();
+        // 按相反顺序撤销交换，下次布雷无需重新初始化排列
+        while (step > 0) {
+            int j = swaps[--step];
+            int position = positions[j];
+            positions[j] = positions[step];
+            positions[step] = position;
+        }
+        
+        // 超大棋盘一次性并行计算相邻地雷数量，比逐个地雷随机访问更快
+        if (parallel) {
+            new ParallelAdjacency(storage, neighbors, 0, rows).invoke();
+        }
+        
+        this.seed = seed;
+        this.minesPlaced = true;
     }
     
     /**
-     * 计算每个单元格的相邻地雷数量
+     * 采用另一个棋盘上已经布好的地雷（包括相邻地雷数量），代替本局的布雷
+     * 用于在后台预先布好雷的棋盘，复制只需顺序扫描一遍存储
+     * @param source 已布雷的棋盘，尺寸、地雷数量和拓扑须与本棋盘相同
      */
-    private void calculateAdjacentMines() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (!cells[row][col].isMine()) {
-                    int count = 0;
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            int r = row + dr;
-                            int c = col + dc;
-                            if (isValidPosition(r, c) && cells[r][c].isMine()) {
-                                count++;
-                            }
-                        }
-                    }
-                    cells[row][col].setAdjacentMines(count);
-                }
+    public void copyMinesFrom(Board source) {
+        if (source.rows != rows || source.cols != cols || source.mines != mines || source.getTopology() != getTopology()) {
+            throw new IllegalArgumentException("棋盘尺寸、地雷数量或拓扑不一致");
+        }
+        if (!source.minesPlaced) {
+            throw new IllegalStateException("源棋盘尚未布雷");
+        }
+        storage.copyMinesFrom(source.storage);
+        this.seed = source.seed;
+        this.minesPlaced = true;
+    }
+    
+    /**
+     * 新放置一颗地雷后，增加相邻非地雷单元格的计数
+     * 地雷单元格自身的计数保持为0
+     * @param index 地雷的下标
+     */
+    private void incrementNeighborCounts(int index) {
+        storage.setAdjacentMines(index, 0);
+        int cls = neighbors.classOf(index);
+        for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+            int neighbor = index + neighbors.delta(k);
+            if (!storage.isMine(neighbor)) {
+                storage.incrementAdjacentMines(neighbor);
             }
         }
     }
@@ -127,60 +254,99 @@ public class Board {
             return false;
         }
         
-        Cell cell = cells[row][col];
-        if (cell.isRevealed() || cell.isFlagged()) {
+        int index = storage.index(row, col);
+        if (storage.isRevealed(index) || storage.isFlagged(index)) {
+            lastRevealCount = 0;
             return false;
         }
         
-        // 如果是第一次点击，放置地雷
-        if (revealedCells == 0) {
+        // 如果还没有放置地雷，先放置地雷
+        if (!minesPlaced) {
             placeMines(row, col);
         }
         
         // 翻开单元格
-        cell.setRevealed(true);
+        storage.setRevealed(index, true);
         revealedCells++;
+        lastRevealCount = 1;
+        markDirty(row, col);
         
         // 如果点击了地雷，游戏结束
-        if (cell.isMine()) {
+        if (storage.isMine(index)) {
             gameOver = true;
             revealAllMines();
+            fireCellsChanged();
             return true;
         }
         
-        // 如果是空白单元格，递归翻开相邻单元格
-        if (cell.getAdjacentMines() == 0) {
-            revealAdjacentCells(row, col);
+        // 如果是空白单元格，连锁翻开相邻单元格
+        if (storage.getAdjacentMines(index) == 0) {
+            lastRevealCount += revealAdjacentCells(row, col);
         }
         
         // 检查是否获胜
         checkWin();
+        fireCellsChanged();
         
         return false;
     }
     
     /**
-     * 递归翻开相邻单元格
+     * 连锁翻开相邻单元格
+     * 使用显式队列代替递归，大面积空白区域也不会栈溢出；大棋盘使用并行模式
      * @param row 行坐标
      * @param col 列坐标
+     * @return 新翻开的单元格数量
      */
-    private void revealAdjacentCells(int row, int col) {
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                int r = row + dr;
-                int c = col + dc;
-                if (isValidPosition(r, c)) {
-                    Cell adjacentCell = cells[r][c];
-                    if (!adjacentCell.isRevealed() && !adjacentCell.isFlagged() && !adjacentCell.isMine()) {
-                        adjacentCell.setRevealed(true);
-                        revealedCells++;
-                        if (adjacentCell.getAdjacentMines() == 0) {
-                            revealAdjacentCells(r, c);
-                        }
+    private int revealAdjacentCells(int row, int col) {
+        int count;
+        if (storage.size() >= PARALLEL_REVEAL_THRESHOLD) {
+            if (parallelReveal == null) {
+                parallelReveal = new ParallelReveal(storage, neighbors);
+            }
+            count = parallelReveal.reveal(storage.index(row, col));
+            markDirty(parallelReveal.getFirstRow(), parallelReveal.getFirstCol(),
+                parallelReveal.getLastRow(), parallelReveal.getLastCol(), count);
+        } else {
+            count = revealSequentially(row, col);
+        }
+        revealedCells += count;
+        return count;
+    }
+    
+    /**
+     * 单线程广度优先连锁翻开，不为单元格分配任何对象
+     * @param row 行坐标
+     * @param col 列坐标
+     * @return 新翻开的单元格数量
+     */
+    private int revealSequentially(int row, int col) {
+        if (revealQueue == null) {
+            revealQueue = new IntQueue(rows + cols);
+        }
+        IntQueue queue = revealQueue;
+        queue.clear();
+        queue.add(storage.index(row, col));
+        
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int cls = neighbors.classOf(current);
+            for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+                int index = current + neighbors.delta(k);
+                int state = storage.getState(index);
+                if ((state & (CellStorage.REVEALED | CellStorage.FLAGGED | CellStorage.MINE)) == 0) {
+                    storage.setRevealed(index, true);
+                    int r = index / cols;
+                    markDirty(r, index - r * cols);
+                    count++;
+                    if ((state & CellStorage.ADJACENT_MASK) == 0) {
+                        queue.add(index);
                     }
                 }
             }
         }
+        return count;
     }
     
     /**
@@ -193,9 +359,13 @@ public class Board {
             return;
         }
         
-        Cell cell = cells[row][col];
-        if (!cell.isRevealed()) {
-            cell.toggleFlag();
+        int index = storage.index(row, col);
+        if (!storage.isRevealed(index)) {
+            boolean flagged = !storage.isFlagged(index);
+            storage.setFlagged(index, flagged);
+            flaggedCells += flagged ? 1 : -1;
+            markDirty(row, col);
+            fireCellsChanged();
         }
     }
     
@@ -203,11 +373,10 @@ public class Board {
      * 翻开所有地雷
      */
     private void revealAllMines() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (cells[row][col].isMine()) {
-                    cells[row][col].setRevealed(true);
-                }
+        for (int index = 0; index < storage.size(); index++) {
+            if (storage.isMine(index) && !storage.isRevealed(index)) {
+                storage.setRevealed(index, true);
+                markDirty(index / cols, index % cols);
             }
         }
     }
@@ -221,11 +390,11 @@ public class Board {
             gameWon = true;
             gameOver = true;
             // 标记所有地雷
-            for (int row = 0; row < rows; row++) {
-                for (int col = 0; col < cols; col++) {
-                    if (cells[row][col].isMine()) {
-                        cells[row][col].setFlagged(true);
-                    }
+            for (int index = 0; index < storage.size(); index++) {
+                if (storage.isMine(index) && !storage.isFlagged(index)) {
+                    storage.setFlagged(index, true);
+                    flaggedCells++;
+                    markDirty(index / cols, index % cols);
                 }
             }
         }
@@ -235,24 +404,86 @@ public class Board {
      * 重新开始游戏
      */
     public void restartGame() {
-        initializeBoard();
+        // 原地清空存储，已创建的单元格视图仍然有效
+        storage.clear();
         revealedCells = 0;
+        flaggedCells = 0;
+        lastRevealCount = 0;
+        minesPlaced = false;
         gameOver = false;
         gameWon = false;
+        
+        resetDirtyRegion();
+        markDirty(0, 0, rows - 1, cols - 1, rows * cols);
+        fireCellsChanged();
+    }
+    
+    /**
+     * 读取存档后恢复计数和游戏状态（地雷、翻开和标记位已直接写入存储）
+     * 相邻地雷数量按地雷位重新计算，之后通知监听器整个棋盘都已变化
+     * @param revealedCells 已翻开的单元格数量
+     * @param flaggedCells 已标记的单元格数量
+     * @param minesPlaced 是否已经布雷
+     * @param gameOver 游戏是否已结束
+     * @param gameWon 是否已获胜
+     * @param seed 布雷使用的随机种子
+     */
+    void restoreState(int revealedCells, int flaggedCells, boolean minesPlaced, boolean gameOver, boolean gameWon, long seed) {
+        new ParallelAdjacency(storage, neighbors, 0, rows).invoke();
+        this.revealedCells = revealedCells;
+        this.flaggedCells = flaggedCells;
+        this.lastRevealCount = 0;
+        this.minesPlaced = minesPlaced;
+        this.gameOver = gameOver;
+        this.gameWon = gameWon;
+        this.seed = seed;
+        
+        resetDirtyRegion();
+        markDirty(0, 0, rows - 1, cols - 1, rows * cols);
+        fireCellsChanged();
     }
     
     // Getters
+    /**
+     * 获取所有单元格视图
+     * 视图数组在第一次调用时创建，之后重新开始游戏也不会重新分配
+     * @return 单元格视图数组
+     */
     public Cell[][] getCells() {
+        if (cells == null) {
+            cells = new Cell[rows][cols];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    cells[row][col] = new Cell(storage, row, col);
+                }
+            }
+        }
         return cells;
     }
     
     public Cell getCell(int row, int col) {
         if (isValidPosition(row, col)) {
-            return cells[row][col];
+            return cells != null ? cells[row][col] : new Cell(storage, row, col);
         }
         return null;
     }
     
+    public CellStorage getStorage() {
+        return storage;
+    }
+    
+    /**
+     * 获取按棋盘拓扑预先计算的邻居表
+     * @return 邻居表
+     */
+    public NeighborTable getNeighborTable() {
+        return neighbors;
+    }
+    
+    public Topology getTopology() {
+        return neighbors.getTopology();
+    }
+    
     public int getRows() {
         return rows;
     }
@@ -265,10 +496,34 @@ public class Board {
         return mines;
     }
     
+    public boolean isMinesPlaced() {
+        return minesPlaced;
+    }
+    
+    /**
+     * 获取最近一次布雷使用的随机种子
+     * @return 随机种子
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
     public int getRevealedCells() {
         return revealedCells;
     }
     
+    public int getFlaggedCells() {
+        return flaggedCells;
+    }
+    
+    /**
+     * 获取最近一次点击翻开的单元格数量（包括连锁翻开的部分）
+     * @return 翻开的单元格数量
+     */
+    public int getLastRevealCount() {
+        return lastRevealCount;
+    }
+    
     public boolean isGameOver() {
         return gameOver;
     }
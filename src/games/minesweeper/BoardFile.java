@@ -0,0 +1,256 @@
+package games.minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 扫雷存档的读写
+ * 存档是带版本号的二进制文件：固定长度的文件头之后依次是地雷、翻开、标记三个位平面，
+ * 每个单元格每个平面占 1 位。读写都直接在单元格存储和文件之间转换，不创建单元格视图：
+ * 读取时映射文件，保存时分块写入同一目录下的临时文件，写完后原子地替换原存档。
+ * 保存从不截断或映射目标文件，所以目标文件仍被之前的读取映射时也能保存，中途失败时原存档保持不变。
+ * 相邻地雷数量不保存，读取时按地雷位重新计算。
+ * 文件头偏移 44 处保存拓扑编号，0 为矩形棋盘，所以旧存档照常读取
+ */
+public final class BoardFile {
+    private static final int MAGIC = 0x5057534D;      // "MSWP"（小端序）
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;   // 保存时每个位平面的写缓冲区
+    
+    private static final int FLAG_MINES_PLACED = 1;
+    private static final int FLAG_GAME_OVER = 1 << 1;
+    private static final int FLAG_GAME_WON = 1 << 2;
+    
+    private BoardFile() {
+    }
+    
+    /**
+     * 保存棋盘
+     * @param path 存档路径（已存在时覆盖）
+     * @param board 棋盘
+     * @param elapsedTime 已用时间（秒）
+     * @throws IOException 写入失败
+     */
+    public static void save(Path path, Board board, int elapsedTime) throws IOException {
+        CellStorage storage = board.getStorage();
+        long planeBytes = planeWords(storage.size()) * 8L;
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeHeader(channel, board, elapsedTime);
+                writePlanes(storage, channel, planeBytes);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+    
+    private static void writeHeader(FileChannel channel, Board board, int elapsedTime) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(board.getRows());
+        header.putInt(board.getCols());
+        header.putInt(board.getMines());
+        header.putInt((board.isMinesPlaced() ? FLAG_MINES_PLACED : 0)
+            | (board.isGameOver() ? FLAG_GAME_OVER : 0)
+            | (board.isGameWon() ? FLAG_GAME_WON : 0));
+        header.putLong(board.getSeed());
+        header.putInt(elapsedTime);
+        header.putInt(board.getRevealedCells());
+        header.putInt(board.getFlaggedCells());
+        header.putInt(board.getTopology().ordinal());
+        header.position(HEADER_BYTES);
+        writeFully(channel, header, 0);
+    }
+    
+    /**
+     * 读取存档中的棋盘设置，用于创建尺寸匹配的棋盘
+     * @param path 存档路径
+     * @return 棋盘设置
+     * @throws IOException 读取失败或不是有效的存档
+     */
+    public static Settings readSettings(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel);
+            Settings settings = new Settings(header.getInt(8), header.getInt(12), header.getInt(16));
+            settings.setTopology(readTopology(header));
+            return settings;
+        }
+    }
+    
+    /**
+     * 把存档读入棋盘，棋盘尺寸和地雷数量必须与存档相同
+     * @param path 存档路径
+     * @param board 棋盘
+     * @return 已用时间（秒）
+     * @throws IOException 读取失败、不是有效的存档或尺寸不匹配
+     */
+    public static int load(Path path, Board board) throws IOException {
+        CellStorage storage = board.getStorage();
+        long planeBytes = planeWords(storage.size()) * 8L;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel);
+            int rows = header.getInt(8);
+            int cols = header.getInt(12);
+            int mines = header.getInt(16);
+            if (rows != board.getRows() || cols != board.getCols() || mines != board.getMines()) {
+                throw new IOException("存档的棋盘为 " + rows + "x" + cols + " " + mines + " 颗雷，与当前棋盘不同");
+            }
+            if (readTopology(header) != board.getTopology()) {
+                throw new IOException("存档的棋盘拓扑为 " + readTopology(header) + "，与当前棋盘不同");
+            }
+            if (channel.size() < HEADER_BYTES + planeBytes * 3) {
+                throw new IOException("存档文件不完整");
+            }
+            int flags = header.getInt(20);
+            long seed = header.getLong(24);
+            int elapsedTime = header.getInt(32);
+            int revealedCells = header.getInt(36);
+            int flaggedCells = header.getInt(40);
+            
+            LongBuffer minePlane = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, planeBytes).asLongBuffer();
+            LongBuffer revealedPlane = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + planeBytes, planeBytes).asLongBuffer();
+            LongBuffer flaggedPlane = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + planeBytes * 2, planeBytes).asLongBuffer();
+            readPlanes(storage, minePlane, revealedPlane, flaggedPlane);
+            
+            board.restoreState(revealedCells, flaggedCells, (flags & FLAG_MINES_PLACED) != 0,
+                (flags & FLAG_GAME_OVER) != 0, (flags & FLAG_GAME_WON) != 0, seed);
+            return elapsedTime;
+        }
+    }
+    
+    private static Topology readTopology(ByteBuffer header) throws IOException {
+        int ordinal = header.getInt(44);
+        if (ordinal < 0 || ordinal >= Topology.values().length) {
+            throw new IOException("未知的棋盘拓扑: " + ordinal);
+        }
+        return Topology.values()[ordinal];
+    }
+    
+    /**
+     * 读取并校验文件头
+     */
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("不是有效的扫雷存档");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("不是有效的扫雷存档");
+            }
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的扫雷存档");
+        }
+        int version = header.getInt(4);
+        if (version > VERSION) {
+            throw new IOException("不支持的存档版本: " + version);
+        }
+        return header;
+    }
+    
+    /**
+     * 把单元格状态打包为三个位平面，每 64 个单元格一个 long；三个平面各用一个缓冲区，满了就写到各自的位置
+     */
+    private static void writePlanes(CellStorage storage, FileChannel channel, long planeBytes) throws IOException {
+        ByteBuffer mines = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer revealed = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer flagged = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long offset = 0;    // 每个平面已写出的字节数
+        int size = storage.size();
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(size, base + 64);
+            long mineBits = 0;
+            long revealedBits = 0;
+            long flaggedBits = 0;
+            for (int index = base; index < end; index++) {
+                int state = storage.getState(index);
+                long bit = 1L << (index - base);
+                if ((state & CellStorage.MINE) != 0) {
+                    mineBits |= bit;
+                }
+                if ((state & CellStorage.REVEALED) != 0) {
+                    revealedBits |= bit;
+                }
+                if ((state & CellStorage.FLAGGED) != 0) {
+                    flaggedBits |= bit;
+                }
+            }
+            mines.putLong(mineBits);
+            revealed.putLong(revealedBits);
+            flagged.putLong(flaggedBits);
+            if (!mines.hasRemaining() || end == size) {
+                int written = mines.position();
+                writeFully(channel, mines, HEADER_BYTES + offset);
+                writeFully(channel, revealed, HEADER_BYTES + planeBytes + offset);
+                writeFully(channel, flagged, HEADER_BYTES + planeBytes * 2 + offset);
+                offset += written;
+            }
+        }
+    }
+    
+    /**
+     * 把缓冲区中已放入的内容写到文件的指定位置，写完后清空缓冲区
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * 从三个位平面恢复单元格状态，相邻地雷数量先清零
+     */
+    private static void readPlanes(CellStorage storage, LongBuffer mines, LongBuffer revealed, LongBuffer flagged) {
+        storage.clear();
+        int size = storage.size();
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(size, base + 64);
+            long mineBits = mines.get();
+            long revealedBits = revealed.get();
+            long flaggedBits = flagged.get();
+            if ((mineBits | revealedBits | flaggedBits) == 0) {
+                continue;
+            }
+            for (int index = base; index < end; index++) {
+                int shift = index - base;
+                if ((mineBits >>> shift & 1) != 0) {
+                    storage.setMine(index, true);
+                }
+                if ((revealedBits >>> shift & 1) != 0) {
+                    storage.setRevealed(index, true);
+                }
+                if ((flaggedBits >>> shift & 1) != 0) {
+                    storage.setFlagged(index, true);
+                }
+            }
+        }
+    }
+    
+    private static long planeWords(int cells) {
+        return (cells + 63L) / 64;
+    }
+    
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package games.minesweeper;
+
+/**
+ * 棋盘变化监听器
+ * 棋盘每完成一次操作（点击、标记、重新开始等）只通知一次，
+ * 报告这次操作中所有变化单元格的外接矩形
+ */
+public interface BoardListener {
+    /**
+     * 一批单元格发生了变化
+     * @param board 棋盘
+     * @param firstRow 变化区域的起始行（包含）
+     * @param firstCol 变化区域的起始列（包含）
+     * @param lastRow 变化区域的结束行（包含）
+     * @param lastCol 变化区域的结束列（包含）
+     * @param changedCells 变化的单元格数量
+     */
+    void cellsChanged(Board board, int firstRow, int firstCol, int lastRow, int lastCol, int changedCells);
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package games.minesweeper;
+
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 棋盘准备服务
+ * 布雷和计算相邻地雷数量都在后台线程中进行，界面线程只在准备完成后继续处理点击。
+ * 第一次点击位置固定时（例如无猜模式的推荐起点），会在当前一局进行时就把下一局的棋盘布好，
+ * 玩家点击该位置时直接复制预先布好的地雷，每局仍然只布一次雷。种子来源给不出种子时按普通方式布雷，并在结果中报告。
+ * 除构造函数外的方法都只能在同一个线程（通常是界面线程）中调用
+ */
+public class BoardPreparer {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "board-preparer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * 随机种子来源
+     */
+    public interface SeedSource {
+        /**
+         * 获取从指定位置开始的棋盘种子（在后台线程中调用，可以阻塞）
+         * @param firstRow 第一次点击的行
+         * @param firstCol 第一次点击的列
+         * @return 随机种子，找不到合适的种子时为空
+         */
+        OptionalLong nextSeed(int firstRow, int firstCol);
+    }
+    
+    private final SeedSource seeds;
+    private final int startRow;         // 固定的第一次点击位置，-1 表示不固定
+    private final int startCol;
+    private final Board spare;          // 为固定位置预先布雷的棋盘
+    private CompletableFuture<Boolean> spareReady; // 结果为预先准备的棋盘是否可用
+    
+    /**
+     * 构造函数：第一次点击位置不固定，使用随机种子
+     * @param settings 棋盘设置
+     */
+    public BoardPreparer(Settings settings) {
+        this(settings, (firstRow, firstCol) -> OptionalLong.of(ThreadLocalRandom.current().nextLong()), -1, -1);
+    }
+    
+    /**
+     * 构造函数：为固定的第一次点击位置预先准备棋盘
+     * @param settings 棋盘设置
+     * @param seeds 随机种子来源
+     * @param startRow 固定的第一次点击行，-1 表示不固定
+     * @param startCol 固定的第一次点击列
+     */
+    public BoardPreparer(Settings settings, SeedSource seeds, int startRow, int startCol) {
+        this.seeds = seeds;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        if (startRow >= 0) {
+            this.spare = new Board(settings);
+            this.spareReady = CompletableFuture.supplyAsync(this::fillSpare, EXECUTOR);
+        } else {
+            this.spare = null;
+        }
+    }
+    
+    private boolean fillSpare() {
+        OptionalLong seed = seeds.nextSeed(startRow, startCol);
+        if (seed.isPresent()) {
+            spare.placeMines(startRow, startCol, seed.getAsLong());
+        }
+        return seed.isPresent();
+    }
+    
+    private boolean place(Board board, int row, int col) {
+        OptionalLong seed = seeds.nextSeed(row, col);
+        if (seed.isPresent()) {
+            board.placeMines(row, col, seed.getAsLong());
+        } else {
+            board.placeMines(row, col);
+        }
+        return seed.isPresent();
+    }
+    
+    /**
+     * 为第一次点击准备棋盘
+     * 返回的任务完成之前，调用方不能读写棋盘的地雷和翻开状态；任务总是在后台线程中完成，
+     * 调用方需要自己回到界面线程继续处理
+     * @param board 尚未布雷的棋盘
+     * @param row 第一次点击的行
+     * @param col 第一次点击的列
+     * @return 布雷完成的任务，结果为是否用种子来源给出的种子布雷
+     */
+    public CompletableFuture<Boolean> prepare(Board board, int row, int col) {
+        if (spare == null || row != startRow || col != startCol || spareReady.isCompletedExceptionally()) {
+            return CompletableFuture.supplyAsync(() -> place(board, row, col), EXECUTOR);
+        }
+        
+        // 预先布好的棋盘正好适用：就绪后在后台复制地雷（大棋盘的复制不占用界面线程），
+        // 复制完成后再在后台准备下一局；没能预先布好时在后台重新布雷
+        CompletableFuture<Boolean> ready = spareReady.thenComposeAsync(available -> {
+            if (!available) {
+                return CompletableFuture.completedFuture(place(board, row, col));
+            }
+            board.copyMinesFrom(spare);
+            return CompletableFuture.completedFuture(true);
+        }, EXECUTOR);
+        spareReady = ready.thenApplyAsync(seeded -> fillSpare(), EXECUTOR);
+        return ready;
+    }
+}
\ No newline at end of file
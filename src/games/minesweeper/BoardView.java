@@ -0,0 +1,475 @@
+package games.minesweeper;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * 扫雷棋盘绘制组件
+ * 整个棋盘只用一个组件绘制：只画可见区域内的单元格，单元格图案预先渲染在图集中，
+ * 单元格太小时改为按像素绘制的缩略图
+ */
+public class BoardView extends JComponent implements Scrollable {
+    public static final int MIN_CELL_SIZE = 1;
+    public static final int MAX_CELL_SIZE = 60;
+    private static final int LOD_CELL_SIZE = 4;       // 小于该尺寸时绘制缩略图
+    private static final int MAX_VIEWPORT_WIDTH = 1200;
+    private static final int MAX_VIEWPORT_HEIGHT = 800;
+    
+    // 图集中的图案编号：0-8 为翻开后的数字格
+    private static final int GLYPH_MINE = 9;
+    private static final int GLYPH_HIDDEN = 10;
+    private static final int GLYPH_FLAG = 11;
+    private static final int GLYPH_COUNT = 12;
+    
+    // 缩略图颜色
+    private static final int OVERVIEW_HIDDEN = 0xC0C0C0;
+    private static final int OVERVIEW_FLAG = 0xE04040;
+    private static final int OVERVIEW_REVEALED = 0xF0F0F0;
+    private static final int OVERVIEW_MINE = 0x000000;
+    
+    // 概率提示颜色：从绿色（0%）渐变到红色（100%），每 5% 一档
+    private static final Color[] HINT_COLORS = new Color[21];
+    
+    static {
+        for (int i = 0; i < HINT_COLORS.length; i++) {
+            float t = i / (float) (HINT_COLORS.length - 1);
+            HINT_COLORS[i] = new Color(Math.round(255 * t), Math.round(200 * (1 - t)), 0, 110);
+        }
+    }
+    
+    private final Board board;
+    private final CellStorage storage;
+    private final boolean hexagonal;    // 六边形棋盘：奇数行向右错开半格绘制
+    private int cellSize;
+    private BufferedImage[] glyphs;
+    private BufferedImage overview;
+    private int startRow = -1;      // 推荐的起点（无猜模式），-1 表示不显示
+    private int startCol = -1;
+    private boolean hintsVisible;
+    private float[] hints;          // 每个单元格是雷的概率，NaN 表示使用 interiorHint
+    private float interiorHint = Float.NaN;
+    private Font hintFont;
+    
+    /**
+     * 构造函数
+     * @param board 棋盘
+     * @param cellSize 单元格大小（像素）
+     */
+    public BoardView(Board board, int cellSize) {
+        this.board = board;
+        this.storage = board.getStorage();
+        this.hexagonal = board.getTopology() == Topology.HEXAGONAL;
+        setOpaque(true);
+        setCellSize(cellSize);
+        
+        // Ctrl+滚轮缩放，其余滚轮事件交给滚动面板
+        addMouseWheelListener(new MouseWheelListener() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isControlDown()) {
+                    zoom(e.getWheelRotation() < 0 ? 1 : -1, e.getPoint());
+                } else {
+                    JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, BoardView.this);
+                    if (scrollPane != null) {
+                        scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(BoardView.this, e, scrollPane));
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * 设置单元格大小并重建图集
+     * @param cellSize 单元格大小（像素）
+     */
+    public void setCellSize(int cellSize) {
+        cellSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, cellSize));
+        if (cellSize == this.cellSize) {
+            return;
+        }
+        this.cellSize = cellSize;
+        this.glyphs = cellSize >= LOD_CELL_SIZE ? createGlyphs(cellSize) : null;
+        revalidate();
+        repaint();
+    }
+    
+    public int getCellSize() {
+        return cellSize;
+    }
+    
+    /**
+     * 以指定点为中心缩放，缩放后该点下的单元格保持在原来的屏幕位置
+     * @param steps 缩放步数（正数放大，负数缩小）
+     * @param anchor 缩放中心（组件坐标）
+     */
+    private void zoom(int steps, Point anchor) {
+        int oldSize = cellSize;
+        int newSize = steps > 0 ? Math.max(oldSize + 1, oldSize * 5 / 4) : Math.min(oldSize - 1, oldSize * 4 / 5);
+        setCellSize(newSize);
+        if (cellSize == oldSize) {
+            return;
+        }
+        
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            Point view = viewport.getViewPosition();
+            int x = (int) ((long) anchor.x * cellSize / oldSize) - (anchor.x - view.x);
+            int y = (int) ((long) anchor.y * cellSize / oldSize) - (anchor.y - view.y);
+            viewport.validate();
+            Dimension extent = viewport.getExtentSize();
+            Dimension size = getPreferredSize();
+            x = Math.max(0, Math.min(x, size.width - extent.width));
+            y = Math.max(0, Math.min(y, size.height - extent.height));
+            viewport.setViewPosition(new Point(x, y));
+        }
+    }
+    
+    /**
+     * 将组件坐标换算为行号
+     * @param y 纵坐标
+     * @return 行号，超出棋盘时返回-1
+     */
+    public int rowAt(int y) {
+        int row = y / cellSize;
+        return y >= 0 && row < board.getRows() ? row : -1;
+    }
+    
+    /**
+     * 将组件坐标换算为列号
+     * @param x 横坐标
+     * @param y 纵坐标（六边形棋盘的奇数行错开半格）
+     * @return 列号，超出棋盘时返回-1
+     */
+    public int colAt(int x, int y) {
+        int row = rowAt(y);
+        x -= row >= 0 ? rowOffset(row) : 0;
+        int col = x / cellSize;
+        return x >= 0 && col < board.getCols() ? col : -1;
+    }
+    
+    /**
+     * 获取一行单元格的横向偏移
+     */
+    private int rowOffset(int row) {
+        return hexagonal && (row & 1) != 0 ? cellSize / 2 : 0;
+    }
+    
+    /**
+     * 重绘单个单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     */
+    public void repaintCell(int row, int col) {
+        repaint(col * cellSize + rowOffset(row), row * cellSize, cellSize, cellSize);
+    }
+    
+    /**
+     * 重绘一块矩形区域内的单元格
+     * @param firstRow 起始行（包含）
+     * @param firstCol 起始列（包含）
+     * @param lastRow 结束行（包含）
+     * @param lastCol 结束列（包含）
+     */
+    public void repaintCells(int firstRow, int firstCol, int lastRow, int lastCol) {
+        repaint(firstCol * cellSize, firstRow * cellSize,
+            (lastCol - firstCol + 1) * cellSize + (hexagonal ? cellSize / 2 : 0), (lastRow - firstRow + 1) * cellSize);
+    }
+    
+    /**
+     * 设置需要标出的推荐起点
+     * @param row 行坐标，-1 表示不显示
+     * @param col 列坐标，-1 表示不显示
+     */
+    public void setStartCell(int row, int col) {
+        if (startRow >= 0) {
+            repaintCell(startRow, startCol);
+        }
+        startRow = row;
+        startCol = col;
+        if (startRow >= 0) {
+            repaintCell(startRow, startCol);
+        }
+    }
+    
+    /**
+     * 设置是否显示地雷概率提示
+     * @param visible 是否显示
+     */
+    public void setHintsVisible(boolean visible) {
+        if (hintsVisible != visible) {
+            hintsVisible = visible;
+            repaint();
+        }
+    }
+    
+    public boolean isHintsVisible() {
+        return hintsVisible;
+    }
+    
+    /**
+     * 设置单个单元格的地雷概率提示（不会自动重绘）
+     * @param index 单元格下标
+     * @param probability 概率，NaN 表示使用其余未知单元格的共同概率
+     */
+    public void setHint(int index, float probability) {
+        if (hints == null) {
+            if (Float.isNaN(probability)) {
+                return;
+            }
+            hints = new float[storage.size()];
+            Arrays.fill(hints, Float.NaN);
+        }
+        hints[index] = probability;
+    }
+    
+    /**
+     * 设置不与已翻开数字相邻的未知单元格共同的地雷概率（不会自动重绘）
+     * @param probability 概率，NaN 表示不显示
+     */
+    public void setInteriorHint(float probability) {
+        interiorHint = probability;
+    }
+    
+    public float getInteriorHint() {
+        return interiorHint;
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(board.getCols() * cellSize + (hexagonal ? cellSize / 2 : 0), board.getRows() * cellSize);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getParent() != null ? getParent().getBackground() : Color.LIGHT_GRAY);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        
+        // 只处理与裁剪区域相交的单元格
+        int firstRow = Math.max(0, clip.y / cellSize);
+        int lastRow = Math.min(board.getRows() - 1, (clip.y + clip.height - 1) / cellSize);
+        int firstCol = Math.max(0, (clip.x - (hexagonal ? cellSize / 2 : 0)) / cellSize);
+        int lastCol = Math.min(board.getCols() - 1, (clip.x + clip.width - 1) / cellSize);
+        if (firstRow > lastRow || firstCol > lastCol) {
+            return;
+        }
+        
+        if (glyphs == null) {
+            paintOverview(g, firstRow, lastRow, firstCol, lastCol);
+            return;
+        }
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int index = storage.index(row, firstCol);
+            int offset = rowOffset(row);
+            for (int col = firstCol; col <= lastCol; col++, index++) {
+                g.drawImage(glyphs[glyphFor(storage.getState(index))], col * cellSize + offset, row * cellSize, null);
+            }
+        }
+        
+        if (hintsVisible) {
+            paintHints(g, firstRow, lastRow, firstCol, lastCol);
+        }
+        
+        if (startRow >= firstRow && startRow <= lastRow && startCol >= firstCol && startCol <= lastCol) {
+            int x = startCol * cellSize + rowOffset(startRow);
+            g.setColor(Color.GREEN.darker());
+            g.drawRect(x + 2, startRow * cellSize + 2, cellSize - 5, cellSize - 5);
+            g.drawRect(x + 3, startRow * cellSize + 3, cellSize - 7, cellSize - 7);
+        }
+    }
+    
+    /**
+     * 在未翻开且未标记的单元格上叠加半透明颜色：绿色表示安全，红色表示危险，单元格足够大时显示百分比
+     */
+    private void paintHints(Graphics g, int firstRow, int lastRow, int firstCol, int lastCol) {
+        boolean labels = cellSize >= 24;
+        if (labels && (hintFont == null || hintFont.getSize() != cellSize / 3)) {
+            hintFont = new Font("Arial", Font.PLAIN, cellSize / 3);
+        }
+        g.setFont(hintFont);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int index = storage.index(row, firstCol);
+            for (int col = firstCol; col <= lastCol; col++, index++) {
+                int state = storage.getState(index);
+                if ((state & (CellStorage.REVEALED | CellStorage.FLAGGED)) != 0) {
+                    continue;
+                }
+                float probability = hints != null && !Float.isNaN(hints[index]) ? hints[index] : interiorHint;
+                if (Float.isNaN(probability)) {
+                    continue;
+                }
+                int level = Math.round(Math.max(0, Math.min(1, probability)) * (HINT_COLORS.length - 1));
+                int x = col * cellSize + rowOffset(row);
+                int y = row * cellSize;
+                g.setColor(HINT_COLORS[level]);
+                g.fillRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+                if (labels) {
+                    String text = Math.round(probability * 100) + "%";
+                    FontMetrics fm = g.getFontMetrics();
+                    g.setColor(Color.BLACK);
+                    g.drawString(text, x + (cellSize - fm.stringWidth(text)) / 2, y + cellSize - fm.getDescent() - 2);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 绘制缩略图：每个单元格直接写入像素缓冲区，再一次性绘制到屏幕
+     */
+    private void paintOverview(Graphics g, int firstRow, int lastRow, int firstCol, int lastCol) {
+        int width = (lastCol - firstCol + 1) * cellSize + (hexagonal ? cellSize / 2 : 0);
+        int height = (lastRow - firstRow + 1) * cellSize;
+        if (overview == null || overview.getWidth() < width || overview.getHeight() < height) {
+            overview = new BufferedImage(Math.max(width, overview == null ? 0 : overview.getWidth()),
+                Math.max(height, overview == null ? 0 : overview.getHeight()), BufferedImage.TYPE_INT_RGB);
+        }
+        int[] pixels = ((DataBufferInt) overview.getRaster().getDataBuffer()).getData();
+        int stride = overview.getWidth();
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int index = storage.index(row, firstCol);
+            int y = (row - firstRow) * cellSize;
+            int shift = rowOffset(row);
+            if (hexagonal) {
+                // 错开的半格露出的是背景色
+                int background = (getParent() != null ? getParent().getBackground() : Color.LIGHT_GRAY).getRGB();
+                int gap = shift == 0 ? width - cellSize / 2 : 0;
+                for (int dy = 0; dy < cellSize; dy++) {
+                    Arrays.fill(pixels, (y + dy) * stride + gap, (y + dy) * stride + gap + cellSize / 2, background);
+                }
+            }
+            for (int col = firstCol; col <= lastCol; col++, index++) {
+                int color = overviewColor(storage.getState(index));
+                int x = (col - firstCol) * cellSize + shift;
+                for (int dy = 0; dy < cellSize; dy++) {
+                    int offset = (y + dy) * stride + x;
+                    for (int dx = 0; dx < cellSize; dx++) {
+                        pixels[offset + dx] = color;
+                    }
+                }
+            }
+        }
+        
+        int x = firstCol * cellSize;
+        int y = firstRow * cellSize;
+        g.drawImage(overview, x, y, x + width, y + height, 0, 0, width, height, null);
+    }
+    
+    /**
+     * 根据单元格状态选择图案
+     * @param state 单元格状态字节
+     * @return 图案编号
+     */
+    static int glyphFor(int state) {
+        if ((state & CellStorage.REVEALED) != 0) {
+            return (state & CellStorage.MINE) != 0 ? GLYPH_MINE : state & CellStorage.ADJACENT_MASK;
+        }
+        return (state & CellStorage.FLAGGED) != 0 ? GLYPH_FLAG : GLYPH_HIDDEN;
+    }
+    
+    private static int overviewColor(int state) {
+        if ((state & CellStorage.REVEALED) != 0) {
+            return (state & CellStorage.MINE) != 0 ? OVERVIEW_MINE : OVERVIEW_REVEALED;
+        }
+        return (state & CellStorage.FLAGGED) != 0 ? OVERVIEW_FLAG : OVERVIEW_HIDDEN;
+    }
+    
+    /**
+     * 预先渲染所有单元格图案
+     * @param size 单元格大小（像素）
+     * @return 图集
+     */
+    static BufferedImage[] createGlyphs(int size) {
+        BufferedImage[] atlas = new BufferedImage[GLYPH_COUNT];
+        Font font = new Font("Arial", Font.BOLD, Math.max(8, size * 14 / 30));
+        for (int glyph = 0; glyph < GLYPH_COUNT; glyph++) {
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            
+            if (glyph == GLYPH_HIDDEN || glyph == GLYPH_FLAG) {
+                // 未翻开的单元格：凸起效果
+                g.setColor(Color.LIGHT_GRAY);
+                g.fill3DRect(0, 0, size, size, true);
+                if (glyph == GLYPH_FLAG) {
+                    drawCentered(g, "🚩", size, Color.RED);
+                }
+            } else {
+                g.setColor(glyph == GLYPH_MINE ? Color.RED : new Color(238, 238, 238));
+                g.fillRect(0, 0, size, size);
+                g.setColor(Color.GRAY);
+                g.drawRect(0, 0, size - 1, size - 1);
+                if (glyph == GLYPH_MINE) {
+                    drawCentered(g, "💣", size, Color.BLACK);
+                } else if (glyph > 0) {
+                    drawCentered(g, String.valueOf(glyph), size, numberColor(glyph));
+                }
+            }
+            g.dispose();
+            atlas[glyph] = image;
+        }
+        return atlas;
+    }
+    
+    private static void drawCentered(Graphics2D g, String text, int size, Color color) {
+        FontMetrics metrics = g.getFontMetrics();
+        g.setColor(color);
+        g.drawString(text, (size - metrics.stringWidth(text)) / 2, (size - metrics.getHeight()) / 2 + metrics.getAscent());
+    }
+    
+    /**
+     * 获取数字颜色
+     * @param adjacentMines 相邻地雷数量
+     * @return 颜色
+     */
+    private static Color numberColor(int adjacentMines) {
+        switch (adjacentMines) {
+            case 1: return Color.BLUE;
+            case 2: return Color.GREEN.darker();
+            case 3: return Color.RED;
+            case 4: return Color.MAGENTA;
+            case 5: return Color.ORANGE.darker();
+            case 6: return Color.CYAN;
+            case 7: return Color.BLACK;
+            case 8: return Color.GRAY;
+            default: return Color.BLACK;
+        }
+    }
+    
+    // Scrollable
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, MAX_VIEWPORT_WIDTH), Math.min(size.height, MAX_VIEWPORT_HEIGHT));
+    }
+    
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return Math.max(cellSize, 8);
+    }
+    
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
\ No newline at end of file
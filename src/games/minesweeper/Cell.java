@@ -2,27 +2,38 @@ package games.minesweeper;
 
 /**
  * 扫雷游戏单元格类
+ * 单元格本身不保存状态，只是 {@link CellStorage} 中某个字节的轻量视图
  */
 public class Cell {
-    private int row;      // 单元格所在行
-    private int col;      // 单元格所在列
-    private boolean isMine;     // 是否是地雷
-    private boolean isRevealed; // 是否已翻开
-    private boolean isFlagged;  // 是否已标记
-    private int adjacentMines;  // 相邻地雷数量
+    private final CellStorage storage; // 单元格状态所在的存储
+    private final int index;           // 单元格在存储中的下标
+    private final int row;      // 单元格所在行
+    private final int col;      // 单元格所在列
     
     /**
-     * 构造函数
+     * 构造函数（创建独立的单元格）
      * @param row 行坐标
      * @param col 列坐标
      */
     public Cell(int row, int col) {
+        this(new CellStorage(1, 1), 0, row, col);
+    }
+    
+    /**
+     * 构造函数（创建棋盘存储上的视图）
+     * @param storage 棋盘存储
+     * @param row 行坐标
+     * @param col 列坐标
+     */
+    Cell(CellStorage storage, int row, int col) {
+        this(storage, storage.index(row, col), row, col);
+    }
+    
+    private Cell(CellStorage storage, int index, int row, int col) {
+        this.storage = storage;
+        this.index = index;
         this.row = row;
         this.col = col;
-        this.isMine = false;
-        this.isRevealed = false;
-        this.isFlagged = false;
-        this.adjacentMines = 0;
     }
     
     // Getters and Setters
@@ -35,57 +46,57 @@ public class Cell {
     }
     
     public boolean isMine() {
-        return isMine;
+        return storage.isMine(index);
     }
     
     public void setMine(boolean mine) {
-        isMine = mine;
+        storage.setMine(index, mine);
     }
     
     public boolean isRevealed() {
-        return isRevealed;
+        return storage.isRevealed(index);
     }
     
     public void setRevealed(boolean revealed) {
-        isRevealed = revealed;
+        storage.setRevealed(index, revealed);
     }
     
     public boolean isFlagged() {
-        return isFlagged;
+        return storage.isFlagged(index);
     }
     
     public void setFlagged(boolean flagged) {
-        isFlagged = flagged;
+        storage.setFlagged(index, flagged);
     }
     
     public int getAdjacentMines() {
-        return adjacentMines;
+        return storage.getAdjacentMines(index);
     }
     
     public void setAdjacentMines(int adjacentMines) {
-        this.adjacentMines = adjacentMines;
+        storage.setAdjacentMines(index, adjacentMines);
     }
     
     /**
      * 增加相邻地雷计数
      */
     public void incrementAdjacentMines() {
-        adjacentMines++;
+        storage.incrementAdjacentMines(index);
     }
     
     /**
      * 切换标记状态
      */
     public void toggleFlag() {
-        isFlagged = !isFlagged;
+        storage.setFlagged(index, !storage.isFlagged(index));
     }
     
     @Override
     public String toString() {
-        if (isMine) {
+        if (isMine()) {
             return "M";
-        } else if (adjacentMines > 0) {
-            return String.valueOf(adjacentMines);
+        } else if (getAdjacentMines() > 0) {
+            return String.valueOf(getAdjacentMines());
         } else {
             return "";
         }
@@ -0,0 +1,142 @@
+package games.minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * 扫雷棋盘的紧凑存储类
+ * 每个单元格只占用一个字节：低4位保存相邻地雷数量，高位保存地雷、翻开和标记状态
+ */
+public final class CellStorage {
+    public static final int ADJACENT_MASK = 0x0F; // 相邻地雷数量（0-15）
+    public static final int MINE = 0x10;          // 是否是地雷
+    public static final int REVEALED = 0x20;      // 是否已翻开
+    public static final int FLAGGED = 0x40;       // 是否已标记
+    
+    private final int rows;
+    private final int cols;
+    private final byte[] data;
+    
+    /**
+     * 构造函数
+     * @param rows 行数
+     * @param cols 列数
+     */
+    public CellStorage(int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("无效的棋盘大小: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new byte[rows * cols];
+    }
+    
+    /**
+     * 将所有单元格重置为初始状态（原地清零，不重新分配）
+     */
+    public void clear() {
+        Arrays.fill(data, (byte) 0);
+    }
+    
+    /**
+     * 清除所有地雷和相邻地雷计数，保留翻开和标记状态
+     */
+    public void clearMines() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] &= ~(MINE | ADJACENT_MASK);
+        }
+    }
+    
+    /**
+     * 计算单元格的线性下标
+     * @param row 行坐标
+     * @param col 列坐标
+     * @return 线性下标
+     */
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+    
+    /**
+     * 获取单元格的原始状态字节
+     * @param index 线性下标
+     * @return 状态（0-255）
+     */
+    public int getState(int index) {
+        return data[index] & 0xFF;
+    }
+    
+    public boolean isMine(int index) {
+        return (data[index] & MINE) != 0;
+    }
+    
+    public void setMine(int index, boolean mine) {
+        setBit(index, MINE, mine);
+    }
+    
+    public boolean isRevealed(int index) {
+        return (data[index] & REVEALED) != 0;
+    }
+    
+    public void setRevealed(int index, boolean revealed) {
+        setBit(index, REVEALED, revealed);
+    }
+    
+    public boolean isFlagged(int index) {
+        return (data[index] & FLAGGED) != 0;
+    }
+    
+    public void setFlagged(int index, boolean flagged) {
+        setBit(index, FLAGGED, flagged);
+    }
+    
+    public int getAdjacentMines(int index) {
+        return data[index] & ADJACENT_MASK;
+    }
+    
+    public void setAdjacentMines(int index, int count) {
+        data[index] = (byte) ((data[index] & ~ADJACENT_MASK) | (count & ADJACENT_MASK));
+    }
+    
+    /**
+     * 增加相邻地雷计数
+     * @param index 线性下标
+     */
+    public void incrementAdjacentMines(int index) {
+        data[index]++;
+    }
+    
+    /**
+     * 从另一个同样大小的存储复制地雷和相邻地雷计数，保留本存储的翻开和标记状态
+     * @param source 源存储
+     */
+    public void copyMinesFrom(CellStorage source) {
+        if (source.data.length != data.length) {
+            throw new IllegalArgumentException("存储大小不一致");
+        }
+        byte[] from = source.data;
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ((data[i] & ~(MINE | ADJACENT_MASK)) | (from[i] & (MINE | ADJACENT_MASK)));
+        }
+    }
+    
+    private void setBit(int index, int bit, boolean value) {
+        if (value) {
+            data[index] |= bit;
+        } else {
+            data[index] &= ~bit;
+        }
+    }
+    
+    // Getters
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public int size() {
+        return data.length;
+    }
+}
\ No newline at end of file
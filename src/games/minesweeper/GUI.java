@@ -1,8 +1,13 @@
 package games.minesweeper;
 
+import games.minesweeper.solver.NoGuessGenerator;
+import games.minesweeper.stats.GameStats;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -14,14 +19,18 @@ public class GUI {
     private Board board;
     private JFrame mainFrame;
     private JPanel mainPanel;
-    private JPanel boardPanel;
-    private JButton[][] cellButtons;
+    private BoardView boardView;
+    private HintOverlay hintOverlay;
     private JLabel timerLabel;
     private JLabel minesLeftLabel;
     private JButton restartButton;
     private int elapsedTime;
     private Timer timer;
     private boolean firstClick;
+    private NoGuessGenerator noGuessGenerator; // 无猜模式下的棋盘生成器
+    private BoardPreparer boardPreparer; // 在后台布雷
+    private boolean preparing;          // 正在后台布雷，期间忽略对棋盘的操作
+    private final GameStats gameStats = new GameStats(); // 本局的点击次数、用时和 3BV
     
     /**
      * 构造函数
@@ -32,6 +41,13 @@ public class GUI {
         this.board = new Board(settings);
         this.firstClick = true;
         this.elapsedTime = 0;
+        if (settings.isNoGuess()) {
+            this.noGuessGenerator = NoGuessGenerator.forSettings(settings);
+            this.boardPreparer = new BoardPreparer(settings, (firstRow, firstCol) -> noGuessGenerator.takeSeed(firstRow, firstCol).join(),
+                noGuessGenerator.getStartRow(), noGuessGenerator.getStartCol());
+        } else {
+            this.boardPreparer = new BoardPreparer(settings);
+        }
         
         initializeGUI();
     }
@@ -42,10 +58,6 @@ public class GUI {
     private void initializeGUI() {
         // 创建主面板
         mainPanel = new JPanel(new BorderLayout());
-        mainPanel.setPreferredSize(new Dimension(
-            settings.getCols() * settings.getCellSize(),
-            settings.getRows() * settings.getCellSize() + 50
-        ));
         
         // 创建顶部信息面板
         JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 5));
@@ -67,45 +79,61 @@ public class GUI {
         minesLeftLabel.setFont(new Font("Arial", Font.BOLD, 16));
         infoPanel.add(minesLeftLabel);
         
+        // 创建概率提示开关
+        JCheckBox hintCheckBox = new JCheckBox("提示");
+        hintCheckBox.setFocusable(false);
+        hintCheckBox.addActionListener(e -> hintOverlay.setEnabled(hintCheckBox.isSelected()));
+        infoPanel.add(hintCheckBox);
+        
+        // 创建存档按钮
+        JButton saveButton = new JButton("保存");
+        saveButton.setFocusable(false);
+        saveButton.addActionListener(e -> saveGame());
+        infoPanel.add(saveButton);
+        JButton loadButton = new JButton("读取");
+        loadButton.setFocusable(false);
+        loadButton.addActionListener(e -> loadGame());
+        infoPanel.add(loadButton);
+        
         mainPanel.add(infoPanel, BorderLayout.NORTH);
         
-        // 创建棋盘面板
-        boardPanel = new JPanel(new GridLayout(settings.getRows(), settings.getCols()));
-        createCellButtons();
-        mainPanel.add(boardPanel, BorderLayout.CENTER);
+        // 创建棋盘视图，大棋盘可滚动
+        createBoardView();
+        JScrollPane scrollPane = new JScrollPane(boardView);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
         
         // 创建计时器
         timer = new Timer();
     }
     
     /**
-     * 创建单元格按钮
+     * 创建棋盘视图
      */
-    private void createCellButtons() {
-        cellButtons = new JButton[settings.getRows()][settings.getCols()];
+    private void createBoardView() {
+        boardView = new BoardView(board, settings.getCellSize());
+        showStartCell();
+        hintOverlay = new HintOverlay(board, boardView);
         
-        for (int row = 0; row < settings.getRows(); row++) {
-            for (int col = 0; col < settings.getCols(); col++) {
-                JButton button = new JButton();
-                button.setPreferredSize(new Dimension(settings.getCellSize(), settings.getCellSize()));
-                button.setFont(new Font("Arial", Font.BOLD, 14));
-                button.setFocusPainted(false);
-                
-                // 添加鼠标事件监听器
-                int finalRow = row;
-                int finalCol = col;
-                
-                button.addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mousePressed(MouseEvent e) {
-                        handleCellClick(finalRow, finalCol, e.getButton());
-                    }
-                });
-                
-                cellButtons[row][col] = button;
-                boardPanel.add(button);
+        // 棋盘每次变化只重绘一次变化区域
+        board.addBoardListener(new BoardListener() {
+            @Override
+            public void cellsChanged(Board changedBoard, int firstRow, int firstCol, int lastRow, int lastCol, int changedCells) {
+                boardView.repaintCells(firstRow, firstCol, lastRow, lastCol);
             }
-        }
+        });
+        
+        // 添加鼠标事件监听器，通过坐标换算找到被点击的单元格
+        boardView.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int row = boardView.rowAt(e.getY());
+                int col = boardView.colAt(e.getX(), e.getY());
+                if (row >= 0 && col >= 0) {
+                    handleCellClick(row, col, e.getButton());
+                }
+            }
+        });
     }
     
     /**
@@ -115,84 +143,79 @@ public class GUI {
      * @param button 鼠标按钮
      */
     private void handleCellClick(int row, int col, int button) {
-        if (board.isGameOver()) {
+        if (board.isGameOver() || preparing) {
             return;
         }
+        if (button == MouseEvent.BUTTON1 || button == MouseEvent.BUTTON3) {
+            gameStats.recordClick(button == MouseEvent.BUTTON1);
+        }
         
-        // 第一次点击时放置地雷并开始计时
+        // 第一次点击时在后台布雷，完成后再开始计时并处理这次点击
         if (firstClick) {
-            board.placeMines(row, col);
-            startTimer();
             firstClick = false;
-        }
-        
-        // 根据鼠标按钮类型处理
-        if (button == MouseEvent.BUTTON1) { // 左键点击
-            boolean hitMine = board.clickCell(row, col);
-            if (hitMine) {
-                updateCellDisplay(row, col);
-                gameOver(false);
-            } else {
-                updateCellDisplay(row, col);
-                if (board.isGameWon()) {
-                    gameOver(true);
-                }
+            boardView.setStartCell(-1, -1);
+            CompletableFuture<Boolean> ready = boardPreparer.prepare(board, row, col);
+            if (ready.isDone() && !ready.isCompletedExceptionally()) {
+                startGame(row, col, button, ready.join());
+                return;
             }
-        } else if (button == MouseEvent.BUTTON3) { // 右键点击
-            board.flagCell(row, col);
-            updateCellDisplay(row, col);
-            updateMinesLeft();
+            preparing = true;
+            boardView.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            ready.whenComplete((seeded, error) -> SwingUtilities.invokeLater(() -> {
+                preparing = false;
+                boardView.setCursor(Cursor.getDefaultCursor());
+                if (error != null) {
+                    board.placeMines(row, col); // 后台布雷失败时退回到当前线程
+                }
+                startGame(row, col, button, error == null && seeded);
+            }));
+            return;
         }
+        applyClick(row, col, button);
     }
     
     /**
-     * 更新单元格显示
+     * 布雷完成后开始计时并处理第一次点击
      * @param row 行坐标
      * @param col 列坐标
+     * @param button 鼠标按钮
+     * @param seeded 是否用种子来源给出的种子布雷，无猜模式下为 false 时提示玩家
      */
-    private void updateCellDisplay(int row, int col) {
-        Cell cell = board.getCell(row, col);
-        JButton button = cellButtons[row][col];
-        
-        if (cell.isRevealed()) {
-            button.setEnabled(false);
-            button.setBorder(BorderFactory.createLineBorder(Color.GRAY));
-            
-            if (cell.isMine()) {
-                button.setText("💣");
-                button.setBackground(Color.RED);
-            } else {
-                int adjacentMines = cell.getAdjacentMines();
-                if (adjacentMines > 0) {
-                    button.setText(String.valueOf(adjacentMines));
-                    setCellTextColor(button, adjacentMines);
-                }
-            }
-        } else {
-            if (cell.isFlagged()) {
-                button.setText("🚩");
-            } else {
-                button.setText("");
-            }
+    private void startGame(int row, int col, int button, boolean seeded) {
+        if (!seeded && noGuessGenerator != null) {
+            showNoGuessFailure();
         }
+        startTimer();
+        applyClick(row, col, button);
     }
     
     /**
-     * 设置单元格文本颜色
-     * @param button 按钮
-     * @param adjacentMines 相邻地雷数量
+     * 告诉玩家没有找到无需猜测的棋盘，本局可能需要猜测
      */
-    private void setCellTextColor(JButton button, int adjacentMines) {
-        switch (adjacentMines) {
-            case 1: button.setForeground(Color.BLUE); break;
-            case 2: button.setForeground(Color.GREEN.darker()); break;
-            case 3: button.setForeground(Color.RED); break;
-            case 4: button.setForeground(Color.MAGENTA); break;
-            case 5: button.setForeground(Color.ORANGE.darker()); break;
-            case 6: button.setForeground(Color.CYAN); break;
-            case 7: button.setForeground(Color.BLACK); break;
-            case 8: button.setForeground(Color.GRAY); break;
-            default: button.setForeground(Color.BLACK);
+    private void showNoGuessFailure() {
+        JOptionPane.showMessageDialog(mainPanel, "没有找到无需猜测的棋盘，本局使用普通随机棋盘，可能需要猜测。",
+            "无猜模式", JOptionPane.WARNING_MESSAGE);
+    }
+    
+    /**
+     * 在已布雷的棋盘上执行一次点击
+     * @param row 行坐标
+     * @param col 列坐标
+     * @param button 鼠标按钮
+     */
+    private void applyClick(int row, int col, int button) {
+        // 根据鼠标按钮类型处理
+        if (button == MouseEvent.BUTTON1) { // 左键点击
+            boolean hitMine = board.clickCell(row, col);
+            if (hitMine) {
+                gameOver(false);
+            } else if (board.isGameWon()) {
+                updateMinesLeft();
+                gameOver(true);
+            }
+        } else if (button == MouseEvent.BUTTON3) { // 右键点击
+            board.flagCell(row, col);
+            updateMinesLeft();
         }
     }
     
@@ -200,15 +223,7 @@ public class GUI {
      * 更新剩余地雷数量显示
      */
     private void updateMinesLeft() {
-        int flagsPlaced = 0;
-        for (int row = 0; row < settings.getRows(); row++) {
-            for (int col = 0; col < settings.getCols(); col++) {
-                if (board.getCell(row, col).isFlagged()) {
-                    flagsPlaced++;
-                }
-            }
-        }
-        int minesLeft = settings.getMines() - flagsPlaced;
+        int minesLeft = settings.getMines() - board.getFlaggedCells();
         minesLeftLabel.setText("地雷: " + String.format("%03d", minesLeft));
     }
     
@@ -244,20 +259,16 @@ public class GUI {
      */
     private void gameOver(boolean won) {
         stopTimer();
+        gameStats.finish(board);
         
         if (won) {
             restartButton.setText("😎");
-            JOptionPane.showMessageDialog(mainPanel, "恭喜！你赢了！", "游戏结束", JOptionPane.INFORMATION_MESSAGE);
+            String message = String.format("恭喜！你赢了！%n用时: %.2f 秒%n3BV: %d    3BV/s: %.2f%n点击: %d    效率: %.0f%%",
+                gameStats.getElapsedSeconds(), gameStats.getThreeBV(), gameStats.getThreeBVPerSecond(),
+                gameStats.getClicks(), gameStats.getEfficiency() * 100);
+            JOptionPane.showMessageDialog(mainPanel, message, "游戏结束", JOptionPane.INFORMATION_MESSAGE);
         } else {
             restartButton.setText("😵");
-            // 显示所有地雷
-            for (int row = 0; row < settings.getRows(); row++) {
-                for (int col = 0; col < settings.getCols(); col++) {
-                    if (board.getCell(row, col).isMine()) {
-                        updateCellDisplay(row, col);
-                    }
-                }
-            }
             JOptionPane.showMessageDialog(mainPanel, "很遗憾！你踩到地雷了！", "游戏结束", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -266,31 +277,89 @@ public class GUI {
      * 重新开始游戏
      */
     private void restartGame() {
+        if (preparing) {
+            return;
+        }
         stopTimer();
         
         // 重置游戏状态
         firstClick = true;
         elapsedTime = 0;
+        gameStats.reset();
         board.restartGame();
         
         // 重置界面
         timerLabel.setText("时间: 000");
         minesLeftLabel.setText("地雷: " + String.format("%03d", settings.getMines()));
         restartButton.setText("😊");
+        showStartCell();
+    }
+    
+    /**
+     * 把当前游戏保存到玩家选择的文件
+     */
+    private void saveGame() {
+        if (preparing) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(mainPanel) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            BoardFile.save(chooser.getSelectedFile().toPath(), board, elapsedTime);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainPanel, "保存失败: " + e.getMessage(), "保存", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * 从玩家选择的文件读取游戏，继续计时
+     */
+    private void loadGame() {
+        if (preparing) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(mainPanel) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        stopTimer();
+        try {
+            elapsedTime = BoardFile.load(chooser.getSelectedFile().toPath(), board);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainPanel, "读取失败: " + e.getMessage(), "读取", JOptionPane.ERROR_MESSAGE);
+            if (!firstClick && !board.isGameOver()) {
+                startTimer();
+            }
+            return;
+        }
         
-        // 重置所有单元格按钮
-        for (int row = 0; row < settings.getRows(); row++) {
-            for (int col = 0; col < settings.getCols(); col++) {
-                JButton button = cellButtons[row][col];
-                button.setEnabled(true);
-                button.setText("");
-                button.setBackground(null);
-                button.setForeground(Color.BLACK);
-                button.setBorder(BorderFactory.createRaisedBevelBorder());
+        // 按读取的状态恢复界面
+        gameStats.resume(elapsedTime);
+        firstClick = !board.isMinesPlaced();
+        timerLabel.setText("时间: " + String.format("%03d", elapsedTime));
+        updateMinesLeft();
+        restartButton.setText(board.isGameWon() ? "😎" : board.isGameOver() ? "😵" : "😊");
+        if (firstClick) {
+            showStartCell();
+        } else {
+            boardView.setStartCell(-1, -1);
+            if (!board.isGameOver()) {
+                startTimer();
             }
         }
     }
     
+    /**
+     * 无猜模式下标出推荐的起点，从这里开始的棋盘已经预先生成好
+     */
+    private void showStartCell() {
+        if (noGuessGenerator != null && !noGuessGenerator.isExhausted()) {
+            boardView.setStartCell(noGuessGenerator.getStartRow(), noGuessGenerator.getStartCol());
+        }
+    }
+    
     /**
      * 获取主面板
      * @return 主面板
@@ -0,0 +1,175 @@
+package games.minesweeper;
+
+import games.minesweeper.solver.ProbabilityEngine;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 地雷概率提示
+ * 棋盘每次变化后在后台线程重新计算所有未知单元格是雷的概率，新的变化会让正在进行的计算作废。
+ * 结果分批交给事件分派线程写入棋盘视图，每批只重绘涉及的区域
+ */
+public class HintOverlay {
+    private static final int BATCH_SIZE = 256;    // 每批写入视图的单元格数量
+    
+    private final Board board;
+    private final BoardView view;
+    private final ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+    private ProbabilityEngine engine;      // 只在后台线程中使用
+    private int[] shownCells = new int[0]; // 视图中当前显示的边界单元格，只在事件分派线程中使用
+    private boolean enabled;
+    
+    /**
+     * 构造函数
+     * @param board 棋盘
+     * @param view 棋盘视图
+     */
+    public HintOverlay(Board board, BoardView view) {
+        this.board = board;
+        this.view = view;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "minesweeper-hints");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        board.addBoardListener(new BoardListener() {
+            @Override
+            public void cellsChanged(Board changedBoard, int firstRow, int firstCol, int lastRow, int lastCol, int changedCells) {
+                if (enabled) {
+                    schedule();
+                }
+            }
+        });
+    }
+    
+    /**
+     * 打开或关闭提示（在事件分派线程中调用）
+     * @param enabled 是否显示提示
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        view.setHintsVisible(enabled);
+        if (enabled) {
+            schedule();
+        } else {
+            generation.incrementAndGet();
+            clear(Float.NaN);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 作废正在进行的计算并重新安排一次
+     */
+    private void schedule() {
+        int current = generation.incrementAndGet();
+        executor.execute(() -> compute(current));
+    }
+    
+    /**
+     * 后台计算，结束前棋盘又发生变化时放弃
+     */
+    private void compute(int current) {
+        if (current != generation.get()) {
+            return;
+        }
+        if (!board.isMinesPlaced() || board.isGameOver()) {
+            SwingUtilities.invokeLater(() -> {
+                if (current == generation.get()) {
+                    clear(Float.NaN);
+                }
+            });
+            return;
+        }
+        if (engine == null) {
+            engine = new ProbabilityEngine(board.getNeighborTable());
+        }
+        
+        ProbabilityEngine.Result result;
+        try {
+            result = engine.compute(board.getStorage(), board.getMines(), () -> current != generation.get());
+        } catch (CancellationException e) {
+            return;
+        }
+        publish(current, result);
+    }
+    
+    /**
+     * 把计算结果分批交给事件分派线程
+     */
+    private void publish(int current, ProbabilityEngine.Result result) {
+        SwingUtilities.invokeLater(() -> {
+            if (current != generation.get()) {
+                return;
+            }
+            clear(result.getInteriorProbability());
+            int[] cells = new int[result.size()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = result.getCell(i);
+            }
+            shownCells = cells;
+        });
+        for (int start = 0; start < result.size(); start += BATCH_SIZE) {
+            int first = start;
+            int last = Math.min(result.size(), start + BATCH_SIZE);
+            SwingUtilities.invokeLater(() -> {
+                if (current == generation.get()) {
+                    showBatch(result, first, last);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 写入一批单元格的概率，并重绘它们所在的矩形区域
+     */
+    private void showBatch(ProbabilityEngine.Result result, int first, int last) {
+        int cols = board.getCols();
+        int firstRow = Integer.MAX_VALUE;
+        int firstCol = Integer.MAX_VALUE;
+        int lastRow = -1;
+        int lastCol = -1;
+        for (int i = first; i < last; i++) {
+            int index = result.getCell(i);
+            view.setHint(index, result.getProbability(i));
+            int row = index / cols;
+            int col = index % cols;
+            firstRow = Math.min(firstRow, row);
+            firstCol = Math.min(firstCol, col);
+            lastRow = Math.max(lastRow, row);
+            lastCol = Math.max(lastCol, col);
+        }
+        if (lastRow >= 0) {
+            view.repaintCells(firstRow, firstCol, lastRow, lastCol);
+        }
+    }
+    
+    /**
+     * 清除上一次的边界结果并设置新的非边界概率
+     * 非边界概率变化时所有未知单元格都要重绘，否则只重绘上一次的边界单元格
+     */
+    private void clear(float interiorProbability) {
+        int cols = board.getCols();
+        boolean interiorChanged = Float.floatToIntBits(interiorProbability) != Float.floatToIntBits(view.getInteriorHint());
+        for (int index : shownCells) {
+            view.setHint(index, Float.NaN);
+            if (!interiorChanged) {
+                view.repaintCell(index / cols, index % cols);
+            }
+        }
+        shownCells = new int[0];
+        view.setInteriorHint(interiorProbability);
+        if (interiorChanged) {
+            view.repaint();
+        }
+    }
+}
\ No newline at end of file
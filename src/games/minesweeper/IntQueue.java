@@ -0,0 +1,68 @@
+package games.minesweeper;
+
+/**
+ * 基本类型 int 的环形队列
+ * 容量不足时按倍数扩容，之后反复使用不再分配内存
+ */
+final class IntQueue {
+    private int[] elements;
+    private int head;
+    private int size;
+    
+    /**
+     * 构造函数
+     * @param initialCapacity 初始容量（会向上取整为2的幂）
+     */
+    IntQueue(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1;
+        this.elements = new int[capacity];
+    }
+    
+    /**
+     * 在队尾加入元素
+     * @param value 元素
+     */
+    void add(int value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+    
+    /**
+     * 取出队头元素（调用前须保证队列非空）
+     * @return 队头元素
+     */
+    int poll() {
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * 清空队列（保留已分配的容量）
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+    
+    private void grow() {
+        int[] grown = new int[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
\ No newline at end of file
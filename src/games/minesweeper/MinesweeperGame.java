@@ -11,6 +11,17 @@ public class MinesweeperGame {
         SwingUtilities.invokeLater(() -> {
             // 创建游戏设置
             Settings settings = new Settings(16, 30, 99); // 标准模式：16行30列99颗雷
+            for (String arg : args) {
+                if ("--no-guess".equals(arg)) {
+                    settings.setNoGuess(true); // 无猜模式
+                } else if ("--infinite".equals(arg)) {
+                    settings.setInfinite(true); // 无限模式
+                } else if ("--torus".equals(arg)) {
+                    settings.setTopology(Topology.TOROIDAL); // 环面棋盘
+                } else if ("--hex".equals(arg)) {
+                    settings.setTopology(Topology.HEXAGONAL); // 六边形棋盘
+                }
+            }
             
             // 创建主窗口
             JFrame frame = new JFrame("扫雷游戏");
@@ -18,8 +29,11 @@ public class MinesweeperGame {
             frame.setResizable(false);
             
             // 创建游戏面板
-            GUI gui = new GUI(settings);
-            frame.add(gui.getMainPanel());
+            if (settings.isInfinite()) {
+                frame.add(new WorldGUI(settings).getMainPanel());
+            } else {
+                frame.add(new GUI(settings).getMainPanel());
+            }
             
             // 设置窗口大小并居中显示
             frame.pack();
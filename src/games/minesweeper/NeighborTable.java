@@ -0,0 +1,192 @@
+package games.minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * 预先计算的邻居表
+ * 同一拓扑中，处于同一"位置类别"（第一行/中间行/最后一行 × 第一列/中间列/最后列，六边形棋盘还要区分行的奇偶）
+ * 的单元格，邻居相对下标的偏移完全相同。所以只需为每个单元格保存一个字节的类别，
+ * 再为每个类别保存一段偏移量：遍历邻居就是一次查表加一段没有边界判断的数组循环。
+ * 典型用法：
+ * <pre>
+ * int cls = table.classOf(index);
+ * for (int k = table.classStart(cls), end = table.classEnd(cls); k &lt; end; k++) {
+ *     int neighbor = index + table.delta(k);
+ * }
+ * </pre>
+ */
+public final class NeighborTable {
+    private static final int MAX_CLASSES = 32;
+    
+    private final Topology topology;
+    private final int rows;
+    private final int cols;
+    private final byte[] cellClass;     // 每个单元格的位置类别
+    private final int[] classStart;     // 每个类别的偏移量在 deltas 中的起点，长度为类别数 + 1
+    private final int[] deltas;         // 所有类别的邻居偏移量，连续存放
+    
+    /**
+     * 构造函数
+     * @param topology 拓扑
+     * @param rows 行数
+     * @param cols 列数
+     */
+    NeighborTable(Topology topology, int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+        this.topology = topology;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellClass = new byte[rows * cols];
+        
+        int[][] classDeltas = new int[MAX_CLASSES][];
+        int[] buffer = new int[topology.getMaxNeighbors()];
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            int rowClass = (edgeClass(row, rows) * 2 + (topology == Topology.HEXAGONAL ? row & 1 : 0)) * 4;
+            for (int col = 0; col < cols; col++, index++) {
+                int cls = rowClass + edgeClass(col, cols);
+                cellClass[index] = (byte) cls;
+                if (classDeltas[cls] == null) {
+                    classDeltas[cls] = computeDeltas(index, topology.neighbors(row, col, rows, cols, buffer), buffer);
+                }
+            }
+        }
+        
+        // 把各类别的偏移量连续存放
+        this.classStart = new int[MAX_CLASSES + 1];
+        int total = 0;
+        for (int cls = 0; cls < MAX_CLASSES; cls++) {
+            classStart[cls] = total;
+            total += classDeltas[cls] == null ? 0 : classDeltas[cls].length;
+        }
+        classStart[MAX_CLASSES] = total;
+        this.deltas = new int[total];
+        for (int cls = 0; cls < MAX_CLASSES; cls++) {
+            if (classDeltas[cls] != null) {
+                System.arraycopy(classDeltas[cls], 0, deltas, classStart[cls], classDeltas[cls].length);
+            }
+        }
+    }
+    
+    /**
+     * 坐标在所在维度上的位置：0 中间，1 第一个，2 最后一个，3 既是第一个又是最后一个
+     */
+    private static int edgeClass(int position, int length) {
+        return (position == 0 ? 1 : 0) | (position == length - 1 ? 2 : 0);
+    }
+    
+    /**
+     * 把邻居下标转换为相对偏移量，去掉重复和自身
+     */
+    private static int[] computeDeltas(int index, int count, int[] neighbors) {
+        int[] result = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = neighbors[i] - index;
+            boolean duplicate = delta == 0;
+            for (int j = 0; j < size && !duplicate; j++) {
+                duplicate = result[j] == delta;
+            }
+            if (!duplicate) {
+                result[size++] = delta;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+    
+    /**
+     * 获取单元格的位置类别
+     * @param index 单元格下标
+     * @return 类别
+     */
+    public int classOf(int index) {
+        return cellClass[index];
+    }
+    
+    /**
+     * 获取类别的第一个偏移量在表中的位置
+     * @param cls 类别
+     * @return 起点（包含）
+     */
+    public int classStart(int cls) {
+        return classStart[cls];
+    }
+    
+    /**
+     * 获取类别的偏移量在表中的终点
+     * @param cls 类别
+     * @return 终点（不包含）
+     */
+    public int classEnd(int cls) {
+        return classStart[cls + 1];
+    }
+    
+    /**
+     * 获取表中第 k 个邻居偏移量
+     * @param k 位置
+     * @return 邻居下标 - 单元格下标
+     */
+    public int delta(int k) {
+        return deltas[k];
+    }
+    
+    /**
+     * 获取单元格的邻居数量
+     * @param index 单元格下标
+     * @return 邻居数量
+     */
+    public int count(int index) {
+        int cls = cellClass[index];
+        return classStart[cls + 1] - classStart[cls];
+    }
+    
+    /**
+     * 把单元格的所有邻居下标写入数组
+     * @param index 单元格下标
+     * @param out 输出：邻居下标，长度至少为 {@link #getMaxNeighbors()}
+     * @return 邻居数量
+     */
+    public int neighbors(int index, int[] out) {
+        int cls = cellClass[index];
+        int count = 0;
+        for (int k = classStart[cls], end = classStart[cls + 1]; k < end; k++) {
+            out[count++] = index + deltas[k];
+        }
+        return count;
+    }
+    
+    /**
+     * 判断两个单元格是否相邻
+     * @param index 单元格下标
+     * @param other 另一个单元格下标
+     * @return 是否相邻
+     */
+    public boolean isNeighbor(int index, int other) {
+        int cls = cellClass[index];
+        for (int k = classStart[cls], end = classStart[cls + 1]; k < end; k++) {
+            if (index + deltas[k] == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Getters
+    public Topology getTopology() {
+        return topology;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public int getMaxNeighbors() {
+        return topology.getMaxNeighbors();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package games.minesweeper;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 超大棋盘的并行相邻地雷计数
+ * 按行区间拆分为 fork/join 任务，每个任务只写自己区间内的单元格
+ */
+final class ParallelAdjacency extends RecursiveAction {
+    private static final int GRAIN_ROWS = 64; // 单个任务处理的最大行数
+    
+    private final CellStorage storage;
+    private final NeighborTable neighbors;
+    private final int fromRow;
+    private final int toRow;
+    
+    /**
+     * 构造函数
+     * @param storage 棋盘存储
+     * @param neighbors 邻居表
+     * @param fromRow 起始行（包含）
+     * @param toRow 结束行（不包含）
+     */
+    ParallelAdjacency(CellStorage storage, NeighborTable neighbors, int fromRow, int toRow) {
+        this.storage = storage;
+        this.neighbors = neighbors;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+    
+    @Override
+    protected void compute() {
+        if (toRow - fromRow <= GRAIN_ROWS) {
+            computeDirectly();
+            return;
+        }
+        int mid = (fromRow + toRow) >>> 1;
+        invokeAll(new ParallelAdjacency(storage, neighbors, fromRow, mid), new ParallelAdjacency(storage, neighbors, mid, toRow));
+    }
+    
+    private void computeDirectly() {
+        int cols = storage.getCols();
+        for (int index = fromRow * cols, end = toRow * cols; index < end; index++) {
+            if (storage.isMine(index)) {
+                storage.setAdjacentMines(index, 0);
+                continue;
+            }
+            int count = 0;
+            int cls = neighbors.classOf(index);
+            for (int k = neighbors.classStart(cls), last = neighbors.classEnd(cls); k < last; k++) {
+                if (storage.isMine(index + neighbors.delta(k))) {
+                    count++;
+                }
+            }
+            storage.setAdjacentMines(index, count);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package games.minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 大棋盘的并行连锁翻开
+ * 按层推进边界：每一层的边界被拆分给多个 fork/join 任务并行扩展，
+ * 单元格通过访问位图上的 CAS 认领，保证每个单元格只被一个任务翻开
+ */
+final class ParallelReveal {
+    private static final int GRAIN = 4096; // 单个任务处理的最大边界单元格数
+    
+    private final CellStorage storage;
+    private final NeighborTable neighbors;
+    private final int cols;
+    private final AtomicLongArray visited;
+    
+    // 最近一次翻开区域的外接矩形
+    private int firstRow;
+    private int firstCol;
+    private int lastRow;
+    private int lastCol;
+    
+    /**
+     * 构造函数
+     * @param storage 棋盘存储
+     * @param neighbors 邻居表
+     */
+    ParallelReveal(CellStorage storage, NeighborTable neighbors) {
+        this.storage = storage;
+        this.neighbors = neighbors;
+        this.cols = storage.getCols();
+        this.visited = new AtomicLongArray((storage.size() + 63) >>> 6);
+    }
+    
+    /**
+     * 从一个已翻开的空白单元格开始连锁翻开
+     * @param startIndex 起始单元格下标
+     * @return 本次新翻开的单元格数量
+     */
+    int reveal(int startIndex) {
+        for (int i = 0; i < visited.length(); i++) {
+            visited.lazySet(i, 0L);
+        }
+        
+        firstRow = Integer.MAX_VALUE;
+        firstCol = Integer.MAX_VALUE;
+        lastRow = -1;
+        lastCol = -1;
+        
+        int[] frontier = {startIndex};
+        int frontierSize = 1;
+        int total = 0;
+        while (frontierSize > 0) {
+            Expand level = new Expand(frontier, 0, frontierSize);
+            level.invoke();
+            total += level.revealed;
+            if (level.revealed > 0) {
+                firstRow = Math.min(firstRow, level.firstRow);
+                firstCol = Math.min(firstCol, level.firstCol);
+                lastRow = Math.max(lastRow, level.lastRow);
+                lastCol = Math.max(lastCol, level.lastCol);
+            }
+            frontier = level.next;
+            frontierSize = level.nextSize;
+        }
+        return total;
+    }
+    
+    // 最近一次翻开区域的外接矩形（没有翻开任何单元格时无意义）
+    int getFirstRow() {
+        return firstRow;
+    }
+    
+    int getFirstCol() {
+        return firstCol;
+    }
+    
+    int getLastRow() {
+        return lastRow;
+    }
+    
+    int getLastCol() {
+        return lastCol;
+    }
+    
+    /**
+     * 认领单元格
+     * @param index 单元格下标
+     * @return 是否由当前线程认领成功
+     */
+    private boolean claim(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = visited.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * 扩展一段边界的任务
+     */
+    private final class Expand extends RecursiveAction {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private int revealed;
+        private int[] next;
+        private int nextSize;
+        private int firstRow = Integer.MAX_VALUE;
+        private int firstCol = Integer.MAX_VALUE;
+        private int lastRow = -1;
+        private int lastCol = -1;
+        
+        Expand(int[] frontier, int from, int to) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                expandDirectly();
+                return;
+            }
+            
+            int mid = (from + to) >>> 1;
+            Expand left = new Expand(frontier, from, mid);
+            Expand right = new Expand(frontier, mid, to);
+            invokeAll(left, right);
+            
+            // 合并两个子任务的结果
+            revealed = left.revealed + right.revealed;
+            firstRow = Math.min(left.firstRow, right.firstRow);
+            firstCol = Math.min(left.firstCol, right.firstCol);
+            lastRow = Math.max(left.lastRow, right.lastRow);
+            lastCol = Math.max(left.lastCol, right.lastCol);
+            nextSize = left.nextSize + right.nextSize;
+            next = new int[nextSize];
+            System.arraycopy(left.next, 0, next, 0, left.nextSize);
+            System.arraycopy(right.next, 0, next, left.nextSize, right.nextSize);
+        }
+        
+        private void expandDirectly() {
+            next = new int[Math.max(16, (to - from) * 2)];
+            for (int i = from; i < to; i++) {
+                int index = frontier[i];
+                int cls = neighbors.classOf(index);
+                for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+                    int neighbor = index + neighbors.delta(k);
+                    int state = storage.getState(neighbor);
+                    if ((state & (CellStorage.REVEALED | CellStorage.FLAGGED | CellStorage.MINE)) != 0
+                            || !claim(neighbor)) {
+                        continue;
+                    }
+                    // 只有认领成功的线程会写这个字节
+                    storage.setRevealed(neighbor, true);
+                    revealed++;
+                    int r = neighbor / cols;
+                    int c = neighbor - r * cols;
+                    firstRow = Math.min(firstRow, r);
+                    firstCol = Math.min(firstCol, c);
+                    lastRow = Math.max(lastRow, r);
+                    lastCol = Math.max(lastCol, c);
+                    if ((state & CellStorage.ADJACENT_MASK) == 0) {
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, nextSize << 1);
+                        }
+                        next[nextSize++] = neighbor;
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
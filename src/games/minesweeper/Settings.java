@@ -8,6 +8,9 @@ public class Settings {
     private int cols; // 棋盘列数
     private int mines; // 地雷数量
     private int cellSize; // 单元格大小（像素）
+    private boolean noGuess; // 是否只生成无需猜测的棋盘
+    private boolean infinite; // 是否为无限模式（按棋盘的地雷密度生成无限世界）
+    private Topology topology = Topology.RECTANGULAR; // 棋盘拓扑
     
     /**
      * 构造函数
@@ -78,6 +81,30 @@ public class Settings {
         this.cellSize = cellSize;
     }
     
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+    
+    public void setNoGuess(boolean noGuess) {
+        this.noGuess = noGuess;
+    }
+    
+    public boolean isInfinite() {
+        return infinite;
+    }
+    
+    public void setInfinite(boolean infinite) {
+        this.infinite = infinite;
+    }
+    
+    public Topology getTopology() {
+        return topology;
+    }
+    
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+    
     public int getTotalCells() {
         return rows * cols;
     }
@@ -0,0 +1,103 @@
+package games.minesweeper;
+
+/**
+ * 棋盘拓扑：决定哪些单元格互为邻居
+ * 每种拓扑只在建表时计算一次邻居，之后所有热点循环都通过 {@link NeighborTable} 遍历邻居
+ */
+public enum Topology {
+    /**
+     * 普通矩形棋盘，每个单元格最多 8 个邻居
+     */
+    RECTANGULAR(8) {
+        @Override
+        int neighbors(int row, int col, int rows, int cols, int[] out) {
+            int count = 0;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int c = col + dc;
+                    if ((dr != 0 || dc != 0) && r >= 0 && r < rows && c >= 0 && c < cols) {
+                        out[count++] = r * cols + c;
+                    }
+                }
+            }
+            return count;
+        }
+    },
+    
+    /**
+     * 环面棋盘：上下、左右边缘相连，每个单元格都有 8 个邻居（棋盘小于 3x3 时会有重复，重复的邻居只算一次）
+     */
+    TOROIDAL(8) {
+        @Override
+        int neighbors(int row, int col, int rows, int cols, int[] out) {
+            int count = 0;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr != 0 || dc != 0) {
+                        int r = (row + dr + rows) % rows;
+                        int c = (col + dc + cols) % cols;
+                        out[count++] = r * cols + c;
+                    }
+                }
+            }
+            return count;
+        }
+    },
+    
+    /**
+     * 六边形棋盘：奇数行向右错开半格，每个单元格最多 6 个邻居
+     */
+    HEXAGONAL(6) {
+        @Override
+        int neighbors(int row, int col, int rows, int cols, int[] out) {
+            int shift = row & 1;    // 奇数行的上下邻居向右偏移一列
+            int count = 0;
+            count = add(row, col - 1, rows, cols, out, count);
+            count = add(row, col + 1, rows, cols, out, count);
+            for (int dr = -1; dr <= 1; dr += 2) {
+                count = add(row + dr, col - 1 + shift, rows, cols, out, count);
+                count = add(row + dr, col + shift, rows, cols, out, count);
+            }
+            return count;
+        }
+    };
+    
+    private final int maxNeighbors;
+    
+    Topology(int maxNeighbors) {
+        this.maxNeighbors = maxNeighbors;
+    }
+    
+    /**
+     * 计算单元格的所有邻居（建表时使用，可以包含重复或自身，建表时会去掉）
+     * @param row 行坐标
+     * @param col 列坐标
+     * @param rows 棋盘行数
+     * @param cols 棋盘列数
+     * @param out 输出：邻居下标，长度至少为 {@link #getMaxNeighbors()}
+     * @return 邻居数量
+     */
+    abstract int neighbors(int row, int col, int rows, int cols, int[] out);
+    
+    private static int add(int row, int col, int rows, int cols, int[] out, int count) {
+        if (row >= 0 && row < rows && col >= 0 && col < cols) {
+            out[count++] = row * cols + col;
+        }
+        return count;
+    }
+    
+    /**
+     * 为指定尺寸的棋盘建立邻居表
+     * @param rows 行数
+     * @param cols 列数
+     * @return 邻居表
+     */
+    public NeighborTable createNeighborTable(int rows, int cols) {
+        return new NeighborTable(this, rows, cols);
+    }
+    
+    public int getMaxNeighbors() {
+        return maxNeighbors;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package games.minesweeper;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 邻居遍历性能测试程序
+ * 在同一个随机布雷的大棋盘上比较原来的 dr/dc 双重循环（每个邻居都做边界判断）和各拓扑的邻居表遍历：
+ * 计算相邻地雷数量和从所有数字为 0 的单元格连锁翻开，输出每个单元格的平均耗时
+ *
+ * 用法：java games.minesweeper.TopologyBenchmark [行数] [列数] [地雷密度] [轮数]
+ */
+public class TopologyBenchmark {
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        double density = args.length > 2 ? Double.parseDouble(args[2]) : 0.12;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        System.out.printf("棋盘: %dx%d, 地雷密度: %.2f, 轮数: %d%n", rows, cols, density, rounds);
+        CellStorage storage = new CellStorage(rows, cols);
+        Random random = new Random(1);
+        for (int index = 0; index < storage.size(); index++) {
+            storage.setMine(index, random.nextDouble() < density);
+        }
+        int[] queue = new int[storage.size()];
+        
+        // 第一轮只用于预热
+        for (int round = 0; round <= rounds; round++) {
+            boolean report = round == rounds;
+            
+            long start = System.nanoTime();
+            legacyAdjacency(storage);
+            long adjacency = System.nanoTime() - start;
+            start = System.nanoTime();
+            int revealed = legacyFlood(storage, queue);
+            long flood = System.nanoTime() - start;
+            if (report) {
+                print("dr/dc 循环", storage.size(), adjacency, revealed, flood);
+            }
+            
+            for (Topology topology : Topology.values()) {
+                NeighborTable table = topology.createNeighborTable(rows, cols);
+                start = System.nanoTime();
+                tableAdjacency(storage, table);
+                adjacency = System.nanoTime() - start;
+                start = System.nanoTime();
+                revealed = tableFlood(storage, table, queue);
+                flood = System.nanoTime() - start;
+                if (report) {
+                    print(topology + " 邻居表", storage.size(), adjacency, revealed, flood);
+                }
+            }
+        }
+    }
+    
+    private static void print(String name, int cells, long adjacency, int revealed, long flood) {
+        System.out.printf(Locale.ROOT, "%-16s 相邻地雷: %6.2f ns/格   连锁翻开: %6.2f ns/格 (%d 格)%n",
+            name, (double) adjacency / cells, revealed == 0 ? 0 : (double) flood / revealed, revealed);
+    }
+    
+    /**
+     * 原来的写法：逐个单元格重新数一遍周围的地雷
+     */
+    private static void legacyAdjacency(CellStorage storage) {
+        int rows = storage.getRows();
+        int cols = storage.getCols();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int count = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int r = row + dr;
+                        int c = col + dc;
+                        if ((dr != 0 || dc != 0) && r >= 0 && r < rows && c >= 0 && c < cols
+                                && storage.isMine(r * cols + c)) {
+                            count++;
+                        }
+                    }
+                }
+                storage.setAdjacentMines(row * cols + col, count);
+            }
+        }
+    }
+    
+    private static void tableAdjacency(CellStorage storage, NeighborTable table) {
+        for (int index = 0, size = storage.size(); index < size; index++) {
+            int count = 0;
+            int cls = table.classOf(index);
+            for (int k = table.classStart(cls), end = table.classEnd(cls); k < end; k++) {
+                if (storage.isMine(index + table.delta(k))) {
+                    count++;
+                }
+            }
+            storage.setAdjacentMines(index, count);
+        }
+    }
+    
+    /**
+     * 原来的写法：广度优先连锁翻开，每个邻居都做边界判断
+     */
+    private static int legacyFlood(CellStorage storage, int[] queue) {
+        int rows = storage.getRows();
+        int cols = storage.getCols();
+        resetRevealed(storage);
+        int revealed = 0;
+        for (int seed = 0; seed < storage.size(); seed++) {
+            if (!isZeroHidden(storage.getState(seed))) {
+                continue;
+            }
+            storage.setRevealed(seed, true);
+            revealed++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int current = queue[head++];
+                int row = current / cols;
+                int col = current - row * cols;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int r = row + dr;
+                        int c = col + dc;
+                        if ((dr == 0 && dc == 0) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                            continue;
+                        }
+                        int index = r * cols + c;
+                        int state = storage.getState(index);
+                        if ((state & (CellStorage.REVEALED | CellStorage.MINE)) == 0) {
+                            storage.setRevealed(index, true);
+                            revealed++;
+                            if ((state & CellStorage.ADJACENT_MASK) == 0) {
+                                queue[tail++] = index;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return revealed;
+    }
+    
+    private static int tableFlood(CellStorage storage, NeighborTable table, int[] queue) {
+        resetRevealed(storage);
+        int revealed = 0;
+        for (int seed = 0; seed < storage.size(); seed++) {
+            if (!isZeroHidden(storage.getState(seed))) {
+                continue;
+            }
+            storage.setRevealed(seed, true);
+            revealed++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int current = queue[head++];
+                int cls = table.classOf(current);
+                for (int k = table.classStart(cls), end = table.classEnd(cls); k < end; k++) {
+                    int index = current + table.delta(k);
+                    int state = storage.getState(index);
+                    if ((state & (CellStorage.REVEALED | CellStorage.MINE)) == 0) {
+                        storage.setRevealed(index, true);
+                        revealed++;
+                        if ((state & CellStorage.ADJACENT_MASK) == 0) {
+                            queue[tail++] = index;
+                        }
+                    }
+                }
+            }
+        }
+        return revealed;
+    }
+    
+    private static boolean isZeroHidden(int state) {
+        return (state & (CellStorage.REVEALED | CellStorage.MINE | CellStorage.ADJACENT_MASK)) == 0;
+    }
+    
+    private static void resetRevealed(CellStorage storage) {
+        for (int index = 0; index < storage.size(); index++) {
+            storage.setRevealed(index, false);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package games.minesweeper;
+
+import games.minesweeper.world.World;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.Random;
+
+/**
+ * 无限模式图形界面类
+ * 地雷密度与设置中的棋盘相同，从世界原点开始，没有获胜条件，翻开的单元格数量即为得分
+ */
+public class WorldGUI {
+    private Settings settings;
+    private World world;
+    private JPanel mainPanel;
+    private WorldView worldView;
+    private JLabel revealedLabel;
+    private JLabel positionLabel;
+    private JLabel chunksLabel;
+    private JButton restartButton;
+    
+    /**
+     * 构造函数
+     * @param settings 游戏设置
+     */
+    public WorldGUI(Settings settings) {
+        this.settings = settings;
+        this.world = new World(settings, new Random().nextLong());
+        
+        initializeGUI();
+    }
+    
+    /**
+     * 初始化图形界面
+     */
+    private void initializeGUI() {
+        // 创建主面板
+        mainPanel = new JPanel(new BorderLayout());
+        
+        // 创建顶部信息面板
+        JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 5));
+        
+        revealedLabel = new JLabel();
+        revealedLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        infoPanel.add(revealedLabel);
+        
+        restartButton = new JButton("😊");
+        restartButton.setFont(new Font("Arial", Font.PLAIN, 20));
+        restartButton.setPreferredSize(new Dimension(40, 40));
+        restartButton.setFocusable(false);
+        restartButton.addActionListener(e -> restartGame());
+        infoPanel.add(restartButton);
+        
+        positionLabel = new JLabel();
+        infoPanel.add(positionLabel);
+        
+        chunksLabel = new JLabel();
+        infoPanel.add(chunksLabel);
+        
+        mainPanel.add(infoPanel, BorderLayout.NORTH);
+        
+        // 创建世界视图，窗口大小与设置中的棋盘相同
+        worldView = new WorldView(world, settings.getRows(), settings.getCols(), settings.getCellSize());
+        worldView.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (SwingUtilities.isMiddleMouseButton(e)) {
+                    return;
+                }
+                handleCellClick(worldView.rowAt(e.getY()), worldView.colAt(e.getX()), e.getButton());
+            }
+        });
+        worldView.addPropertyChangeListener("origin", e -> updateStatus());
+        mainPanel.add(worldView, BorderLayout.CENTER);
+        updateStatus();
+    }
+    
+    /**
+     * 处理单元格点击
+     * @param row 行坐标
+     * @param col 列坐标
+     * @param button 鼠标按钮
+     */
+    private void handleCellClick(int row, int col, int button) {
+        if (world.isGameOver()) {
+            return;
+        }
+        
+        if (button == MouseEvent.BUTTON1) { // 左键点击
+            boolean hitMine = world.reveal(row, col);
+            worldView.repaint();
+            updateStatus();
+            if (hitMine) {
+                restartButton.setText("😵");
+                JOptionPane.showMessageDialog(mainPanel, "很遗憾！你踩到地雷了！共翻开 " + world.getRevealedCells() + " 个单元格",
+                    "游戏结束", JOptionPane.ERROR_MESSAGE);
+            }
+        } else if (button == MouseEvent.BUTTON3) { // 右键点击
+            world.flag(row, col);
+            worldView.repaint();
+            updateStatus();
+        }
+    }
+    
+    /**
+     * 更新得分、位置和区块数量显示
+     */
+    private void updateStatus() {
+        revealedLabel.setText("已翻开: " + world.getRevealedCells());
+        positionLabel.setText("位置: (" + worldView.getCenterRow() + ", " + worldView.getCenterCol() + ")");
+        chunksLabel.setText("区块: " + world.getLoadedChunks() + " / 磁盘 " + world.getSpilledChunks());
+    }
+    
+    /**
+     * 重新开始游戏：换一个新的世界种子并回到原点
+     */
+    private void restartGame() {
+        world.close();
+        world = new World(settings, new Random().nextLong());
+        worldView.setWorld(world);
+        worldView.centerOn(0, 0);
+        restartButton.setText("😊");
+        updateStatus();
+        worldView.requestFocusInWindow();
+    }
+    
+    /**
+     * 获取主面板
+     * @return 主面板
+     */
+    public JPanel getMainPanel() {
+        return mainPanel;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package games.minesweeper;
+
+import games.minesweeper.world.World;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * 无限世界的绘制组件
+ * 组件大小固定，显示以 (originRow, originCol) 为左上角的一个窗口；
+ * 方向键或鼠标中键拖动平移，滚轮上下移动，Shift+滚轮左右移动。窗口移动时触发 "origin" 属性变化事件
+ */
+public class WorldView extends JComponent {
+    private static final int PAN_STEP = 1;      // 方向键每次平移的单元格数量
+    private static final int FAST_PAN_STEP = 16; // 按住 Shift 时的平移步长
+    
+    private final int cellSize;
+    private final BufferedImage[] glyphs;
+    private World world;
+    private int originRow;
+    private int originCol;
+    private Point dragStart;
+    
+    /**
+     * 构造函数
+     * @param world 世界
+     * @param visibleRows 可见行数
+     * @param visibleCols 可见列数
+     * @param cellSize 单元格大小（像素）
+     */
+    public WorldView(World world, int visibleRows, int visibleCols, int cellSize) {
+        this.world = world;
+        this.cellSize = cellSize;
+        this.glyphs = BoardView.createGlyphs(cellSize);
+        setPreferredSize(new Dimension(visibleCols * cellSize, visibleRows * cellSize));
+        setOpaque(true);
+        setFocusable(true);
+        centerOn(0, 0);
+        
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int step = e.isShiftDown() ? FAST_PAN_STEP : PAN_STEP;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_UP: pan(-step, 0); break;
+                    case KeyEvent.VK_DOWN: pan(step, 0); break;
+                    case KeyEvent.VK_LEFT: pan(0, -step); break;
+                    case KeyEvent.VK_RIGHT: pan(0, step); break;
+                }
+            }
+        });
+        
+        // 中键拖动平移
+        MouseAdapter dragHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                if (SwingUtilities.isMiddleMouseButton(e)) {
+                    dragStart = e.getPoint();
+                }
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) {
+                    return;
+                }
+                int rows = (dragStart.y - e.getY()) / cellSize;
+                int cols = (dragStart.x - e.getX()) / cellSize;
+                if (rows != 0 || cols != 0) {
+                    pan(rows, cols);
+                    dragStart.translate(-cols * cellSize, -rows * cellSize);
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                int steps = e.getWheelRotation() * 3;
+                if (e.isShiftDown()) {
+                    pan(0, steps);
+                } else {
+                    pan(steps, 0);
+                }
+            }
+        };
+        addMouseListener(dragHandler);
+        addMouseMotionListener(dragHandler);
+        addMouseWheelListener(dragHandler);
+    }
+    
+    /**
+     * 平移窗口
+     * @param rows 向下移动的行数
+     * @param cols 向右移动的列数
+     */
+    public void pan(int rows, int cols) {
+        originRow += rows;
+        originCol += cols;
+        repaint();
+        firePropertyChange("origin", null, new Point(originCol, originRow));
+    }
+    
+    /**
+     * 把窗口中心移到指定单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     */
+    public void centerOn(int row, int col) {
+        Dimension size = getPreferredSize();
+        originRow = row - size.height / cellSize / 2;
+        originCol = col - size.width / cellSize / 2;
+        repaint();
+        firePropertyChange("origin", null, new Point(originCol, originRow));
+    }
+    
+    /**
+     * 把组件内的 y 坐标换算成世界行坐标
+     * @param y 像素坐标
+     * @return 行坐标
+     */
+    public int rowAt(int y) {
+        return originRow + Math.floorDiv(y, cellSize);
+    }
+    
+    public int colAt(int x) {
+        return originCol + Math.floorDiv(x, cellSize);
+    }
+    
+    public void setWorld(World world) {
+        this.world = world;
+        repaint();
+    }
+    
+    public int getCenterRow() {
+        return originRow + getPreferredSize().height / cellSize / 2;
+    }
+    
+    public int getCenterCol() {
+        return originCol + getPreferredSize().width / cellSize / 2;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstRow = clip.y / cellSize;
+        int lastRow = (clip.y + clip.height - 1) / cellSize;
+        int firstCol = clip.x / cellSize;
+        int lastCol = (clip.x + clip.width - 1) / cellSize;
+        
+        // 按行绘制，同一区块内的连续访问不需要查找缓存
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int state = world.getState(originRow + row, originCol + col);
+                g.drawImage(glyphs[BoardView.glyphFor(state)], col * cellSize, row * cellSize, null);
+            }
+        }
+    }
+}
\ No newline at end of file
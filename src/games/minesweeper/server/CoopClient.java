@@ -0,0 +1,155 @@
+package games.minesweeper.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * 多人合作模式的客户端
+ * 命令可以在任意线程发送；服务器推送的棋盘信息和单元格变化由后台读取线程交给监听器
+ */
+public class CoopClient {
+    /**
+     * 服务器推送的监听器（在读取线程中调用）
+     */
+    public interface Listener {
+        /**
+         * 收到棋盘信息
+         * @param rows 行数
+         * @param cols 列数
+         * @param mines 地雷数量
+         */
+        void boardInfo(int rows, int cols, int mines);
+        
+        /**
+         * 订阅区域内的单元格状态变化（订阅时的快照也逐个单元格通知）
+         * @param row 行坐标
+         * @param col 列坐标
+         * @param state 可见状态（未翻开的单元格只有标记位）
+         */
+        void cellChanged(int row, int col, int state);
+        
+        /**
+         * 连接断开
+         */
+        void disconnected();
+    }
+    
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Listener listener;
+    
+    /**
+     * 连接本机的合作模式服务器
+     * @param port 端口
+     * @param listener 监听器
+     * @throws IOException 连接失败
+     */
+    public CoopClient(int port, Listener listener) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.listener = listener;
+        
+        Thread reader = new Thread(this::readLoop, "coop-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+    
+    private void readLoop() {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case CoopProtocol.HELLO:
+                        listener.boardInfo(in.readInt(), in.readInt(), in.readInt());
+                        break;
+                    case CoopProtocol.SNAPSHOT:
+                        int firstRow = in.readInt();
+                        int firstCol = in.readInt();
+                        int lastRow = in.readInt();
+                        int lastCol = in.readInt();
+                        for (int row = firstRow; row <= lastRow; row++) {
+                            for (int col = firstCol; col <= lastCol; col++) {
+                                listener.cellChanged(row, col, in.readUnsignedByte());
+                            }
+                        }
+                        break;
+                    case CoopProtocol.DELTA:
+                        int count = in.readInt();
+                        for (int i = 0; i < count; i++) {
+                            listener.cellChanged(in.readInt(), in.readInt(), in.readUnsignedByte());
+                        }
+                        break;
+                    default:
+                        throw new IOException("未知的消息类型: " + type);
+                }
+            }
+        } catch (IOException e) {
+            // 连接关闭
+        } finally {
+            listener.disconnected();
+        }
+    }
+    
+    /**
+     * 订阅一块区域，之前的订阅被替换
+     * @param firstRow 起始行（包含）
+     * @param firstCol 起始列（包含）
+     * @param lastRow 结束行（包含）
+     * @param lastCol 结束列（包含）
+     * @throws IOException 发送失败
+     */
+    public synchronized void subscribe(int firstRow, int firstCol, int lastRow, int lastCol) throws IOException {
+        out.writeByte(CoopProtocol.SUBSCRIBE);
+        out.writeInt(firstRow);
+        out.writeInt(firstCol);
+        out.writeInt(lastRow);
+        out.writeInt(lastCol);
+        out.flush();
+    }
+    
+    /**
+     * 翻开单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     * @throws IOException 发送失败
+     */
+    public synchronized void reveal(int row, int col) throws IOException {
+        send(CoopProtocol.REVEAL, row, col);
+    }
+    
+    /**
+     * 标记或取消标记单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     * @throws IOException 发送失败
+     */
+    public synchronized void flag(int row, int col) throws IOException {
+        send(CoopProtocol.FLAG, row, col);
+    }
+    
+    private void send(byte type, int row, int col) throws IOException {
+        out.writeByte(type);
+        out.writeInt(row);
+        out.writeInt(col);
+        out.flush();
+    }
+    
+    /**
+     * 断开连接
+     */
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 已经关闭
+        }
+    }
+}
\ No newline at end of file
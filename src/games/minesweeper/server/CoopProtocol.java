@@ -0,0 +1,41 @@
+package games.minesweeper.server;
+
+import games.minesweeper.CellStorage;
+
+/**
+ * 多人合作模式的消息格式
+ * 每条消息以一个字节的类型开头，之后是大端序的 int 参数（DataInputStream/DataOutputStream 格式）
+ *
+ * 客户端 -> 服务器：
+ *   SUBSCRIBE firstRow firstCol lastRow lastCol   订阅一块区域，之后只收到该区域内的变化
+ *   REVEAL row col                                翻开单元格
+ *   FLAG row col                                  标记或取消标记单元格
+ *
+ * 服务器 -> 客户端：
+ *   HELLO rows cols mines                         连接后立即发送的棋盘信息
+ *   SNAPSHOT firstRow firstCol lastRow lastCol 状态字节...   订阅区域的当前状态，按行排列
+ *   DELTA count (row col 状态字节)...              订阅区域内变化的单元格
+ *
+ * 发给客户端的状态字节不包含未翻开单元格的地雷位和数字
+ */
+final class CoopProtocol {
+    static final byte SUBSCRIBE = 1;
+    static final byte REVEAL = 2;
+    static final byte FLAG = 3;
+    
+    static final byte HELLO = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte DELTA = 3;
+    
+    private CoopProtocol() {
+    }
+    
+    /**
+     * 把单元格状态转换为玩家可见的状态：未翻开的单元格只保留标记位
+     * @param state 单元格状态字节
+     * @return 可见状态
+     */
+    static int visibleState(int state) {
+        return (state & CellStorage.REVEALED) != 0 ? state : state & CellStorage.FLAGGED;
+    }
+}
\ No newline at end of file
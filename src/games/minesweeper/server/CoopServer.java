@@ -0,0 +1,435 @@
+package games.minesweeper.server;
+
+import games.minesweeper.Board;
+import games.minesweeper.CellStorage;
+import games.minesweeper.NeighborTable;
+import games.minesweeper.Settings;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 多人合作扫雷服务器
+ * 所有客户端通过本机回环地址连接，在同一个共享棋盘上翻开和标记单元格。
+ * 棋盘按 64x64 的区域划分，每个区域映射到固定数量的锁之一；任何时候一个线程最多持有一把区域锁，
+ * 跨区域的连锁翻开逐个单元格在各自的区域锁下完成，所以不会死锁，每个单元格也只会被翻开一次。
+ * 踩到地雷只翻开该地雷并计数，共享棋盘不会结束。
+ * 发给客户端的消息在连接锁内编码后放入该连接的发送队列，由连接自己的发送线程写出
+ */
+public class CoopServer {
+    private static final int REGION_SHIFT = 6;        // 区域边长 64
+    private static final int LOCK_STRIPES = 1024;     // 区域锁的数量（2的幂）
+    private static final int MAX_SUBSCRIPTION_CELLS = 1 << 20; // 单个客户端最多订阅的单元格数量
+    
+    private final Board board;
+    private final CellStorage storage;
+    private final NeighborTable neighbors;
+    private final int rows;
+    private final int cols;
+    private final int regionCols;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<Integer, List<CoopSession>> subscribers = new ConcurrentHashMap<>();
+    private final Set<CoopSession> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger revealedCells = new AtomicInteger();
+    private final AtomicInteger minesHit = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "coop-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+    
+    /**
+     * 一次命令中变化的单元格下标，同时用作连锁翻开的队列；每个连接一个，反复使用
+     */
+    static final class ChangeBuffer {
+        private int[] cells = new int[64];
+        private int size;
+        
+        void add(int index) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = index;
+        }
+        
+        int get(int i) {
+            return cells[i];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void clear() {
+            size = 0;
+        }
+    }
+    
+    /**
+     * 构造函数，棋盘还没有布雷时以中心为安全起点布雷
+     * @param board 共享棋盘
+     */
+    public CoopServer(Board board) {
+        this.board = board;
+        this.storage = board.getStorage();
+        this.neighbors = board.getNeighborTable();
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.regionCols = (cols + (1 << REGION_SHIFT) - 1) >> REGION_SHIFT;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        if (!board.isMinesPlaced()) {
+            board.placeMines(rows / 2, cols / 2, new Random().nextLong());
+        }
+    }
+    
+    /**
+     * 在本机回环地址上开始监听
+     * @param port 端口，0 表示自动选择
+     * @return 实际监听的端口
+     * @throws IOException 监听失败
+     */
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptLoop, "coop-accept");
+        acceptThread.start();
+        return serverSocket.getLocalPort();
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                CoopSession session = new CoopSession(this, socket);
+                sessions.add(session);
+                executor.execute(session);
+                executor.execute(session::writeLoop);
+            } catch (IOException e) {
+                // 服务器关闭时 accept 抛出异常，循环随之结束
+            }
+        }
+    }
+    
+    /**
+     * 停止监听并断开所有客户端
+     */
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // 已经关闭
+        }
+        for (CoopSession session : sessions) {
+            session.close();
+        }
+        executor.shutdown();
+    }
+    
+    private int regionOf(int row, int col) {
+        return (row >> REGION_SHIFT) * regionCols + (col >> REGION_SHIFT);
+    }
+    
+    /**
+     * 获取区域对应的锁，相邻区域分散到不同的锁上
+     */
+    private ReentrantLock lockFor(int region) {
+        return locks[(region * 0x9E3779B9 >>> 16) & (LOCK_STRIPES - 1)];
+    }
+    
+    private boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+    
+    /**
+     * 翻开单元格，数字为 0 时连锁翻开，之后把变化发送给订阅了相应区域的客户端
+     * @param row 行坐标
+     * @param col 列坐标
+     * @param changes 当前连接的变化缓冲区
+     */
+    void reveal(int row, int col, ChangeBuffer changes) {
+        if (!isValidPosition(row, col)) {
+            return;
+        }
+        changes.clear();
+        int index = storage.index(row, col);
+        int state = tryReveal(index, false);
+        if (state < 0) {
+            return;
+        }
+        changes.add(index);
+        if ((state & CellStorage.MINE) != 0) {
+            minesHit.incrementAndGet();
+        } else if ((state & CellStorage.ADJACENT_MASK) == 0) {
+            // 广度优先：变化缓冲区本身就是队列，只扩展数字为 0 的单元格
+            for (int i = 0; i < changes.size(); i++) {
+                int current = changes.get(i);
+                if (storage.getAdjacentMines(current) != 0) {
+                    continue;
+                }
+                int cls = neighbors.classOf(current);
+                for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+                    int neighbor = current + neighbors.delta(k);
+                    if (tryReveal(neighbor, true) >= 0) {
+                        changes.add(neighbor);
+                    }
+                }
+            }
+        }
+        publish(changes);
+    }
+    
+    /**
+     * 在区域锁下翻开单个单元格
+     * @param cascade 是否为连锁翻开（连锁翻开跳过地雷）
+     * @return 翻开后的状态，-1 表示已翻开、已标记，或者是连锁翻开遇到的地雷
+     */
+    private int tryReveal(int index, boolean cascade) {
+        int row = index / cols;
+        ReentrantLock lock = lockFor(regionOf(row, index - row * cols));
+        lock.lock();
+        try {
+            int state = storage.getState(index);
+            if ((state & (CellStorage.REVEALED | CellStorage.FLAGGED)) != 0
+                    || (cascade && (state & CellStorage.MINE) != 0)) {
+                return -1;
+            }
+            storage.setRevealed(index, true);
+            if ((state & CellStorage.MINE) == 0) {
+                revealedCells.incrementAndGet();
+            }
+            return state | CellStorage.REVEALED;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 标记或取消标记单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     * @param changes 当前连接的变化缓冲区
+     */
+    void flag(int row, int col, ChangeBuffer changes) {
+        if (!isValidPosition(row, col)) {
+            return;
+        }
+        int index = storage.index(row, col);
+        ReentrantLock lock = lockFor(regionOf(row, col));
+        lock.lock();
+        try {
+            if (storage.isRevealed(index)) {
+                return;
+            }
+            storage.setFlagged(index, !storage.isFlagged(index));
+        } finally {
+            lock.unlock();
+        }
+        changes.clear();
+        changes.add(index);
+        publish(changes);
+    }
+    
+    /**
+     * 在区域锁下读取单元格的可见状态
+     */
+    private int readVisible(int row, int col) {
+        ReentrantLock lock = lockFor(regionOf(row, col));
+        lock.lock();
+        try {
+            return CoopProtocol.visibleState(storage.getState(storage.index(row, col)));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 把变化发送给订阅了相应区域的客户端
+     * 在连接锁内只读取一次订阅区域，计数和写出都按这一个区域，消息头中的数量总是与记录数一致；
+     * 同时在锁内重新读取单元格的当前状态，同一单元格先后的变化无论以什么顺序发送，客户端最后收到的总是最新状态
+     */
+    private void publish(ChangeBuffer changes) {
+        Set<CoopSession> targets = new LinkedHashSet<>();
+        int lastRegion = -1;
+        for (int i = 0; i < changes.size(); i++) {
+            int index = changes.get(i);
+            int row = index / cols;
+            int region = regionOf(row, index - row * cols);
+            if (region != lastRegion) {
+                List<CoopSession> list = subscribers.get(region);
+                if (list != null) {
+                    targets.addAll(list);
+                }
+                lastRegion = region;
+            }
+        }
+        
+        for (CoopSession session : targets) {
+            synchronized (session) {
+                int[] area = session.getSubscription();
+                int count = 0;
+                for (int i = 0; i < changes.size(); i++) {
+                    int index = changes.get(i);
+                    if (CoopSession.contains(area, index / cols, index % cols)) {
+                        count++;
+                    }
+                }
+                if (count == 0) {
+                    continue;
+                }
+                ByteBuffer message = ByteBuffer.allocate(5 + count * 9);
+                message.put(CoopProtocol.DELTA);
+                message.putInt(count);
+                for (int i = 0; i < changes.size(); i++) {
+                    int index = changes.get(i);
+                    int row = index / cols;
+                    int col = index - row * cols;
+                    if (CoopSession.contains(area, row, col)) {
+                        message.putInt(row);
+                        message.putInt(col);
+                        message.put((byte) readVisible(row, col));
+                    }
+                }
+                session.send(message.array());
+            }
+        }
+    }
+    
+    /**
+     * 发送棋盘信息
+     */
+    void sendHello(CoopSession session) {
+        ByteBuffer message = ByteBuffer.allocate(13);
+        message.put(CoopProtocol.HELLO);
+        message.putInt(rows);
+        message.putInt(cols);
+        message.putInt(board.getMines());
+        synchronized (session) {
+            session.send(message.array());
+        }
+    }
+    
+    /**
+     * 更改客户端的订阅区域并发送该区域的当前状态
+     * 更改区域、登记订阅和编码快照在同一次连接锁内完成，其他线程的增量只会排在快照之前（按旧区域）或之后（按新区域）；
+     * 先登记订阅再读取状态，读取期间发生的变化会在之后的增量中再发送一次
+     */
+    void subscribe(CoopSession session, int firstRow, int firstCol, int lastRow, int lastCol) {
+        firstRow = Math.max(0, firstRow);
+        firstCol = Math.max(0, firstCol);
+        lastRow = Math.min(rows - 1, lastRow);
+        lastCol = Math.min(cols - 1, lastCol);
+        if (firstRow <= lastRow && firstCol <= lastCol
+                && (long) (lastRow - firstRow + 1) * (lastCol - firstCol + 1) > MAX_SUBSCRIPTION_CELLS) {
+            lastRow = firstRow + MAX_SUBSCRIPTION_CELLS / (lastCol - firstCol + 1) - 1;
+        }
+        
+        synchronized (session) {
+            unsubscribe(session);
+            if (firstRow > lastRow || firstCol > lastCol) {
+                return;
+            }
+            session.setSubscription(new int[] {firstRow, firstCol, lastRow, lastCol});
+            for (int regionRow = firstRow >> REGION_SHIFT; regionRow <= lastRow >> REGION_SHIFT; regionRow++) {
+                for (int regionCol = firstCol >> REGION_SHIFT; regionCol <= lastCol >> REGION_SHIFT; regionCol++) {
+                    subscribers.computeIfAbsent(regionRow * regionCols + regionCol, k -> new CopyOnWriteArrayList<>()).add(session);
+                }
+            }
+            
+            ByteBuffer message = ByteBuffer.allocate(17 + (lastRow - firstRow + 1) * (lastCol - firstCol + 1));
+            message.put(CoopProtocol.SNAPSHOT);
+            message.putInt(firstRow);
+            message.putInt(firstCol);
+            message.putInt(lastRow);
+            message.putInt(lastCol);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    message.put((byte) readVisible(row, col));
+                }
+            }
+            session.send(message.array());
+        }
+    }
+    
+    /**
+     * 取消订阅，调用方须持有该连接的锁
+     */
+    private void unsubscribe(CoopSession session) {
+        int[] area = session.getSubscription();
+        if (area == null) {
+            return;
+        }
+        session.setSubscription(null);
+        for (int regionRow = area[0] >> REGION_SHIFT; regionRow <= area[2] >> REGION_SHIFT; regionRow++) {
+            for (int regionCol = area[1] >> REGION_SHIFT; regionCol <= area[3] >> REGION_SHIFT; regionCol++) {
+                List<CoopSession> list = subscribers.get(regionRow * regionCols + regionCol);
+                if (list != null) {
+                    list.remove(session);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 客户端断开时清理订阅
+     */
+    void disconnect(CoopSession session) {
+        synchronized (session) {
+            unsubscribe(session);
+        }
+        sessions.remove(session);
+    }
+    
+    // Getters
+    public Board getBoard() {
+        return board;
+    }
+    
+    public int getRevealedCells() {
+        return revealedCells.get();
+    }
+    
+    public int getMinesHit() {
+        return minesHit.get();
+    }
+    
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * 启动独立的合作模式服务器
+     * 参数：[行数] [列数] [地雷数量] [端口]，默认 1000x1000、150000 颗雷、端口 7777
+     * @param args 命令行参数
+     * @throws IOException 监听失败
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int mines = args.length > 2 ? Integer.parseInt(args[2]) : rows * cols * 3 / 20;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : 7777;
+        
+        CoopServer server = new CoopServer(new Board(new Settings(rows, cols, mines)));
+        int actualPort = server.start(port);
+        System.out.println("合作模式服务器: " + rows + "x" + cols + " " + mines + " 颗雷，监听 127.0.0.1:" + actualPort);
+    }
+}
\ No newline at end of file
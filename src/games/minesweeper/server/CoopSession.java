@@ -0,0 +1,160 @@
+package games.minesweeper.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务器端的一个客户端连接
+ * 每个连接有两个线程：读取线程读取命令并直接在共享棋盘上执行，发送线程把发送队列中的消息写入连接。
+ * 产生消息的线程持有连接自身的锁编码消息并放入队列，所以多个线程产生的变化不会交错，顺序也不会改变；
+ * 它们从不直接写连接，一个客户端读得慢不会拖慢其他玩家的操作。队列积压超过上限时断开这个客户端
+ */
+final class CoopSession implements Runnable {
+    private static final long MAX_QUEUED_BYTES = 8L << 20;  // 发送队列最多积压的字节数，足够放下几次订阅快照
+    private static final byte[] STOP = new byte[0];         // 放入发送队列，通知发送线程结束
+    
+    private final CoopServer server;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final CoopServer.ChangeBuffer changes = new CoopServer.ChangeBuffer();
+    private final BlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private volatile boolean closed;
+    private volatile int[] subscription;    // {firstRow, firstCol, lastRow, lastCol}，null 表示未订阅
+    
+    /**
+     * 构造函数
+     * @param server 服务器
+     * @param socket 客户端连接
+     * @throws IOException 打开流失败
+     */
+    CoopSession(CoopServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+    
+    /**
+     * 读取线程：读取并执行客户端的命令，直到连接断开
+     */
+    @Override
+    public void run() {
+        try {
+            server.sendHello(this);
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case CoopProtocol.SUBSCRIBE:
+                        server.subscribe(this, in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                        break;
+                    case CoopProtocol.REVEAL:
+                        server.reveal(in.readInt(), in.readInt(), changes);
+                        break;
+                    case CoopProtocol.FLAG:
+                        server.flag(in.readInt(), in.readInt(), changes);
+                        break;
+                    default:
+                        throw new IOException("未知的消息类型: " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // 客户端正常断开
+        } catch (IOException e) {
+            // 连接异常，按断开处理
+        } finally {
+            server.disconnect(this);
+            close();
+        }
+    }
+    
+    /**
+     * 发送线程：依次写出发送队列中的消息，队列暂时为空时才刷新，直到连接关闭
+     */
+    void writeLoop() {
+        try {
+            while (true) {
+                byte[] message = outbox.take();
+                if (message == STOP) {
+                    break;
+                }
+                out.write(message);
+                queuedBytes.addAndGet(-message.length);
+                if (outbox.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // 发送失败的连接由它自己的读取线程清理
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+    
+    /**
+     * 把一条完整的消息放入发送队列，调用方须持有该连接的锁，以保证消息的顺序
+     * 积压超过上限时说明客户端跟不上，断开该连接，它的读取线程随之清理订阅
+     * @param message 编码好的消息
+     */
+    void send(byte[] message) {
+        if (closed) {
+            return;
+        }
+        if (queuedBytes.addAndGet(message.length) > MAX_QUEUED_BYTES) {
+            close();
+            return;
+        }
+        outbox.add(message);
+    }
+    
+    /**
+     * 判断单元格是否在订阅区域内
+     * @param area 订阅区域，null 表示未订阅
+     * @param row 行坐标
+     * @param col 列坐标
+     * @return 是否已订阅
+     */
+    static boolean contains(int[] area, int row, int col) {
+        return area != null && row >= area[0] && row <= area[2] && col >= area[1] && col <= area[3];
+    }
+    
+    /**
+     * 获取订阅区域，与之后据此发送的消息保持一致时须在连接锁内读取
+     * @return {firstRow, firstCol, lastRow, lastCol}，null 表示未订阅
+     */
+    int[] getSubscription() {
+        return subscription;
+    }
+    
+    /**
+     * 更改订阅区域，调用方须持有该连接的锁
+     * @param subscription 订阅区域，null 表示取消订阅
+     */
+    void setSubscription(int[] subscription) {
+        this.subscription = subscription;
+    }
+    
+    /**
+     * 关闭连接并让发送线程结束，队列中尚未发送的消息被丢弃
+     */
+    void close() {
+        closed = true;
+        outbox.add(STOP);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 已经关闭
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,553 @@
+package games.minesweeper.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 边界枚举器
+ * 边界是与已翻开数字相邻的未知单元格。边界按约束拆分成互不相关的连通块，
+ * 较小的连通块用回溯法精确枚举所有满足数字约束的布局，统计每个单元格是雷的布局数量；
+ * 较大的连通块可以用随机回溯抽样代替。每个布局可以按其地雷数量加权。
+ * 所有数组都按边界大小分配并按需扩容，与棋盘大小无关；棋盘下标到局部编号的映射用开放寻址散列表
+ */
+final class FrontierEnumerator {
+    private final int maxComponentCells;
+    private final long maxNodes;
+    private BooleanSupplier cancelled;
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    // 边界单元格（局部编号 -> 棋盘下标）
+    private int[] frontier;
+    private int currentStamp = 1;       // 新分配的槽位标记为 0，总是无效
+    private int frontierSize;
+    
+    // 棋盘下标 -> 局部编号的散列表，线性探测，仅当 slotStamp 匹配时槽位有效；装载率不超过一半
+    private int[] slotCell;
+    private int[] slotLocal;
+    private int[] slotStamp;
+    
+    // 约束：每个约束最多8个单元格，按 constraint * 8 存放局部编号
+    private int[] constraintCells;
+    private int[] constraintSize;
+    private int[] constraintTarget;
+    private int constraintCount;
+    
+    private final int[] neighborBuffer = new int[8];
+    
+    // 单元格所在的约束，每个单元格最多8个
+    private int[] cellConstraints;
+    private byte[] cellConstraintCount;
+    
+    // 并查集和连通块：所有连通块的单元格按块连续存放在 order 中
+    private int[] parent;
+    private int[] order;
+    private boolean[] queued;
+    private int[] componentStart;
+    private int componentCount;
+    
+    // 回溯状态
+    private int[] assignedMines;
+    private int[] unassigned;
+    private byte[] value;
+    private int searchStart;
+    private int searchEnd;
+    private int minesAssigned;
+    private long nodes;
+    private boolean aborted;
+    private double[] weights;
+    private double[] histogram;
+    private double totalWeight;
+    
+    // 结果
+    private double[] mineWeight;
+    private double[] solutions;
+    private boolean[] exact;
+    private double[] probability;
+    
+    /**
+     * 构造函数
+     * @param maxComponentCells 精确枚举的连通块最大单元格数量
+     * @param maxNodes 单个连通块的搜索节点上限
+     */
+    FrontierEnumerator(int maxComponentCells, long maxNodes) {
+        this.maxComponentCells = maxComponentCells;
+        this.maxNodes = maxNodes;
+        int size = INITIAL_CAPACITY;
+        this.frontier = new int[size];
+        this.cellConstraintCount = new byte[size];
+        this.cellConstraints = new int[size * 8];
+        this.parent = new int[size];
+        this.order = new int[size];
+        this.queued = new boolean[size];
+        this.componentStart = new int[size + 1];
+        this.value = new byte[size];
+        this.mineWeight = new double[size];
+        this.solutions = new double[size];
+        this.exact = new boolean[size];
+        this.probability = new double[size];
+        this.slotCell = new int[size * 2];
+        this.slotLocal = new int[size * 2];
+        this.slotStamp = new int[size * 2];
+        this.constraintCells = new int[64 * 8];
+        this.constraintSize = new int[64];
+        this.constraintTarget = new int[64];
+        this.assignedMines = new int[64];
+        this.unassigned = new int[64];
+    }
+    
+    /**
+     * 设置取消检查，长时间的搜索会定期检查并抛出 {@link CancellationException}
+     * @param cancelled 返回 true 表示应当停止
+     */
+    void setCancelled(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+    
+    /**
+     * 分析求解器当前的边界：建立约束，拆分连通块并逐块精确枚举
+     * @param solver 求解器
+     */
+    void analyze(MinesweeperSolver solver) {
+        beginConstraints();
+        int[] cells = neighborBuffer;
+        long[] active = solver.getActive();
+        for (int word = 0; word < active.length; word++) {
+            long bits = active[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int count = 0;
+                for (int k = 0; k < solver.getNeighborCount(index); k++) {
+                    int neighbor = solver.getNeighbor(index, k);
+                    if (solver.isUnknown(neighbor)) {
+                        cells[count++] = neighbor;
+                    }
+                }
+                addConstraint(cells, count, solver.getRemainingMines(index));
+            }
+        }
+        
+        buildComponents();
+        for (int component = 0; component < componentCount; component++) {
+            if (!enumerateComponent(component, null, null)) {
+                estimateComponent(component);
+            }
+        }
+    }
+    
+    /**
+     * 开始建立新的一组约束
+     */
+    void beginConstraints() {
+        currentStamp++;
+        frontierSize = 0;
+        constraintCount = 0;
+        componentCount = 0;
+    }
+    
+    /**
+     * 添加一个约束：给定的未知单元格中恰好有 target 颗雷
+     * @param cells 未知单元格的棋盘下标
+     * @param count 单元格数量（最多8个）
+     * @param target 地雷数量
+     */
+    void addConstraint(int[] cells, int count, int target) {
+        if (count == 0) {
+            return;
+        }
+        ensureConstraintCapacity();
+        int base = constraintCount * 8;
+        for (int k = 0; k < count; k++) {
+            int cell = cells[k];
+            int slot = findSlot(cell);
+            int local;
+            if (slotStamp[slot] == currentStamp) {
+                local = slotLocal[slot];
+            } else {
+                if (frontierSize == frontier.length) {
+                    growFrontier();
+                    slot = findSlot(cell);
+                }
+                local = frontierSize++;
+                slotStamp[slot] = currentStamp;
+                slotCell[slot] = cell;
+                slotLocal[slot] = local;
+                frontier[local] = cell;
+                cellConstraintCount[local] = 0;
+            }
+            constraintCells[base + k] = local;
+            cellConstraints[local * 8 + cellConstraintCount[local]++] = constraintCount;
+        }
+        constraintSize[constraintCount] = count;
+        constraintTarget[constraintCount] = target;
+        constraintCount++;
+    }
+    
+    /**
+     * 查找棋盘下标所在的散列槽位，不存在时返回应当插入的空槽位
+     */
+    private int findSlot(int cell) {
+        int mask = slotCell.length - 1;
+        int hash = cell * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (slotStamp[slot] == currentStamp && slotCell[slot] != cell) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * 边界单元格数组扩容一倍，散列表随之扩容并重新插入已有的单元格
+     */
+    private void growFrontier() {
+        int capacity = frontier.length * 2;
+        frontier = Arrays.copyOf(frontier, capacity);
+        cellConstraintCount = Arrays.copyOf(cellConstraintCount, capacity);
+        cellConstraints = Arrays.copyOf(cellConstraints, capacity * 8);
+        parent = new int[capacity];
+        order = new int[capacity];
+        queued = new boolean[capacity];
+        componentStart = new int[capacity + 1];
+        value = new byte[capacity];
+        mineWeight = new double[capacity];
+        solutions = new double[capacity];
+        exact = new boolean[capacity];
+        probability = new double[capacity];
+        
+        slotCell = new int[capacity * 2];
+        slotLocal = new int[capacity * 2];
+        slotStamp = new int[capacity * 2];
+        for (int local = 0; local < frontierSize; local++) {
+            int slot = findSlot(frontier[local]);
+            slotStamp[slot] = currentStamp;
+            slotCell[slot] = frontier[local];
+            slotLocal[slot] = local;
+        }
+    }
+    
+    private void ensureConstraintCapacity() {
+        if (constraintCount < constraintSize.length) {
+            return;
+        }
+        int capacity = constraintSize.length * 2;
+        constraintCells = Arrays.copyOf(constraintCells, capacity * 8);
+        constraintSize = Arrays.copyOf(constraintSize, capacity);
+        constraintTarget = Arrays.copyOf(constraintTarget, capacity);
+        assignedMines = Arrays.copyOf(assignedMines, capacity);
+        unassigned = Arrays.copyOf(unassigned, capacity);
+    }
+    
+    /**
+     * 用并查集拆分连通块，每块内按约束关系做广度优先排序，使相关单元格相邻，剪枝更早生效
+     * @return 连通块数量
+     */
+    int buildComponents() {
+        for (int i = 0; i < frontierSize; i++) {
+            parent[i] = i;
+        }
+        for (int c = 0; c < constraintCount; c++) {
+            int base = c * 8;
+            for (int k = 1; k < constraintSize[c]; k++) {
+                union(constraintCells[base], constraintCells[base + k]);
+            }
+        }
+        
+        int orderSize = 0;
+        componentCount = 0;
+        for (int root = 0; root < frontierSize; root++) {
+            if (find(root) != root) {
+                continue;
+            }
+            componentStart[componentCount++] = orderSize;
+            int head = orderSize;
+            order[orderSize++] = root;
+            queued[root] = true;
+            for (; head < orderSize; head++) {
+                int local = order[head];
+                for (int k = 0; k < cellConstraintCount[local]; k++) {
+                    int constraint = cellConstraints[local * 8 + k];
+                    for (int m = 0; m < constraintSize[constraint]; m++) {
+                        int other = constraintCells[constraint * 8 + m];
+                        if (!queued[other]) {
+                            queued[other] = true;
+                            order[orderSize++] = other;
+                        }
+                    }
+                }
+            }
+        }
+        componentStart[componentCount] = orderSize;
+        for (int i = 0; i < orderSize; i++) {
+            queued[order[i]] = false;
+        }
+        return componentCount;
+    }
+    
+    /**
+     * 精确枚举一个连通块
+     * @param component 连通块编号
+     * @param weights 按连通块内地雷数量给布局加权，为 null 时每个布局权重为1
+     * @param histogram 不为 null 时累加各地雷数量的布局数
+     * @return 是否完成枚举；连通块过大或超过节点上限时返回 false
+     */
+    boolean enumerateComponent(int component, double[] weights, double[] histogram) {
+        if (getComponentSize(component) > maxComponentCells) {
+            return false;
+        }
+        startSearch(component, weights, histogram);
+        search(searchStart);
+        return finishSearch(!aborted);
+    }
+    
+    /**
+     * 随机回溯抽样一个连通块：每次从头开始随机选择取值，得到一个满足约束的布局
+     * 相同的种子总是得到相同的样本
+     * @param component 连通块编号
+     * @param samples 样本数量
+     * @param seed 随机种子
+     * @param mineFirst 先尝试放雷的概率
+     * @param weights 按连通块内地雷数量给样本加权，为 null 时权重为1
+     * @param histogram 不为 null 时累加各地雷数量的样本数
+     * @return 是否至少得到一个样本
+     */
+    boolean sampleComponent(int component, int samples, long seed, double mineFirst, double[] weights, double[] histogram) {
+        startSearch(component, weights, histogram);
+        Random random = new Random(seed);
+        long budget = Math.max(1000, (long) getComponentSize(component) * 20);
+        for (int sample = 0; sample < samples; sample++) {
+            nodes = 0;
+            aborted = false;
+            sampleSearch(searchStart, random, mineFirst, budget);
+            checkCancelled();
+        }
+        aborted = false;
+        return finishSearch(false);
+    }
+    
+    private void startSearch(int component, double[] weights, double[] histogram) {
+        searchStart = componentStart[component];
+        searchEnd = componentStart[component + 1];
+        this.weights = weights;
+        this.histogram = histogram;
+        totalWeight = 0;
+        minesAssigned = 0;
+        nodes = 0;
+        aborted = false;
+        for (int i = searchStart; i < searchEnd; i++) {
+            int local = order[i];
+            mineWeight[local] = 0;
+            exact[local] = false;
+            for (int k = 0; k < cellConstraintCount[local]; k++) {
+                int constraint = cellConstraints[local * 8 + k];
+                assignedMines[constraint] = 0;
+                unassigned[constraint] = constraintSize[constraint];
+            }
+        }
+    }
+    
+    private boolean finishSearch(boolean isExact) {
+        if (aborted || totalWeight <= 0) {
+            return false;
+        }
+        for (int i = searchStart; i < searchEnd; i++) {
+            int local = order[i];
+            solutions[local] = totalWeight;
+            exact[local] = isExact;
+            probability[local] = mineWeight[local] / totalWeight;
+        }
+        return true;
+    }
+    
+    /**
+     * 按局部地雷密度估算一个连通块：取所在约束中最高的密度
+     * @param component 连通块编号
+     */
+    void estimateComponent(int component) {
+        for (int i = componentStart[component]; i < componentStart[component + 1]; i++) {
+            int local = order[i];
+            double estimate = 0;
+            for (int k = 0; k < cellConstraintCount[local]; k++) {
+                int constraint = cellConstraints[local * 8 + k];
+                estimate = Math.max(estimate, (double) constraintTarget[constraint] / constraintSize[constraint]);
+            }
+            exact[local] = false;
+            probability[local] = estimate;
+        }
+    }
+    
+    /**
+     * 回溯枚举
+     * @param depth 当前赋值的单元格在 order 中的位置
+     */
+    private void search(int depth) {
+        if (++nodes > maxNodes) {
+            aborted = true;
+            return;
+        }
+        if ((nodes & 0xFFF) == 0) {
+            checkCancelled();
+        }
+        if (depth == searchEnd) {
+            recordSolution();
+            return;
+        }
+        
+        int local = order[depth];
+        for (byte mine = 0; mine <= 1 && !aborted; mine++) {
+            if (feasible(local, mine)) {
+                assign(local, mine);
+                search(depth + 1);
+                unassign(local, mine);
+            }
+        }
+        value[local] = 0;
+    }
+    
+    /**
+     * 随机回溯，找到一个布局后立即停止
+     * @return 是否找到布局
+     */
+    private boolean sampleSearch(int depth, Random random, double mineFirst, long budget) {
+        if (++nodes > budget) {
+            aborted = true;
+            return false;
+        }
+        if (depth == searchEnd) {
+            recordSolution();
+            return true;
+        }
+        
+        int local = order[depth];
+        byte first = random.nextDouble() < mineFirst ? (byte) 1 : (byte) 0;
+        for (int attempt = 0; attempt < 2 && !aborted; attempt++) {
+            byte mine = (byte) (first ^ attempt);
+            if (feasible(local, mine)) {
+                assign(local, mine);
+                boolean found = sampleSearch(depth + 1, random, mineFirst, budget);
+                unassign(local, mine);
+                if (found) {
+                    value[local] = 0;
+                    return true;
+                }
+            }
+        }
+        value[local] = 0;
+        return false;
+    }
+    
+    private void recordSolution() {
+        double weight = weights == null ? 1.0 : (minesAssigned < weights.length ? weights[minesAssigned] : 0.0);
+        if (histogram != null) {
+            histogram[minesAssigned] += 1.0;
+        }
+        totalWeight += weight;
+        for (int i = searchStart; i < searchEnd; i++) {
+            if (value[order[i]] != 0) {
+                mineWeight[order[i]] += weight;
+            }
+        }
+    }
+    
+    private boolean feasible(int local, int mine) {
+        for (int k = 0; k < cellConstraintCount[local]; k++) {
+            int constraint = cellConstraints[local * 8 + k];
+            int mines = assignedMines[constraint] + mine;
+            int remaining = unassigned[constraint] - 1;
+            if (mines > constraintTarget[constraint] || mines + remaining < constraintTarget[constraint]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void assign(int local, byte mine) {
+        value[local] = mine;
+        minesAssigned += mine;
+        for (int k = 0; k < cellConstraintCount[local]; k++) {
+            int constraint = cellConstraints[local * 8 + k];
+            assignedMines[constraint] += mine;
+            unassigned[constraint]--;
+        }
+    }
+    
+    private void unassign(int local, byte mine) {
+        minesAssigned -= mine;
+        for (int k = 0; k < cellConstraintCount[local]; k++) {
+            int constraint = cellConstraints[local * 8 + k];
+            assignedMines[constraint] -= mine;
+            unassigned[constraint]++;
+        }
+    }
+    
+    private void checkCancelled() {
+        if (cancelled != null && cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+    
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+    
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+    
+    // 查询结果
+    int getFrontierSize() {
+        return frontierSize;
+    }
+    
+    int getFrontierCell(int local) {
+        return frontier[local];
+    }
+    
+    boolean isFrontier(int index) {
+        return slotStamp[findSlot(index)] == currentStamp;
+    }
+    
+    int getComponentCount() {
+        return componentCount;
+    }
+    
+    int getComponentSize(int component) {
+        return componentStart[component + 1] - componentStart[component];
+    }
+    
+    /**
+     * 获取连通块中第 i 个单元格的局部编号
+     * @param component 连通块编号
+     * @param i 单元格在连通块中的位置
+     * @return 局部编号
+     */
+    int getComponentCell(int component, int i) {
+        return order[componentStart[component] + i];
+    }
+    
+    boolean isExact(int local) {
+        return exact[local];
+    }
+    
+    double getSolutions(int local) {
+        return solutions[local];
+    }
+    
+    double getMineSolutions(int local) {
+        return mineWeight[local];
+    }
+    
+    double getProbability(int local) {
+        return probability[local];
+    }
+}
\ No newline at end of file
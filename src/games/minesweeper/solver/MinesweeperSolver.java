@@ -0,0 +1,424 @@
+package games.minesweeper.solver;
+
+import games.minesweeper.Board;
+import games.minesweeper.BoardListener;
+import games.minesweeper.CellStorage;
+import games.minesweeper.NeighborTable;
+import games.minesweeper.Topology;
+
+import java.util.Arrays;
+
+/**
+ * 无界面的扫雷求解器
+ * 只使用玩家能看到的信息（已翻开的数字和自己插的旗）：
+ * 先做单点推理，再做子集推理，最后对较小的边界连通块做精确枚举，都无法确定时才猜测
+ */
+public class MinesweeperSolver {
+    // 单元格知识状态
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+    
+    // 精确枚举的连通块最大单元格数量和搜索节点上限
+    private static final int MAX_ENUMERATION_CELLS = 32;
+    private static final long MAX_ENUMERATION_NODES = 200000;
+    
+    private final Topology topology;
+    private final int rows;
+    private final int cols;
+    private final int size;
+    private final int[] neighbors;      // 每个单元格最多8个邻居，按 index * 8 存放
+    private final byte[] neighborCount;
+    private final byte[] knowledge;
+    private final long[] active;        // 仍有未知邻居的已翻开单元格
+    private final FrontierEnumerator enumerator;
+    private final int[] setA = new int[8];
+    private final int[] setB = new int[8];
+    
+    private Board board;
+    private CellStorage storage;
+    private int knownMines;
+    private int guesses;
+    private boolean syncing;
+    
+    private final BoardListener syncListener = new BoardListener() {
+        @Override
+        public void cellsChanged(Board changedBoard, int firstRow, int firstCol, int lastRow, int lastCol, int changedCells) {
+            if (syncing) {
+                sync(firstRow, firstCol, lastRow, lastCol);
+            }
+        }
+    };
+    
+    /**
+     * 构造函数（矩形棋盘）
+     * @param rows 棋盘行数
+     * @param cols 棋盘列数
+     */
+    public MinesweeperSolver(int rows, int cols) {
+        this(Topology.RECTANGULAR.createNeighborTable(rows, cols));
+    }
+    
+    /**
+     * 构造函数
+     * @param table 棋盘的邻居表，决定棋盘尺寸和拓扑
+     */
+    public MinesweeperSolver(NeighborTable table) {
+        this.topology = table.getTopology();
+        this.rows = table.getRows();
+        this.cols = table.getCols();
+        this.size = rows * cols;
+        this.neighbors = new int[size * 8];
+        this.neighborCount = new byte[size];
+        this.knowledge = new byte[size];
+        this.active = new long[(size + 63) >>> 6];
+        this.enumerator = new FrontierEnumerator(MAX_ENUMERATION_CELLS, MAX_ENUMERATION_NODES);
+        
+        int[] buffer = new int[table.getMaxNeighbors()];
+        for (int index = 0; index < size; index++) {
+            int count = table.neighbors(index, buffer);
+            System.arraycopy(buffer, 0, neighbors, index * 8, count);
+            neighborCount[index] = (byte) count;
+        }
+    }
+    
+    /**
+     * 从指定的第一次点击开始完成一局游戏
+     * 棋盘可以事先用 {@link Board#placeMines(int, int, long)} 布好雷，否则由第一次点击布雷
+     * @param board 棋盘（尺寸须与求解器一致，且尚未翻开任何单元格）
+     * @param firstRow 第一次点击的行
+     * @param firstCol 第一次点击的列
+     * @return 是否获胜
+     */
+    public boolean play(Board board, int firstRow, int firstCol) {
+        return run(board, firstRow, firstCol, true);
+    }
+    
+    /**
+     * 检查棋盘能否从指定的第一次点击开始不经猜测地完成
+     * 棋盘会被求解过程修改，调用前应布好雷且尚未翻开任何单元格
+     * @param board 棋盘
+     * @param firstRow 第一次点击的行
+     * @param firstCol 第一次点击的列
+     * @return 是否无需猜测即可获胜
+     */
+    public boolean solveWithoutGuessing(Board board, int firstRow, int firstCol) {
+        return run(board, firstRow, firstCol, false);
+    }
+    
+    private boolean run(Board board, int firstRow, int firstCol, boolean allowGuessing) {
+        if (board.getRows() != rows || board.getCols() != cols || board.getTopology() != topology) {
+            throw new IllegalArgumentException("棋盘尺寸或拓扑与求解器不一致");
+        }
+        this.board = board;
+        this.storage = board.getStorage();
+        Arrays.fill(knowledge, UNKNOWN);
+        Arrays.fill(active, 0L);
+        knownMines = 0;
+        guesses = 0;
+        
+        board.addBoardListener(syncListener);
+        syncing = true;
+        try {
+            board.clickCell(firstRow, firstCol);
+            while (!board.isGameOver()) {
+                if (!step()) {
+                    if (!allowGuessing) {
+                        return false;
+                    }
+                    guess();
+                }
+            }
+            return board.isGameWon();
+        } finally {
+            syncing = false;
+            board.removeBoardListener(syncListener);
+        }
+    }
+    
+    /**
+     * 执行一步确定性推理
+     * @return 是否取得进展；为 false 时只能猜测
+     */
+    public boolean step() {
+        return singlePointPass() || subsetPass() || enumerationPass();
+    }
+    
+    /**
+     * 单点推理：某个数字周围剩余地雷数为0则其余邻居安全，等于未知邻居数则全部是雷
+     */
+    private boolean singlePointPass() {
+        boolean progress = false;
+        for (int word = 0; word < active.length; word++) {
+            long bits = active[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (board.isGameOver()) {
+                    return true;
+                }
+                
+                int unknown = 0;
+                int mines = 0;
+                int base = index * 8;
+                for (int k = 0; k < neighborCount[index]; k++) {
+                    byte state = knowledge[neighbors[base + k]];
+                    if (state == UNKNOWN) {
+                        unknown++;
+                    } else if (state == MINE) {
+                        mines++;
+                    }
+                }
+                if (unknown == 0) {
+                    active[word] &= ~(1L << index);
+                    continue;
+                }
+                
+                int need = storage.getAdjacentMines(index) - mines;
+                if (need == 0 || need == unknown) {
+                    for (int k = 0; k < neighborCount[index]; k++) {
+                        int neighbor = neighbors[base + k];
+                        if (knowledge[neighbor] == UNKNOWN) {
+                            if (need == 0) {
+                                reveal(neighbor);
+                            } else {
+                                markMine(neighbor);
+                            }
+                        }
+                    }
+                    progress = true;
+                }
+            }
+        }
+        return progress;
+    }
+    
+    /**
+     * 子集推理：如果A的未知邻居是B的未知邻居的子集，差集中的地雷数就是两者剩余地雷数之差
+     */
+    private boolean subsetPass() {
+        for (int word = 0; word < active.length; word++) {
+            long bits = active[word];
+            while (bits != 0) {
+                int a = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int sizeA = collectUnknown(a, setA);
+                int needA = storage.getAdjacentMines(a) - countKnownMines(a);
+                
+                // B 要包含 A 的全部未知邻居，就一定与 A 的第一个未知邻居相邻
+                int pivot = setA[0];
+                for (int kb = 0; kb < neighborCount[pivot]; kb++) {
+                    int b = neighbors[pivot * 8 + kb];
+                    if (b == a || (active[b >>> 6] & (1L << b)) == 0) {
+                        continue;
+                    }
+                    int sizeB = collectUnknown(b, setB);
+                    if (sizeB <= sizeA || !containsAll(setB, sizeB, setA, sizeA)) {
+                        continue;
+                    }
+                    int diffMines = storage.getAdjacentMines(b) - countKnownMines(b) - needA;
+                    int diffSize = sizeB - sizeA;
+                    if (diffMines != 0 && diffMines != diffSize) {
+                        continue;
+                    }
+                    for (int k = 0; k < sizeB; k++) {
+                        int cell = setB[k];
+                        if (!contains(setA, sizeA, cell) && knowledge[cell] == UNKNOWN) {
+                            if (diffMines == 0) {
+                                reveal(cell);
+                            } else {
+                                markMine(cell);
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 对边界连通块做精确枚举，找出在所有可能布局中都安全或都是雷的单元格
+     */
+    private boolean enumerationPass() {
+        enumerator.analyze(this);
+        boolean progress = false;
+        for (int i = 0; i < enumerator.getFrontierSize(); i++) {
+            int cell = enumerator.getFrontierCell(i);
+            if (!enumerator.isExact(i) || knowledge[cell] != UNKNOWN) {
+                continue;
+            }
+            if (enumerator.getMineSolutions(i) == 0) {
+                reveal(cell);
+                progress = true;
+            } else if (enumerator.getMineSolutions(i) == enumerator.getSolutions(i)) {
+                markMine(cell);
+                progress = true;
+            }
+            if (board.isGameOver()) {
+                return true;
+            }
+        }
+        return progress;
+    }
+    
+    /**
+     * 无法推理时选择踩雷概率最低的单元格翻开
+     */
+    private void guess() {
+        guesses++;
+        int best = -1;
+        double bestProbability = 2.0;
+        double expectedFrontierMines = 0;
+        for (int i = 0; i < enumerator.getFrontierSize(); i++) {
+            double probability = enumerator.getProbability(i);
+            expectedFrontierMines += probability;
+            if (probability < bestProbability && knowledge[enumerator.getFrontierCell(i)] == UNKNOWN) {
+                bestProbability = probability;
+                best = enumerator.getFrontierCell(i);
+            }
+        }
+        
+        // 不在边界上的未知单元格按剩余地雷的平均密度估算
+        int interiorCount = 0;
+        int interiorCell = -1;
+        for (int index = 0; index < size; index++) {
+            if (knowledge[index] == UNKNOWN && !enumerator.isFrontier(index)) {
+                if (interiorCell < 0 || isCorner(index)) {
+                    interiorCell = index;
+                }
+                interiorCount++;
+            }
+        }
+        if (interiorCount > 0) {
+            double interiorProbability = Math.max(0, board.getMines() - knownMines - expectedFrontierMines) / interiorCount;
+            if (interiorProbability < bestProbability) {
+                best = interiorCell;
+            }
+        }
+        
+        if (best < 0) {
+            // 边界信息已过期时退回到第一个未知单元格
+            for (int index = 0; index < size && best < 0; index++) {
+                if (knowledge[index] == UNKNOWN) {
+                    best = index;
+                }
+            }
+        }
+        reveal(best);
+    }
+    
+    private boolean isCorner(int index) {
+        return neighborCount[index] == 3;
+    }
+    
+    private void reveal(int index) {
+        board.clickCell(index / cols, index % cols);
+    }
+    
+    private void markMine(int index) {
+        knowledge[index] = MINE;
+        knownMines++;
+        if (!storage.isFlagged(index)) {
+            board.flagCell(index / cols, index % cols);
+        }
+    }
+    
+    /**
+     * 根据棋盘变化区域同步新翻开的单元格
+     */
+    private void sync(int firstRow, int firstCol, int lastRow, int lastCol) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            int index = row * cols + firstCol;
+            for (int col = firstCol; col <= lastCol; col++, index++) {
+                if (knowledge[index] == UNKNOWN && storage.isRevealed(index)) {
+                    knowledge[index] = SAFE;
+                    if (storage.getAdjacentMines(index) > 0) {
+                        active[index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+    }
+    
+    private int collectUnknown(int index, int[] out) {
+        int count = 0;
+        int base = index * 8;
+        for (int k = 0; k < neighborCount[index]; k++) {
+            int neighbor = neighbors[base + k];
+            if (knowledge[neighbor] == UNKNOWN) {
+                out[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+    
+    private int countKnownMines(int index) {
+        int count = 0;
+        int base = index * 8;
+        for (int k = 0; k < neighborCount[index]; k++) {
+            if (knowledge[neighbors[base + k]] == MINE) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean containsAll(int[] set, int setSize, int[] subset, int subsetSize) {
+        for (int i = 0; i < subsetSize; i++) {
+            if (!contains(set, setSize, subset[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean contains(int[] set, int setSize, int value) {
+        for (int i = 0; i < setSize; i++) {
+            if (set[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // 供边界枚举使用的只读访问
+    int getSize() {
+        return size;
+    }
+    
+    long[] getActive() {
+        return active;
+    }
+    
+    int getNeighbor(int index, int k) {
+        return neighbors[index * 8 + k];
+    }
+    
+    int getNeighborCount(int index) {
+        return neighborCount[index];
+    }
+    
+    boolean isUnknown(int index) {
+        return knowledge[index] == UNKNOWN;
+    }
+    
+    /**
+     * 获取已翻开数字周围尚未确定的地雷数
+     * @param index 已翻开单元格下标
+     * @return 剩余地雷数
+     */
+    int getRemainingMines(int index) {
+        return storage.getAdjacentMines(index) - countKnownMines(index);
+    }
+    
+    // Getters
+    public int getGuesses() {
+        return guesses;
+    }
+    
+    public int getKnownMines() {
+        return knownMines;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+package games.minesweeper.solver;
+
+import games.minesweeper.Board;
+import games.minesweeper.Settings;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无需猜测的棋盘生成器
+ * 多个工作线程同时尝试不同的随机种子，用确定性求解器从第一次点击的位置检查，
+ * 最先找到的可解种子胜出。生成结果只是一个种子，用 {@link Board#placeMines(int, int, long)} 重建棋盘。
+ * 每种棋盘尺寸在后台预先生成一批以中心格为起点的种子，从中心开始的游戏无需等待；
+ * 其他位置的种子也在后台生成，调用线程不会被阻塞。尝试次数用尽仍找不到时结果为空，由调用方决定如何处理
+ */
+public class NoGuessGenerator {
+    private static final int POOL_SIZE = 8;           // 每种棋盘预先生成的种子数量
+    private static final long MAX_ATTEMPTS = 200000;  // 放弃前最多尝试的种子数量
+    private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, "no-guess-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<String, NoGuessGenerator> GENERATORS = new ConcurrentHashMap<>();
+    
+    private final Settings settings;
+    private final int startRow;
+    private final int startCol;
+    private final BlockingQueue<Long> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private volatile boolean exhausted;     // 补充种子池时尝试次数用尽，不再补充
+    private final AtomicLong nextSeed = new AtomicLong(new Random().nextLong());
+    
+    /**
+     * 构造函数
+     * @param settings 棋盘设置
+     */
+    private NoGuessGenerator(Settings settings) {
+        this.settings = new Settings(settings.getRows(), settings.getCols(), settings.getMines());
+        this.settings.setTopology(settings.getTopology());
+        this.startRow = settings.getRows() / 2;
+        this.startCol = settings.getCols() / 2;
+    }
+    
+    /**
+     * 获取指定难度的生成器，第一次获取时开始在后台填充种子池
+     * @param difficulty 难度
+     * @return 生成器
+     */
+    public static NoGuessGenerator forDifficulty(Settings.Difficulty difficulty) {
+        return forSettings(difficulty.toSettings());
+    }
+    
+    /**
+     * 获取指定棋盘尺寸和地雷数量的生成器，第一次获取时开始在后台填充种子池
+     * @param settings 棋盘设置
+     * @return 生成器
+     */
+    public static NoGuessGenerator forSettings(Settings settings) {
+        String key = settings.getRows() + "x" + settings.getCols() + "x" + settings.getMines() + "x" + settings.getTopology();
+        NoGuessGenerator generator = GENERATORS.computeIfAbsent(key, k -> new NoGuessGenerator(settings));
+        generator.refill();
+        return generator;
+    }
+    
+    /**
+     * 获取一个从指定位置开始无需猜测的棋盘种子
+     * 从推荐起点开始且种子池不空时返回已完成的结果，否则在后台并行生成；
+     * 推荐起点已经找不到种子（见 {@link #isExhausted()}）时直接返回空结果
+     * @param firstRow 第一次点击的行
+     * @param firstCol 第一次点击的列
+     * @return 随机种子，找不到无需猜测的棋盘时为空
+     */
+    public CompletableFuture<OptionalLong> takeSeed(int firstRow, int firstCol) {
+        if (firstRow == startRow && firstCol == startCol) {
+            Long seed = pool.poll();
+            refill();
+            if (seed != null) {
+                return CompletableFuture.completedFuture(OptionalLong.of(seed));
+            }
+            if (exhausted) {
+                return CompletableFuture.completedFuture(OptionalLong.empty());
+            }
+        }
+        return generate(firstRow, firstCol);
+    }
+    
+    /**
+     * 在所有工作线程上并行搜索可解的种子，结果为最先找到的一个
+     * @param firstRow 第一次点击的行
+     * @param firstCol 第一次点击的列
+     * @return 随机种子，在工作线程中完成；尝试次数用尽时为空
+     */
+    public CompletableFuture<OptionalLong> generate(int firstRow, int firstCol) {
+        CompletableFuture<OptionalLong> result = new CompletableFuture<>();
+        AtomicLong attempts = new AtomicLong();
+        for (int i = 0; i < WORKERS; i++) {
+            EXECUTOR.execute(() -> {
+                try {
+                    search(firstRow, firstCol, result, attempts);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        return result;
+    }
+    
+    /**
+     * 单个工作线程的搜索循环，直到有线程找到结果为止
+     */
+    private void search(int firstRow, int firstCol, CompletableFuture<OptionalLong> result, AtomicLong attempts) {
+        Board scratch = new Board(settings);
+        MinesweeperSolver solver = new MinesweeperSolver(scratch.getNeighborTable());
+        while (!result.isDone()) {
+            long seed = nextSeed.getAndIncrement();
+            if (isSolvable(scratch, solver, firstRow, firstCol, seed)) {
+                result.complete(OptionalLong.of(seed));
+                return;
+            }
+            if (attempts.incrementAndGet() >= MAX_ATTEMPTS) {
+                result.complete(OptionalLong.empty());
+                return;
+            }
+        }
+    }
+    
+    private static boolean isSolvable(Board scratch, MinesweeperSolver solver, int firstRow, int firstCol, long seed) {
+        scratch.restartGame();
+        scratch.placeMines(firstRow, firstCol, seed);
+        return solver.solveWithoutGuessing(scratch, firstRow, firstCol);
+    }
+    
+    /**
+     * 在后台把种子池补满（同一时间只有一个补充任务）
+     * 连续尝试 MAX_ATTEMPTS 个种子都不可解时标记为已用尽，以后不再补充
+     */
+    private void refill() {
+        if (exhausted || pool.remainingCapacity() == 0 || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        EXECUTOR.execute(() -> {
+            try {
+                Board scratch = new Board(settings);
+                MinesweeperSolver solver = new MinesweeperSolver(scratch.getNeighborTable());
+                long attempts = 0;
+                while (pool.remainingCapacity() > 0 && attempts < MAX_ATTEMPTS) {
+                    long seed = nextSeed.getAndIncrement();
+                    attempts++;
+                    if (isSolvable(scratch, solver, startRow, startCol, seed)) {
+                        pool.offer(seed);
+                        attempts = 0;
+                    }
+                }
+                if (attempts >= MAX_ATTEMPTS) {
+                    exhausted = true;
+                }
+            } finally {
+                refilling.set(false);
+            }
+        });
+    }
+    
+    // Getters
+    /**
+     * 获取推荐的起点行（预先生成的种子都以此为第一次点击）
+     * @return 行坐标
+     */
+    public int getStartRow() {
+        return startRow;
+    }
+    
+    public int getStartCol() {
+        return startCol;
+    }
+    
+    public int getPooledSeeds() {
+        return pool.size();
+    }
+    
+    /**
+     * 判断推荐起点是否已经找不到无需猜测的棋盘（种子池用完后不会再补充）
+     * @return 是否已用尽
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,373 @@
+package games.minesweeper.solver;
+
+import games.minesweeper.CellStorage;
+import games.minesweeper.NeighborTable;
+import games.minesweeper.Topology;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 地雷概率计算引擎
+ * 只使用玩家能看到的信息：把边界拆成互不相关的连通块，先统计每个连通块按地雷数量分组的布局数，
+ * 再结合剩余地雷总数给每种地雷数量加权（非边界单元格的组合数），最后按权重重新统计每个单元格是雷的概率。
+ * 较小的连通块精确枚举，较大的连通块改用蒙特卡洛抽样
+ */
+public class ProbabilityEngine {
+    private static final int EXACT_CELLS = 24;           // 精确枚举的连通块最大单元格数量
+    private static final long EXACT_NODES = 1000000;     // 精确枚举的搜索节点上限
+    private static final int MAX_SAMPLE_CELLS = 4000;    // 抽样的连通块最大单元格数量，更大的按局部密度估算
+    private static final int SAMPLES = 2000;             // 每个连通块的样本数量
+    private static final long EXACT_CONVOLUTION_LIMIT = 4000000; // 精确合并各连通块分布的计算量上限
+    private static final double[] LOG_FACTORIAL = new double[256]; // 较小的 ln(n!) 查表，更大的用斯特林级数
+    
+    static {
+        for (int i = 1; i < LOG_FACTORIAL.length; i++) {
+            LOG_FACTORIAL[i] = LOG_FACTORIAL[i - 1] + Math.log(i);
+        }
+    }
+    
+    private final NeighborTable neighbors;
+    private final int rows;
+    private final int cols;
+    private final FrontierEnumerator enumerator;
+    private final int[] cells = new int[8];   // 邻居数量不超过 8
+    
+    /**
+     * 计算结果：边界单元格的概率，以及其余未知单元格共同的概率
+     */
+    public static final class Result {
+        private final int[] cells;
+        private final float[] probabilities;
+        private final float interiorProbability;
+        
+        Result(int[] cells, float[] probabilities, float interiorProbability) {
+            this.cells = cells;
+            this.probabilities = probabilities;
+            this.interiorProbability = interiorProbability;
+        }
+        
+        /**
+         * 获取边界单元格数量
+         * @return 数量
+         */
+        public int size() {
+            return cells.length;
+        }
+        
+        /**
+         * 获取第 i 个边界单元格的棋盘下标
+         * @param i 序号
+         * @return 棋盘下标
+         */
+        public int getCell(int i) {
+            return cells[i];
+        }
+        
+        /**
+         * 获取第 i 个边界单元格是雷的概率，数字互相矛盾时为 NaN
+         * @param i 序号
+         * @return 概率
+         */
+        public float getProbability(int i) {
+            return probabilities[i];
+        }
+        
+        /**
+         * 获取不与任何已翻开数字相邻的未知单元格是雷的概率
+         * @return 概率
+         */
+        public float getInteriorProbability() {
+            return interiorProbability;
+        }
+    }
+    
+    /**
+     * 构造函数（矩形棋盘）
+     * @param rows 棋盘行数
+     * @param cols 棋盘列数
+     */
+    public ProbabilityEngine(int rows, int cols) {
+        this(Topology.RECTANGULAR.createNeighborTable(rows, cols));
+    }
+    
+    /**
+     * 构造函数
+     * 占用的内存只与边界大小有关，不随棋盘大小增长
+     * @param neighbors 棋盘的邻居表，决定棋盘尺寸和拓扑
+     */
+    public ProbabilityEngine(NeighborTable neighbors) {
+        this.neighbors = neighbors;
+        this.rows = neighbors.getRows();
+        this.cols = neighbors.getCols();
+        this.enumerator = new FrontierEnumerator(EXACT_CELLS, EXACT_NODES);
+    }
+    
+    /**
+     * 计算所有未知单元格是雷的概率
+     * 插旗的单元格视为地雷。计算过程中定期检查 cancelled，返回 true 时抛出 {@link CancellationException}
+     * @param storage 棋盘存储（只读取翻开、标记状态和已翻开单元格的数字）
+     * @param totalMines 地雷总数
+     * @param cancelled 取消检查
+     * @return 计算结果
+     */
+    public Result compute(CellStorage storage, int totalMines, BooleanSupplier cancelled) {
+        enumerator.setCancelled(cancelled);
+        enumerator.beginConstraints();
+        
+        // 扫描棋盘建立约束
+        int unknown = 0;
+        int flags = 0;
+        for (int row = 0; row < rows; row++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            for (int col = 0; col < cols; col++) {
+                int state = storage.getState(row * cols + col);
+                if ((state & CellStorage.REVEALED) == 0) {
+                    if ((state & CellStorage.FLAGGED) != 0) {
+                        flags++;
+                    } else {
+                        unknown++;
+                    }
+                } else if ((state & CellStorage.MINE) == 0 && (state & CellStorage.ADJACENT_MASK) > 0) {
+                    addConstraint(storage, row * cols + col, state & CellStorage.ADJACENT_MASK);
+                }
+            }
+        }
+        
+        int components = enumerator.buildComponents();
+        int interior = unknown - enumerator.getFrontierSize();
+        int remaining = Math.max(0, totalMines - flags);
+        
+        // 第一遍：统计每个连通块按地雷数量分组的布局数
+        double[][] histograms = new double[components][];
+        boolean[] exact = new boolean[components];
+        double density = unknown > 0 ? (double) remaining / unknown : 0;
+        for (int c = 0; c < components; c++) {
+            double[] histogram = new double[enumerator.getComponentSize(c) + 1];
+            exact[c] = enumerator.enumerateComponent(c, null, histogram);
+            if (!exact[c]) {
+                Arrays.fill(histogram, 0);
+                if (enumerator.getComponentSize(c) > MAX_SAMPLE_CELLS
+                        || !enumerator.sampleComponent(c, SAMPLES, c, density, null, histogram)) {
+                    histogram = null;
+                }
+            }
+            histograms[c] = histogram;
+        }
+        
+        // 结合剩余地雷数给各连通块的地雷数量加权
+        double[][] weights = new double[components][];
+        double interiorProbability = computeWeights(histograms, weights, interior, remaining);
+        
+        // 第二遍：按权重统计每个单元格是雷的概率
+        int frontierSize = enumerator.getFrontierSize();
+        int[] resultCells = new int[frontierSize];
+        float[] resultProbabilities = new float[frontierSize];
+        int count = 0;
+        for (int c = 0; c < components; c++) {
+            boolean valid;
+            if (histograms[c] == null) {
+                enumerator.estimateComponent(c);
+                valid = true;
+            } else if (exact[c]) {
+                valid = enumerator.enumerateComponent(c, weights[c], null);
+            } else {
+                valid = enumerator.sampleComponent(c, SAMPLES, c, density, weights[c], null);
+            }
+            for (int i = 0; i < enumerator.getComponentSize(c); i++) {
+                int local = enumerator.getComponentCell(c, i);
+                resultCells[count] = enumerator.getFrontierCell(local);
+                resultProbabilities[count] = valid ? (float) enumerator.getProbability(local) : Float.NaN;
+                count++;
+            }
+        }
+        return new Result(resultCells, resultProbabilities, (float) interiorProbability);
+    }
+    
+    private void addConstraint(CellStorage storage, int index, int adjacentMines) {
+        int count = 0;
+        int flagged = 0;
+        int cls = neighbors.classOf(index);
+        for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+            int neighbor = index + neighbors.delta(k);
+            int state = storage.getState(neighbor);
+            if ((state & CellStorage.REVEALED) != 0) {
+                continue;
+            }
+            if ((state & CellStorage.FLAGGED) != 0) {
+                flagged++;
+            } else {
+                cells[count++] = neighbor;
+            }
+        }
+        enumerator.addConstraint(cells, count, adjacentMines - flagged);
+    }
+    
+    /**
+     * 计算每个连通块各地雷数量的权重
+     * 连通块 j 有 k 颗雷的权重 = 其余连通块共有 s 颗雷的布局数 × 剩余 (remaining - k - s) 颗雷分布在非边界单元格的组合数，对 s 求和
+     * @param histograms 各连通块按地雷数量分组的布局数（null 表示未统计）
+     * @param weights 输出：各连通块的权重
+     * @param interior 非边界未知单元格数量
+     * @param remaining 剩余地雷数量
+     * @return 非边界单元格是雷的概率
+     */
+    private double computeWeights(double[][] histograms, double[][] weights, int interior, int remaining) {
+        int components = histograms.length;
+        long work = 0;
+        int total = 0;
+        for (double[] histogram : histograms) {
+            if (histogram != null) {
+                total += histogram.length - 1;
+                work += (long) total * histogram.length;
+            }
+        }
+        
+        if (work * 2 > EXACT_CONVOLUTION_LIMIT) {
+            return computeApproximateWeights(histograms, weights, interior, remaining);
+        }
+        
+        // 前缀和后缀卷积：prefix[c] 是前 c 个连通块的地雷数分布，suffix[c] 是第 c 个及之后的
+        double[][] prefix = new double[components + 1][];
+        double[][] suffix = new double[components + 1][];
+        prefix[0] = new double[] {1.0};
+        suffix[components] = new double[] {1.0};
+        for (int c = 0; c < components; c++) {
+            prefix[c + 1] = convolve(prefix[c], histograms[c]);
+        }
+        for (int c = components - 1; c >= 0; c--) {
+            suffix[c] = convolve(suffix[c + 1], histograms[c]);
+        }
+        
+        double[] outside = combinations(interior, remaining, prefix[components].length);
+        for (int c = 0; c < components; c++) {
+            if (histograms[c] == null) {
+                continue;
+            }
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            double[] weight = new double[histograms[c].length];
+            for (int k = 0; k < weight.length; k++) {
+                for (int s = 0; s < others.length; s++) {
+                    int index = k + s;
+                    if (index < outside.length) {
+                        weight[k] += others[s] * outside[index];
+                    }
+                }
+            }
+            weights[c] = normalize(weight);
+        }
+        
+        // 非边界单元格的期望地雷数
+        double[] all = prefix[components];
+        double sum = 0;
+        double expected = 0;
+        for (int s = 0; s < all.length && s < outside.length; s++) {
+            double weight = all[s] * outside[s];
+            sum += weight;
+            expected += weight * (remaining - s);
+        }
+        return interior > 0 && sum > 0 ? expected / sum / interior : 0;
+    }
+    
+    /**
+     * 分布过大时的近似：把非边界组合数近似为每多一颗雷乘以固定比值，反复迭代估算该比值
+     */
+    private double computeApproximateWeights(double[][] histograms, double[][] weights, int interior, int remaining) {
+        double interiorDensity = Math.min(0.999, Math.max(0.001, (double) remaining / Math.max(1, interior + enumerator.getFrontierSize())));
+        for (int iteration = 0; iteration < 8; iteration++) {
+            double odds = interiorDensity / (1 - interiorDensity);
+            double expectedFrontier = 0;
+            for (int c = 0; c < histograms.length; c++) {
+                if (histograms[c] == null) {
+                    continue;
+                }
+                double[] weight = new double[histograms[c].length];
+                double factor = 1;
+                for (int k = 0; k < weight.length; k++) {
+                    weight[k] = factor;
+                    factor *= odds;
+                }
+                weights[c] = normalize(weight);
+                
+                double sum = 0;
+                double expected = 0;
+                for (int k = 0; k < weight.length; k++) {
+                    sum += histograms[c][k] * weights[c][k];
+                    expected += histograms[c][k] * weights[c][k] * k;
+                }
+                expectedFrontier += sum > 0 ? expected / sum : 0;
+            }
+            if (interior <= 0) {
+                return 0;
+            }
+            interiorDensity = Math.min(0.999, Math.max(0.001, (remaining - expectedFrontier) / interior));
+        }
+        return interiorDensity;
+    }
+    
+    /**
+     * 计算剩余 m 颗雷分布在非边界单元格中的组合数 C(interior, remaining - s)，s 为边界地雷数
+     * 结果按最大值归一化，避免溢出
+     */
+    private double[] combinations(int interior, int remaining, int length) {
+        double[] logs = new double[length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < length; s++) {
+            int m = remaining - s;
+            logs[s] = m < 0 || m > interior ? Double.NEGATIVE_INFINITY
+                : logFactorial(interior) - logFactorial(m) - logFactorial(interior - m);
+            max = Math.max(max, logs[s]);
+        }
+        double[] result = new double[length];
+        if (max == Double.NEGATIVE_INFINITY) {
+            return result;
+        }
+        for (int s = 0; s < length; s++) {
+            result[s] = Math.exp(logs[s] - max);
+        }
+        return result;
+    }
+    
+    /**
+     * 计算 ln(n!)，n 较大时用斯特林级数，误差远小于 double 的精度需要
+     */
+    static double logFactorial(int n) {
+        if (n < LOG_FACTORIAL.length) {
+            return LOG_FACTORIAL[n];
+        }
+        double x = n;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+    
+    private static double[] convolve(double[] a, double[] b) {
+        if (b == null) {
+            return a;
+        }
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        return normalize(result);
+    }
+    
+    private static double[] normalize(double[] values) {
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        if (max > 0) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= max;
+            }
+        }
+        return values;
+    }
+}
\ No newline at end of file
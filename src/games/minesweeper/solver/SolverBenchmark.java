@@ -0,0 +1,84 @@
+package games.minesweeper.solver;
+
+import games.minesweeper.Board;
+import games.minesweeper.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 求解器批量测试程序
+ * 在所有CPU核心上并行求解大量固定种子的棋盘，统计胜率、每局猜测次数和求解速度
+ *
+ * 用法：java games.minesweeper.solver.SolverBenchmark [难度] [局数] [线程数] [起始种子]
+ */
+public class SolverBenchmark {
+    public static void main(String[] args) throws Exception {
+        Settings.Difficulty difficulty = args.length > 0
+            ? Settings.Difficulty.valueOf(args[0].toUpperCase(Locale.ROOT)) : Settings.Difficulty.EXPERT;
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1000000L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+        
+        System.out.printf("难度: %s, 局数: %d, 线程数: %d%n", difficulty, games, threads);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // 每个线程负责种子编号中与自己同余的那一部分
+            final long offset = t;
+            futures.add(executor.submit(() -> playGames(difficulty.toSettings(), firstSeed + offset, threads, games - offset)));
+        }
+        
+        long wins = 0;
+        long guesses = 0;
+        long played = 0;
+        for (Future<long[]> future : futures) {
+            long[] result = future.get();
+            played += result[0];
+            wins += result[1];
+            guesses += result[2];
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("完成局数: %d%n", played);
+        System.out.printf("胜率: %.2f%%%n", played == 0 ? 0 : 100.0 * wins / played);
+        System.out.printf("平均每局猜测: %.3f%n", played == 0 ? 0 : (double) guesses / played);
+        System.out.printf("求解速度: %.0f 局/秒 (%.2f 秒)%n", played / seconds, seconds);
+    }
+    
+    /**
+     * 在当前线程中连续求解多局，棋盘和求解器在各局之间复用
+     * @param settings 棋盘设置
+     * @param seed 第一局的种子
+     * @param stride 种子步长
+     * @param remaining 剩余的种子范围
+     * @return {局数, 胜局数, 猜测次数}
+     */
+    private static long[] playGames(Settings settings, long seed, long stride, long remaining) {
+        Board board = new Board(settings);
+        MinesweeperSolver solver = new MinesweeperSolver(board.getNeighborTable());
+        int firstRow = settings.getRows() / 2;
+        int firstCol = settings.getCols() / 2;
+        
+        long played = 0;
+        long wins = 0;
+        long guesses = 0;
+        for (long i = 0; i < remaining; i += stride) {
+            board.restartGame();
+            board.placeMines(firstRow, firstCol, seed + i);
+            if (solver.play(board, firstRow, firstCol)) {
+                wins++;
+            }
+            guesses += solver.getGuesses();
+            played++;
+        }
+        return new long[] {played, wins, guesses};
+    }
+}
\ No newline at end of file
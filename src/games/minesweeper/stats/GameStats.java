@@ -0,0 +1,104 @@
+package games.minesweeper.stats;
+
+import games.minesweeper.Board;
+
+/**
+ * 一局游戏的成绩统计
+ * 记录玩家的点击次数和用时，结束时计算 3BV、3BV/s 和效率（3BV / 总点击次数）
+ */
+public class GameStats {
+    private final ThreeBV calculator = new ThreeBV();
+    private int leftClicks;
+    private int rightClicks;
+    private long startTime;         // 第一次点击的时间（纳秒），0 表示尚未开始
+    private long previousTime;      // 读档前已用的时间（纳秒）
+    private long elapsedTime;       // 结束时的总用时（纳秒）
+    private int threeBV;
+    
+    /**
+     * 开始新的一局
+     */
+    public void reset() {
+        leftClicks = 0;
+        rightClicks = 0;
+        startTime = 0;
+        previousTime = 0;
+        elapsedTime = 0;
+        threeBV = 0;
+    }
+    
+    /**
+     * 继续一局读取的游戏，之前的点击次数未知，从读取时开始重新计数
+     * @param elapsedSeconds 存档中的已用时间（秒）
+     */
+    public void resume(int elapsedSeconds) {
+        reset();
+        previousTime = elapsedSeconds * 1000000000L;
+    }
+    
+    /**
+     * 记录一次点击，第一次点击时开始计时
+     * @param left 是否为左键点击
+     */
+    public void recordClick(boolean left) {
+        if (startTime == 0) {
+            startTime = System.nanoTime();
+        }
+        if (left) {
+            leftClicks++;
+        } else {
+            rightClicks++;
+        }
+    }
+    
+    /**
+     * 结束本局：停止计时并计算棋盘的 3BV
+     * @param board 棋盘
+     */
+    public void finish(Board board) {
+        elapsedTime = previousTime + (startTime == 0 ? 0 : System.nanoTime() - startTime);
+        threeBV = board.isMinesPlaced() ? calculator.compute(board) : 0;
+    }
+    
+    // Getters
+    public int getLeftClicks() {
+        return leftClicks;
+    }
+    
+    public int getRightClicks() {
+        return rightClicks;
+    }
+    
+    public int getClicks() {
+        return leftClicks + rightClicks;
+    }
+    
+    public int getThreeBV() {
+        return threeBV;
+    }
+    
+    /**
+     * 获取用时
+     * @return 用时（秒）
+     */
+    public double getElapsedSeconds() {
+        return elapsedTime / 1e9;
+    }
+    
+    /**
+     * 获取每秒完成的 3BV
+     * @return 3BV/s
+     */
+    public double getThreeBVPerSecond() {
+        return elapsedTime > 0 ? threeBV / getElapsedSeconds() : 0;
+    }
+    
+    /**
+     * 获取点击效率，只用左键且没有多余点击时为 1
+     * @return 3BV / 总点击次数
+     */
+    public double getEfficiency() {
+        int clicks = getClicks();
+        return clicks > 0 ? (double) threeBV / clicks : 0;
+    }
+}
\ No newline at end of file
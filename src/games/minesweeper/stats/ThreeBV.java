@@ -0,0 +1,108 @@
+package games.minesweeper.stats;
+
+import games.minesweeper.Board;
+import games.minesweeper.CellStorage;
+import games.minesweeper.NeighborTable;
+
+/**
+ * 3BV（Bechtel's Board Benchmark Value）计算器
+ * 3BV 是不插旗完成棋盘至少需要的左键点击次数 = 空白区域（相连的数字为 0 的单元格）数量
+ * + 不与任何空白单元格相邻的数字单元格数量。
+ * 空白区域用并查集合并，每个单元格只遍历一次邻居，耗时与单元格数量成正比。
+ * 并查集数组在多次计算之间复用（每个单元格 4 字节），一个计算器只能在一个线程中使用
+ */
+public class ThreeBV {
+    private int[] parent = new int[0];
+    
+    /**
+     * 计算棋盘的 3BV，棋盘须已布雷
+     * @param board 棋盘
+     * @return 3BV
+     */
+    public int compute(Board board) {
+        return compute(board.getStorage(), board.getNeighborTable());
+    }
+    
+    /**
+     * 计算 3BV，只读取地雷位和相邻地雷数量
+     * @param storage 单元格存储
+     * @param neighbors 邻居表
+     * @return 3BV
+     */
+    public int compute(CellStorage storage, NeighborTable neighbors) {
+        int size = storage.size();
+        if (parent.length < size) {
+            parent = new int[size];
+        }
+        
+        // 第一遍：每个空白单元格与下标更小的空白邻居合并，每条边只处理一次
+        for (int index = 0; index < size; index++) {
+            if (!isOpening(storage.getState(index))) {
+                continue;
+            }
+            parent[index] = index;
+            int cls = neighbors.classOf(index);
+            for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+                int neighbor = index + neighbors.delta(k);
+                if (neighbor < index && isOpening(storage.getState(neighbor))) {
+                    union(index, neighbor);
+                }
+            }
+        }
+        
+        // 第二遍：每个空白区域的根计 1，不与空白单元格相邻的数字单元格各计 1
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            int state = storage.getState(index);
+            if ((state & CellStorage.MINE) != 0) {
+                continue;
+            }
+            if ((state & CellStorage.ADJACENT_MASK) == 0) {
+                if (parent[index] == index) {
+                    count++;
+                }
+            } else if (!touchesOpening(storage, neighbors, index)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean isOpening(int state) {
+        return (state & (CellStorage.MINE | CellStorage.ADJACENT_MASK)) == 0;
+    }
+    
+    private static boolean touchesOpening(CellStorage storage, NeighborTable neighbors, int index) {
+        int cls = neighbors.classOf(index);
+        for (int k = neighbors.classStart(cls), end = neighbors.classEnd(cls); k < end; k++) {
+            if (isOpening(storage.getState(index + neighbors.delta(k)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 查找根节点，同时把路径减半
+     */
+    private int find(int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+    
+    /**
+     * 合并两个集合，总是让下标较小的根作为新根
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+}
\ No newline at end of file
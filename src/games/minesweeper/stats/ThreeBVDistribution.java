@@ -0,0 +1,146 @@
+package games.minesweeper.stats;
+
+import games.minesweeper.Board;
+import games.minesweeper.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 3BV 分布统计程序
+ * 在所有CPU核心上并行生成大量固定种子的棋盘（第一次点击在棋盘中心），统计 3BV 的分布
+ *
+ * 用法：java games.minesweeper.stats.ThreeBVDistribution [难度] [局数] [线程数] [起始种子]
+ */
+public class ThreeBVDistribution {
+    private static final int HISTOGRAM_ROWS = 40;   // 直方图最多显示的行数
+    private static final int BAR_WIDTH = 50;
+    
+    public static void main(String[] args) throws Exception {
+        Settings.Difficulty difficulty = args.length > 0
+            ? Settings.Difficulty.valueOf(args[0].toUpperCase(Locale.ROOT)) : Settings.Difficulty.EXPERT;
+        long boards = args.length > 1 ? Long.parseLong(args[1]) : 1000000L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+        
+        System.out.printf("难度: %s, 局数: %d, 线程数: %d%n", difficulty, boards, threads);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // 每个线程负责种子编号中与自己同余的那一部分
+            final long offset = t;
+            futures.add(executor.submit(() -> countBoards(difficulty.toSettings(), firstSeed + offset, threads, boards - offset)));
+        }
+        
+        // 合并各线程的直方图：下标为 3BV，值为棋盘数量
+        long[] histogram = null;
+        for (Future<long[]> future : futures) {
+            long[] result = future.get();
+            if (histogram == null) {
+                histogram = result;
+            } else {
+                for (int bv = 0; bv < histogram.length; bv++) {
+                    histogram[bv] += result[bv];
+                }
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        long count = 0;
+        double sum = 0;
+        double sumSquares = 0;
+        int min = -1;
+        int max = -1;
+        for (int bv = 0; bv < histogram.length; bv++) {
+            if (histogram[bv] == 0) {
+                continue;
+            }
+            if (min < 0) {
+                min = bv;
+            }
+            max = bv;
+            count += histogram[bv];
+            sum += (double) bv * histogram[bv];
+            sumSquares += (double) bv * bv * histogram[bv];
+        }
+        if (count == 0) {
+            return;
+        }
+        double mean = sum / count;
+        
+        System.out.printf("完成局数: %d%n", count);
+        System.out.printf("3BV: 平均 %.2f, 标准差 %.2f, 最小 %d, 最大 %d%n",
+            mean, Math.sqrt(Math.max(0, sumSquares / count - mean * mean)), min, max);
+        System.out.printf("分位数: 1%% %d, 10%% %d, 50%% %d, 90%% %d, 99%% %d%n",
+            percentile(histogram, count, 0.01), percentile(histogram, count, 0.10), percentile(histogram, count, 0.50),
+            percentile(histogram, count, 0.90), percentile(histogram, count, 0.99));
+        System.out.printf("统计速度: %.0f 局/秒 (%.2f 秒)%n", count / seconds, seconds);
+        printHistogram(histogram, min, max);
+    }
+    
+    /**
+     * 在当前线程中连续生成多个棋盘，棋盘和计算器在各局之间复用
+     * @param settings 棋盘设置
+     * @param seed 第一局的种子
+     * @param stride 种子步长
+     * @param remaining 剩余的种子范围
+     * @return 直方图：下标为 3BV，值为棋盘数量
+     */
+    private static long[] countBoards(Settings settings, long seed, long stride, long remaining) {
+        Board board = new Board(settings);
+        ThreeBV calculator = new ThreeBV();
+        int firstRow = settings.getRows() / 2;
+        int firstCol = settings.getCols() / 2;
+        
+        long[] histogram = new long[settings.getRows() * settings.getCols() + 1];
+        for (long i = 0; i < remaining; i += stride) {
+            board.placeMines(firstRow, firstCol, seed + i);
+            histogram[calculator.compute(board)]++;
+        }
+        return histogram;
+    }
+    
+    private static int percentile(long[] histogram, long count, double fraction) {
+        long target = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int bv = 0; bv < histogram.length; bv++) {
+            seen += histogram[bv];
+            if (seen >= target && seen > 0) {
+                return bv;
+            }
+        }
+        return histogram.length - 1;
+    }
+    
+    /**
+     * 用文本柱状图输出分布，3BV 范围较大时按区间合并
+     */
+    private static void printHistogram(long[] histogram, int min, int max) {
+        int bucket = (max - min) / HISTOGRAM_ROWS + 1;
+        int rows = (max - min) / bucket + 1;
+        long[] buckets = new long[rows];
+        long highest = 0;
+        for (int bv = min; bv <= max; bv++) {
+            buckets[(bv - min) / bucket] += histogram[bv];
+        }
+        for (long value : buckets) {
+            highest = Math.max(highest, value);
+        }
+        for (int i = 0; i < rows; i++) {
+            int from = min + i * bucket;
+            String label = bucket == 1 ? String.valueOf(from) : from + "-" + Math.min(max, from + bucket - 1);
+            StringBuilder bar = new StringBuilder();
+            for (long j = buckets[i] * BAR_WIDTH / highest; j > 0; j--) {
+                bar.append('#');
+            }
+            System.out.printf("%9s %10d %s%n", label, buckets[i], bar);
+        }
+    }
+}
\ No newline at end of file
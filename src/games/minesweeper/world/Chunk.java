@@ -0,0 +1,100 @@
+package games.minesweeper.world;
+
+import games.minesweeper.CellStorage;
+
+/**
+ * 无限世界中的一个区块
+ * 区块是固定大小的正方形，地雷布局由世界种子和区块坐标唯一确定，
+ * 所以只需要保存玩家改变过的翻开和标记状态
+ */
+public final class Chunk {
+    public static final int SHIFT = 6;
+    public static final int SIZE = 1 << SHIFT;    // 区块边长（单元格）
+    public static final int MASK = SIZE - 1;
+    
+    private final int chunkRow;
+    private final int chunkCol;
+    private final CellStorage storage;
+    private boolean dirty;      // 自上次写入磁盘后玩家是否改变过该区块
+    
+    /**
+     * 构造函数
+     * @param chunkRow 区块行坐标
+     * @param chunkCol 区块列坐标
+     */
+    Chunk(int chunkRow, int chunkCol) {
+        this.chunkRow = chunkRow;
+        this.chunkCol = chunkCol;
+        this.storage = new CellStorage(SIZE, SIZE);
+    }
+    
+    /**
+     * 把区块坐标打包成一个 long，用作缓存和磁盘索引的键
+     * @param chunkRow 区块行坐标
+     * @param chunkCol 区块列坐标
+     * @return 键
+     */
+    static long key(int chunkRow, int chunkCol) {
+        return ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * 把翻开和标记状态导出为位平面，每行一个 long
+     * @param revealed 输出：翻开状态
+     * @param flagged 输出：标记状态
+     */
+    void exportPlayerState(long[] revealed, long[] flagged) {
+        for (int row = 0; row < SIZE; row++) {
+            long revealedBits = 0;
+            long flaggedBits = 0;
+            int index = row << SHIFT;
+            for (int col = 0; col < SIZE; col++, index++) {
+                int state = storage.getState(index);
+                if ((state & CellStorage.REVEALED) != 0) {
+                    revealedBits |= 1L << col;
+                }
+                if ((state & CellStorage.FLAGGED) != 0) {
+                    flaggedBits |= 1L << col;
+                }
+            }
+            revealed[row] = revealedBits;
+            flagged[row] = flaggedBits;
+        }
+    }
+    
+    /**
+     * 从位平面恢复翻开和标记状态
+     * @param revealed 翻开状态
+     * @param flagged 标记状态
+     */
+    void importPlayerState(long[] revealed, long[] flagged) {
+        for (int row = 0; row < SIZE; row++) {
+            int index = row << SHIFT;
+            for (int col = 0; col < SIZE; col++, index++) {
+                storage.setRevealed(index, (revealed[row] >>> col & 1) != 0);
+                storage.setFlagged(index, (flagged[row] >>> col & 1) != 0);
+            }
+        }
+    }
+    
+    // Getters and Setters
+    public int getChunkRow() {
+        return chunkRow;
+    }
+    
+    public int getChunkCol() {
+        return chunkCol;
+    }
+    
+    public CellStorage getStorage() {
+        return storage;
+    }
+    
+    public boolean isDirty() {
+        return dirty;
+    }
+    
+    void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package games.minesweeper.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 区块的 LRU 缓存
+ * 最多在内存中保留固定数量的区块；淘汰被玩家改变过的区块时把它写入磁盘，
+ * 再次访问时重新生成地雷布局并从磁盘恢复翻开和标记状态
+ */
+final class ChunkCache {
+    private final int capacity;
+    private final ChunkGenerator generator;
+    private final ChunkSpill spill;
+    private final LinkedHashMap<Long, Chunk> chunks;
+    private final long[] revealedPlane = new long[Chunk.SIZE];
+    private final long[] flaggedPlane = new long[Chunk.SIZE];
+    
+    /**
+     * 构造函数
+     * @param capacity 内存中最多保留的区块数量
+     * @param generator 区块生成器
+     * @param spill 磁盘存储
+     */
+    ChunkCache(int capacity, ChunkGenerator generator, ChunkSpill spill) {
+        this.capacity = capacity;
+        this.generator = generator;
+        this.spill = spill;
+        this.chunks = new LinkedHashMap<Long, Chunk>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() <= ChunkCache.this.capacity) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * 获取区块，不在内存中时加载或生成
+     * @param chunkRow 区块行坐标
+     * @param chunkCol 区块列坐标
+     * @return 区块
+     */
+    Chunk get(int chunkRow, int chunkCol) {
+        long key = Chunk.key(chunkRow, chunkCol);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = load(chunkRow, chunkCol, key);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+    
+    private Chunk load(int chunkRow, int chunkCol, long key) {
+        Chunk chunk = new Chunk(chunkRow, chunkCol);
+        generator.generate(chunk);
+        if (spill.read(key, revealedPlane, flaggedPlane)) {
+            chunk.importPlayerState(revealedPlane, flaggedPlane);
+        }
+        return chunk;
+    }
+    
+    /**
+     * 淘汰区块：改变过的写入磁盘
+     */
+    private void evict(Chunk chunk) {
+        if (chunk.isDirty()) {
+            chunk.exportPlayerState(revealedPlane, flaggedPlane);
+            spill.write(Chunk.key(chunk.getChunkRow(), chunk.getChunkCol()), revealedPlane, flaggedPlane);
+            chunk.setDirty(false);
+        }
+    }
+    
+    /**
+     * 获取内存中的区块数量
+     * @return 区块数量
+     */
+    int size() {
+        return chunks.size();
+    }
+}
\ No newline at end of file
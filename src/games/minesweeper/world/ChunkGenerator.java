@@ -0,0 +1,127 @@
+package games.minesweeper.world;
+
+import games.minesweeper.CellStorage;
+
+import java.util.Random;
+
+/**
+ * 区块地雷生成器
+ * 每个区块用世界种子和区块坐标混合出的种子做部分 Fisher-Yates 洗牌放置地雷，
+ * 相同坐标总是生成相同的布局。计算边缘单元格的数字时直接重新生成相邻区块的布局，不需要加载相邻区块
+ */
+final class ChunkGenerator {
+    private static final int CELLS = Chunk.SIZE * Chunk.SIZE;
+    
+    private final long worldSeed;
+    private final int minesPerChunk;
+    private final int[] positions = new int[CELLS];    // 洗牌用的下标排列，每次生成后恢复为恒等排列
+    private final int[] swaps;
+    private final long[][] neighborhood = new long[9][Chunk.SIZE]; // 周围 3x3 个区块的地雷位图，每行一个 long
+    
+    /**
+     * 构造函数
+     * @param worldSeed 世界种子
+     * @param density 地雷密度（0-1）
+     */
+    ChunkGenerator(long worldSeed, double density) {
+        this.worldSeed = worldSeed;
+        this.minesPerChunk = (int) Math.round(Math.max(0, Math.min(1, density)) * CELLS);
+        this.swaps = new int[minesPerChunk];
+        for (int i = 0; i < CELLS; i++) {
+            positions[i] = i;
+        }
+    }
+    
+    /**
+     * 生成区块的地雷和数字（不改变翻开和标记状态）
+     * @param chunk 区块
+     */
+    void generate(Chunk chunk) {
+        int chunkRow = chunk.getChunkRow();
+        int chunkCol = chunk.getChunkCol();
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                mineRows(chunkRow + dr, chunkCol + dc, neighborhood[(dr + 1) * 3 + dc + 1]);
+            }
+        }
+        
+        CellStorage storage = chunk.getStorage();
+        storage.clearMines();
+        for (int row = 0; row < Chunk.SIZE; row++) {
+            int index = row << Chunk.SHIFT;
+            for (int col = 0; col < Chunk.SIZE; col++, index++) {
+                if (isMine(row, col)) {
+                    storage.setMine(index, true);
+                    continue;
+                }
+                int count = 0;
+                for (int r = row - 1; r <= row + 1; r++) {
+                    for (int c = col - 1; c <= col + 1; c++) {
+                        if (isMine(r, c)) {
+                            count++;
+                        }
+                    }
+                }
+                storage.setAdjacentMines(index, count);
+            }
+        }
+    }
+    
+    /**
+     * 在 3x3 区块邻域中查询地雷，坐标相对于中间区块，范围 -1 到 SIZE
+     */
+    private boolean isMine(int row, int col) {
+        int blockRow = row < 0 ? 0 : row >= Chunk.SIZE ? 2 : 1;
+        int blockCol = col < 0 ? 0 : col >= Chunk.SIZE ? 2 : 1;
+        return (neighborhood[blockRow * 3 + blockCol][row & Chunk.MASK] >>> (col & Chunk.MASK) & 1) != 0;
+    }
+    
+    /**
+     * 生成一个区块的地雷位图
+     * 世界原点周围 3x3 的单元格永远没有地雷，保证第一次点击原点是安全的
+     * @param chunkRow 区块行坐标
+     * @param chunkCol 区块列坐标
+     * @param rows 输出：每行一个 long 的地雷位图
+     */
+    private void mineRows(int chunkRow, int chunkCol, long[] rows) {
+        for (int i = 0; i < Chunk.SIZE; i++) {
+            rows[i] = 0;
+        }
+        
+        // 部分 Fisher-Yates 洗牌，结束后撤销交换以便下次复用
+        Random random = new Random(chunkSeed(chunkRow, chunkCol));
+        for (int i = 0; i < minesPerChunk; i++) {
+            int j = i + random.nextInt(CELLS - i);
+            int cell = positions[j];
+            positions[j] = positions[i];
+            positions[i] = cell;
+            swaps[i] = j;
+            rows[cell >>> Chunk.SHIFT] |= 1L << (cell & Chunk.MASK);
+        }
+        for (int i = minesPerChunk - 1; i >= 0; i--) {
+            int j = swaps[i];
+            int cell = positions[j];
+            positions[j] = positions[i];
+            positions[i] = cell;
+        }
+        
+        // 清除原点周围的地雷
+        for (int row = -1; row <= 1; row++) {
+            for (int col = -1; col <= 1; col++) {
+                if (row >> Chunk.SHIFT == chunkRow && col >> Chunk.SHIFT == chunkCol) {
+                    rows[row & Chunk.MASK] &= ~(1L << (col & Chunk.MASK));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 把世界种子和区块坐标混合成区块种子（SplitMix64 的混合函数）
+     */
+    private long chunkSeed(int chunkRow, int chunkCol) {
+        long z = worldSeed + Chunk.key(chunkRow, chunkCol) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
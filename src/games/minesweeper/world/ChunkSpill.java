@@ -0,0 +1,162 @@
+package games.minesweeper.world;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 被淘汰区块的磁盘存储
+ * 每个区块占一条固定长度的记录（翻开和标记两个位平面），记录存放在内存映射文件中，
+ * 文件按段增长。同一区块再次写出时覆盖原来的记录。
+ * 只有被玩家改变过的区块才会写出，每个这样的区块在磁盘上占一条 1 KiB 的记录，在内存中只占索引的一个槽位：
+ * 索引是开放寻址的 long -> int 散列表，不装箱，装载率不超过 3/4，每个区块约 16 到 32 字节
+ */
+final class ChunkSpill {
+    private static final int RECORD_LONGS = Chunk.SIZE * 2;          // 翻开位平面 + 标记位平面
+    private static final int RECORD_BYTES = RECORD_LONGS * Long.BYTES;
+    private static final int SEGMENT_RECORDS = 1024;                 // 每段 1 MiB
+    
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final List<LongBuffer> segments = new ArrayList<>();
+    
+    // 区块键 -> 记录序号的散列表，线性探测；slotPlusOne 为 0 的槽位为空
+    private long[] keys = new long[64];
+    private int[] slotPlusOne = new int[64];
+    private int count;
+    
+    /**
+     * 构造函数，在临时目录创建映射文件（退出时删除）
+     */
+    ChunkSpill() {
+        try {
+            file = File.createTempFile("minesweeper-world", ".chunks");
+            file.deleteOnExit();
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * 写出区块的翻开和标记状态
+     * @param key 区块键
+     * @param revealed 翻开位平面
+     * @param flagged 标记位平面
+     */
+    void write(long key, long[] revealed, long[] flagged) {
+        int index = find(key);
+        if (slotPlusOne[index] == 0) {
+            if ((count + 1) * 4 > keys.length * 3) {
+                grow();
+                index = find(key);
+            }
+            keys[index] = key;
+            slotPlusOne[index] = ++count;
+        }
+        LongBuffer record = record(slotPlusOne[index] - 1);
+        record.put(revealed, 0, Chunk.SIZE);
+        record.put(flagged, 0, Chunk.SIZE);
+    }
+    
+    /**
+     * 读入区块的翻开和标记状态
+     * @param key 区块键
+     * @param revealed 输出：翻开位平面
+     * @param flagged 输出：标记位平面
+     * @return 该区块是否写出过
+     */
+    boolean read(long key, long[] revealed, long[] flagged) {
+        int index = find(key);
+        if (slotPlusOne[index] == 0) {
+            return false;
+        }
+        LongBuffer record = record(slotPlusOne[index] - 1);
+        record.get(revealed, 0, Chunk.SIZE);
+        record.get(flagged, 0, Chunk.SIZE);
+        return true;
+    }
+    
+    /**
+     * 查找区块键所在的槽位，不存在时返回应当插入的空槽位
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int index = (int) (hash ^ hash >>> 32) & mask;
+        while (slotPlusOne[index] != 0 && keys[index] != key) {
+            index = index + 1 & mask;
+        }
+        return index;
+    }
+    
+    /**
+     * 散列表扩容一倍并重新插入所有区块
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slotPlusOne;
+        keys = new long[oldKeys.length * 2];
+        slotPlusOne = new int[oldSlots.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != 0) {
+                int index = find(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                slotPlusOne[index] = oldSlots[i];
+            }
+        }
+    }
+    
+    /**
+     * 获取记录所在的缓冲区视图，需要时映射新的段
+     */
+    private LongBuffer record(int slot) {
+        int segment = slot / SEGMENT_RECORDS;
+        while (segments.size() <= segment) {
+            long position = (long) segments.size() * SEGMENT_RECORDS * RECORD_BYTES;
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_RECORDS * RECORD_BYTES);
+                segments.add(buffer.order(ByteOrder.nativeOrder()).asLongBuffer());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        LongBuffer record = segments.get(segment).duplicate();
+        record.position(slot % SEGMENT_RECORDS * RECORD_LONGS);
+        return record;
+    }
+    
+    /**
+     * 关闭并删除映射文件
+     */
+    void close() {
+        segments.clear();
+        keys = new long[64];
+        slotPlusOne = new int[64];
+        count = 0;
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.delete();
+    }
+    
+    /**
+     * 获取写出过的区块数量
+     * @return 区块数量
+     */
+    int size() {
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+package games.minesweeper.world;
+
+import games.minesweeper.CellStorage;
+import games.minesweeper.Settings;
+
+import java.util.Arrays;
+
+/**
+ * 无限扫雷世界
+ * 世界被划分为固定大小的区块，区块在第一次访问时按确定的种子生成，访问过的区块保存在 LRU 缓存中，
+ * 被淘汰且改变过的区块写入内存映射文件。无论玩家走多远，内存中的区块数量都不超过缓存容量。
+ * 坐标可以为负数，世界原点 (0, 0) 周围没有地雷
+ */
+public class World {
+    public static final int DEFAULT_CACHE_CHUNKS = 256;   // 默认缓存区块数量（约 1 MiB 单元格数据）
+    public static final int MAX_REVEAL_CELLS = 1 << 20;   // 一次连锁翻开的最大单元格数量
+    
+    private final long seed;
+    private final double density;
+    private final ChunkSpill spill;
+    private final ChunkCache cache;
+    private Chunk lastChunk;        // 最近访问的区块，连续访问同一区块时跳过缓存查找
+    private long[] revealQueue = new long[256];
+    private long revealedCells;
+    private long flaggedCells;
+    private boolean gameOver;
+    
+    /**
+     * 按棋盘设置的地雷密度创建世界
+     * @param settings 游戏设置（地雷密度 = 地雷数量 / 单元格数量）
+     * @param seed 世界种子
+     */
+    public World(Settings settings, long seed) {
+        this((double) settings.getMines() / settings.getTotalCells(), seed, DEFAULT_CACHE_CHUNKS);
+    }
+    
+    /**
+     * 构造函数
+     * @param density 地雷密度（0-1）
+     * @param seed 世界种子
+     * @param cacheChunks 内存中最多保留的区块数量
+     */
+    public World(double density, long seed, int cacheChunks) {
+        if (cacheChunks < 1) {
+            throw new IllegalArgumentException("cacheChunks must be positive: " + cacheChunks);
+        }
+        this.seed = seed;
+        this.density = density;
+        this.spill = new ChunkSpill();
+        this.cache = new ChunkCache(cacheChunks, new ChunkGenerator(seed, density), spill);
+    }
+    
+    /**
+     * 获取单元格所在的区块
+     */
+    private Chunk chunkAt(int row, int col) {
+        int chunkRow = row >> Chunk.SHIFT;
+        int chunkCol = col >> Chunk.SHIFT;
+        Chunk chunk = lastChunk;
+        if (chunk == null || chunk.getChunkRow() != chunkRow || chunk.getChunkCol() != chunkCol) {
+            chunk = cache.get(chunkRow, chunkCol);
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+    
+    private static int localIndex(int row, int col) {
+        return (row & Chunk.MASK) << Chunk.SHIFT | (col & Chunk.MASK);
+    }
+    
+    /**
+     * 获取单元格状态字节（位定义见 {@link CellStorage}）
+     * @param row 行坐标
+     * @param col 列坐标
+     * @return 状态（0-255）
+     */
+    public int getState(int row, int col) {
+        return chunkAt(row, col).getStorage().getState(localIndex(row, col));
+    }
+    
+    /**
+     * 翻开单元格，数字为 0 时连锁翻开周围的单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     * @return 是否点到地雷
+     */
+    public boolean reveal(int row, int col) {
+        if (gameOver) {
+            return false;
+        }
+        Chunk chunk = chunkAt(row, col);
+        CellStorage storage = chunk.getStorage();
+        int index = localIndex(row, col);
+        if (storage.isRevealed(index) || storage.isFlagged(index)) {
+            return false;
+        }
+        storage.setRevealed(index, true);
+        chunk.setDirty(true);
+        if (storage.isMine(index)) {
+            gameOver = true;
+            return true;
+        }
+        revealedCells++;
+        if (storage.getAdjacentMines(index) == 0) {
+            revealedCells += revealFrom(row, col);
+        }
+        return false;
+    }
+    
+    /**
+     * 广度优先连锁翻开，跨越区块边界；翻开数量达到上限时停止扩展
+     * @return 新翻开的单元格数量
+     */
+    private int revealFrom(int row, int col) {
+        long[] queue = revealQueue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = pack(row, col);
+        int count = 0;
+        while (head < tail) {
+            long current = queue[head++];
+            int currentRow = (int) (current >> 32);
+            int currentCol = (int) current;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = currentRow + dr;
+                    int c = currentCol + dc;
+                    Chunk chunk = chunkAt(r, c);
+                    CellStorage storage = chunk.getStorage();
+                    int index = localIndex(r, c);
+                    if (storage.isRevealed(index) || storage.isFlagged(index) || storage.isMine(index)) {
+                        continue;
+                    }
+                    storage.setRevealed(index, true);
+                    chunk.setDirty(true);
+                    count++;
+                    if (storage.getAdjacentMines(index) == 0 && count < MAX_REVEAL_CELLS) {
+                        if (tail == queue.length) {
+                            // 已处理的部分不再需要，先压缩再扩容
+                            System.arraycopy(queue, head, queue, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            if (tail == queue.length) {
+                                queue = Arrays.copyOf(queue, queue.length * 2);
+                                revealQueue = queue;
+                            }
+                        }
+                        queue[tail++] = pack(r, c);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * 标记或取消标记单元格
+     * @param row 行坐标
+     * @param col 列坐标
+     */
+    public void flag(int row, int col) {
+        if (gameOver) {
+            return;
+        }
+        Chunk chunk = chunkAt(row, col);
+        CellStorage storage = chunk.getStorage();
+        int index = localIndex(row, col);
+        if (storage.isRevealed(index)) {
+            return;
+        }
+        boolean flagged = !storage.isFlagged(index);
+        storage.setFlagged(index, flagged);
+        chunk.setDirty(true);
+        flaggedCells += flagged ? 1 : -1;
+    }
+    
+    /**
+     * 关闭世界并删除磁盘上的区块文件
+     */
+    public void close() {
+        spill.close();
+    }
+    
+    // Getters
+    public long getSeed() {
+        return seed;
+    }
+    
+    public double getDensity() {
+        return density;
+    }
+    
+    public long getRevealedCells() {
+        return revealedCells;
+    }
+    
+    public long getFlaggedCells() {
+        return flaggedCells;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    
+    /**
+     * 获取内存中的区块数量
+     * @return 区块数量
+     */
+    public int getLoadedChunks() {
+        return cache.size();
+    }
+    
+    /**
+     * 获取写入过磁盘的区块数量
+     * @return 区块数量
+     */
+    public int getSpilledChunks() {
+        return spill.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package games.snake;
+
+/**
+ * 蛇的模型
+ * 格子编号为 row * cols + col。身体存放在容量为格子总数的环形缓冲区中，头部向前写入、尾部从后面移出，
+ * 另有一个按格子编号的占用位集；移动、增长和撞到自己的判断都只需要常数时间，与蛇的长度无关。
+ * 空格子放在一个紧凑数组中，并记录每个格子在数组中的位置，占用时与最后一个空格子交换后移除，
+ * 所以随机选一个空格子也只需要常数时间，不论网格被占满了多少
+ */
+public final class Snake {
+    // 方向
+    public static final int UP = 0;
+    public static final int RIGHT = 1;
+    public static final int DOWN = 2;
+    public static final int LEFT = 3;
+    
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+    
+    private final int cols;
+    private final int rows;
+    private final int[] body;           // 环形缓冲区，head 处为头部，向前 length - 1 个位置为尾部
+    private final long[] occupied;      // 被身体占用的格子
+    private final int[] free;           // 空格子，前 freeCount 个有效
+    private final int[] freeIndex;      // 格子在 free 中的位置
+    private int freeCount;
+    private int head;
+    private int length;
+    private int growth;                 // 尚未长出的节数，每次移动时尾部不动并减 1
+    
+    /**
+     * 构造函数
+     * @param cols 列数
+     * @param rows 行数
+     */
+    public Snake(int cols, int rows) {
+        if (cols <= 0 || rows <= 0 || (long) cols * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.body = new int[cols * rows];
+        this.occupied = new long[(body.length + 63) >>> 6];
+        this.free = new int[body.length];
+        this.freeIndex = new int[body.length];
+        for (int i = 0; i < body.length; i++) {
+            free[i] = i;
+            freeIndex[i] = i;
+        }
+        this.freeCount = body.length;
+    }
+    
+    /**
+     * 重新放置蛇：头部在指定格子，身体沿移动方向的反方向排开
+     * @param col 头部的列
+     * @param row 头部的行
+     * @param length 长度（身体须都在网格内）
+     * @param direction 移动方向
+     */
+    public void reset(int col, int row, int length, int direction) {
+        for (int i = 0; i < this.length; i++) {
+            release(getSegment(i));
+        }
+        this.length = 0;
+        this.growth = 0;
+        this.head = body.length - 1;
+        for (int i = length - 1; i >= 0; i--) {
+            int c = col - DX[direction] * i;
+            int r = row - DY[direction] * i;
+            if (c < 0 || c >= cols || r < 0 || r >= rows) {
+                throw new IllegalArgumentException("Snake does not fit in the grid");
+            }
+            push(r * cols + c);
+        }
+    }
+    
+    /**
+     * 计算头部前方的格子
+     * @param direction 方向
+     * @return 格子编号，超出网格时为 -1
+     */
+    public int next(int direction) {
+        int cell = body[head];
+        int col = cell % cols + DX[direction];
+        int row = cell / cols + DY[direction];
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+    
+    /**
+     * 向指定方向移动一格
+     * 尾部先移出（还有未长出的节时不动），所以头部可以进入尾部刚离开的格子
+     * @param direction 方向
+     * @return 是否成功；撞墙或撞到自己时返回 false，此时蛇的状态不再有意义
+     */
+    public boolean step(int direction) {
+        int target = next(direction);
+        if (target < 0) {
+            return false;
+        }
+        if (growth > 0) {
+            growth--;
+        } else {
+            release(getTail());
+            length--;
+        }
+        if (isOccupied(target)) {
+            return false;
+        }
+        push(target);
+        return true;
+    }
+    
+    private void push(int cell) {
+        head = head + 1 == body.length ? 0 : head + 1;
+        body[head] = cell;
+        occupied[cell >>> 6] |= 1L << cell;
+        length++;
+        
+        // 与最后一个空格子交换后移除
+        int index = freeIndex[cell];
+        int last = free[--freeCount];
+        free[index] = last;
+        freeIndex[last] = index;
+        free[freeCount] = cell;
+        freeIndex[cell] = freeCount;
+    }
+    
+    private void release(int cell) {
+        occupied[cell >>> 6] &= ~(1L << cell);
+        
+        // 放到空格子的末尾
+        int index = freeIndex[cell];
+        int first = free[freeCount];
+        free[index] = first;
+        freeIndex[first] = index;
+        free[freeCount] = cell;
+        freeIndex[cell] = freeCount++;
+    }
+    
+    /**
+     * 增长：之后的若干次移动尾部不动
+     * @param parts 增长的节数
+     */
+    public void grow(int parts) {
+        growth += parts;
+    }
+    
+    /**
+     * 判断格子是否被身体占用
+     * @param cell 格子编号
+     * @return 是否被占用
+     */
+    public boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & 1L << cell) != 0;
+    }
+    
+    /**
+     * 获取一个空格子
+     * @param i 序号，0 到 {@link #getFreeCount()} - 1
+     * @return 格子编号
+     */
+    public int getFreeCell(int i) {
+        return free[i];
+    }
+    
+    /**
+     * 获取身体的一节
+     * @param i 从头部数起的序号（0 为头部）
+     * @return 格子编号
+     */
+    public int getSegment(int i) {
+        int slot = head - i;
+        return body[slot < 0 ? slot + body.length : slot];
+    }
+    
+    /**
+     * 获取相反的方向
+     * @param direction 方向
+     * @return 相反的方向
+     */
+    public static int opposite(int direction) {
+        return direction ^ 2;
+    }
+    
+    // Getters
+    public int getHead() {
+        return body[head];
+    }
+    
+    public int getTail() {
+        return getSegment(length - 1);
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
+    public int getGrowth() {
+        return growth;
+    }
+    
+    public int getFreeCount() {
+        return freeCount;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+}
\ No newline at end of file
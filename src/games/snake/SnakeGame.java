@@ -1,9 +1,10 @@
 package games.snake;
 
+import games.snake.ai.SnakeAI;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
 import java.util.Random;
 
 /**
@@ -32,16 +33,19 @@ public class SnakeGame {
         private static final int SCREEN_WIDTH = 600;
         private static final int SCREEN_HEIGHT = 600;
         private static final int UNIT_SIZE = 25;
-        private static final int GAME_UNITS = (SCREEN_WIDTH * SCREEN_HEIGHT) / UNIT_SIZE;
+        private static final int COLS = SCREEN_WIDTH / UNIT_SIZE;
+        private static final int ROWS = SCREEN_HEIGHT / UNIT_SIZE;
         private static final int DELAY = 100;
+        private static final int INITIAL_LENGTH = 6;
+        private static final Color BODY_COLOR = new Color(45, 180, 0);
         
-        private final int[] x = new int[GAME_UNITS];
-        private final int[] y = new int[GAME_UNITS];
-        private int bodyParts = 6;
+        private final Snake snake = new Snake(COLS, ROWS);
+        private final SnakeAI ai = new SnakeAI(COLS, ROWS);    // 自动模式的自动驾驶
+        private boolean autoplay;
         private int applesEaten;
         private int appleX;
         private int appleY;
-        private char direction = 'R'; // 初始方向：右
+        private int direction;
         private boolean running = false;
         private Timer timer;
         private Random random;
@@ -56,12 +60,20 @@ public class SnakeGame {
         }
         
         public void startGame() {
+            resetSnake();
             newApple();
             running = true;
             timer = new Timer(DELAY, this);
             timer.start();
         }
         
+        private void resetSnake() {
+            // 头部在 (10, 10)，初始方向：右
+            direction = Snake.RIGHT;
+            snake.reset(10, 10, INITIAL_LENGTH, direction);
+            ai.reset();
+        }
+        
         @Override
         public void paintComponent(Graphics g) {
             super.paintComponent(g);
@@ -81,13 +93,14 @@ public class SnakeGame {
                 g.fillOval(appleX, appleY, UNIT_SIZE, UNIT_SIZE);
                 
                 // 绘制蛇身体
-                for (int i = 0; i < bodyParts; i++) {
+                for (int i = 0; i < snake.getLength(); i++) {
                     if (i == 0) {
                         g.setColor(Color.green); // 蛇头
                     } else {
-                        g.setColor(new Color(45, 180, 0)); // 蛇身
+                        g.setColor(BODY_COLOR); // 蛇身
                     }
-                    g.fillRect(x[i], y[i], UNIT_SIZE, UNIT_SIZE);
+                    int cell = snake.getSegment(i);
+                    g.fillRect(cell % COLS * UNIT_SIZE, cell / COLS * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
                 }
                 
                 // 绘制分数
@@ -101,75 +114,38 @@ public class SnakeGame {
         }
         
         public void newApple() {
-            appleX = random.nextInt((int) (SCREEN_WIDTH / UNIT_SIZE)) * UNIT_SIZE;
-            appleY = random.nextInt((int) (SCREEN_HEIGHT / UNIT_SIZE)) * UNIT_SIZE;
+            // 只在空格子中选择，蛇占满整个场地时游戏结束
+            int count = snake.getFreeCount();
+            if (count == 0) {
+                running = false;
+                timer.stop();
+                return;
+            }
+            int cell = snake.getFreeCell(random.nextInt(count));
+            appleX = cell % COLS * UNIT_SIZE;
+            appleY = cell / COLS * UNIT_SIZE;
+        }
+        
+        private int appleCell() {
+            return (appleY / UNIT_SIZE) * COLS + appleX / UNIT_SIZE;
         }
         
         public void move() {
-            // 移动身体
-            for (int i = bodyParts; i > 0; i--) {
-                x[i] = x[i - 1];
-                y[i] = y[i - 1];
-            }
-            
-            // 移动头部
-            switch (direction) {
-                case 'U':
-                    y[0] = y[0] - UNIT_SIZE;
-                    break;
-                case 'D':
-                    y[0] = y[0] + UNIT_SIZE;
-                    break;
-                case 'L':
-                    x[0] = x[0] - UNIT_SIZE;
-                    break;
-                case 'R':
-                    x[0] = x[0] + UNIT_SIZE;
-                    break;
+            // 尾部移出、头部前进，撞到边界或自己的身体时游戏结束
+            if (!snake.step(direction)) {
+                running = false;
+                timer.stop();
             }
         }
         
         public void checkApple() {
-            if ((x[0] == appleX) && (y[0] == appleY)) {
-                bodyParts++;
+            if (snake.getHead() == appleCell()) {
+                snake.grow(1);
                 applesEaten++;
                 newApple();
             }
         }
         
-        public void checkCollisions() {
-            // 检查是否撞到自己的身体
-            for (int i = bodyParts; i > 0; i--) {
-                if ((x[0] == x[i]) && (y[0] == y[i])) {
-                    running = false;
-                }
-            }
-            
-            // 检查是否撞到左边界
-            if (x[0] < 0) {
-                running = false;
-            }
-            
-            // 检查是否撞到右边界
-            if (x[0] >= SCREEN_WIDTH) {
-                running = false;
-            }
-            
-            // 检查是否撞到上边界
-            if (y[0] < 0) {
-                running = false;
-            }
-            
-            // 检查是否撞到下边界
-            if (y[0] >= SCREEN_HEIGHT) {
-                running = false;
-            }
-            
-            if (!running) {
-                timer.stop();
-            }
-        }
-        
         public void gameOver(Graphics g) {
             // 绘制分数
             g.setColor(Color.white);
@@ -193,9 +169,13 @@ public class SnakeGame {
         @Override
         public void actionPerformed(ActionEvent e) {
             if (running) {
+                if (autoplay) {
+                    direction = ai.choose(snake, appleCell());
+                }
                 move();
-                checkApple();
-                checkCollisions();
+                if (running) {
+                    checkApple();
+                }
             }
             repaint();
         }
@@ -204,13 +184,8 @@ public class SnakeGame {
         public void keyPressed(KeyEvent e) {
             if (!running) {
                 running = true;
-                bodyParts = 6;
                 applesEaten = 0;
-                direction = 'R';
-                for (int i = 0; i < bodyParts; i++) {
-                    x[i] = 250 - (i * UNIT_SIZE);
-                    y[i] = 250;
-                }
+                resetSnake();
                 newApple();
                 timer = new Timer(DELAY, this);
                 timer.start();
@@ -218,24 +193,28 @@ public class SnakeGame {
             }
             
             switch (e.getKeyCode()) {
+                case KeyEvent.VK_A:
+                    // 打开/关闭自动模式
+                    autoplay = !autoplay;
+                    break;
                 case KeyEvent.VK_LEFT:
-                    if (direction != 'R') {
-                        direction = 'L';
+                    if (direction != Snake.RIGHT) {
+                        direction = Snake.LEFT;
                     }
                     break;
                 case KeyEvent.VK_RIGHT:
-                    if (direction != 'L') {
-                        direction = 'R';
+                    if (direction != Snake.LEFT) {
+                        direction = Snake.RIGHT;
                     }
                     break;
                 case KeyEvent.VK_UP:
-                    if (direction != 'D') {
-                        direction = 'U';
+                    if (direction != Snake.DOWN) {
+                        direction = Snake.UP;
                     }
                     break;
                 case KeyEvent.VK_DOWN:
-                    if (direction != 'U') {
-                        direction = 'D';
+                    if (direction != Snake.UP) {
+                        direction = Snake.DOWN;
                     }
                     break;
             }
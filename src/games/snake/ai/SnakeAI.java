@@ -0,0 +1,433 @@
+package games.snake.ai;
+
+import games.snake.Snake;
+
+import java.util.Arrays;
+
+/**
+ * 贪吃蛇自动驾驶
+ * 蛇较短时用广度优先搜索找去食物的最短路径，并检查沿这条路径吃到食物之后蛇头还能走到蛇尾，安全的路径缓存下来一直走到食物；
+ * 没有安全的路径时沿预先计算的哈密顿回路走，回路上的下一格也不安全时选择离蛇尾最远的安全方向。
+ * 蛇长到场地的八分之一以后尽量沿回路走，身体按回路顺序排列之后就一直保持这个顺序：
+ * 只在回路上向前抄近路去吃食物（蛇长到场地的一半以后不再抄近路），这样不会把自己困住，最终能占满整个场地。
+ * 搜索考虑身体的移动：第 i 节身体在若干步之后离开，之后蛇头就可以进入那个格子。
+ * 所有数组都在构造时分配，用标记值代替清空，每一步都不会分配新的对象
+ */
+public class SnakeAI {
+    private final int cols;
+    private final int rows;
+    private final int cells;
+    private final int[] neighbors;      // 格子 * 4 + 方向 -> 相邻的格子，超出网格为 -1
+    private final int[] cycle;          // 哈密顿回路上的第 i 个格子，不存在回路时为 null
+    private final int[] order;          // 格子在回路上的序号
+    private final int cycleThreshold;   // 蛇长到这个长度后尽量沿回路走
+    
+    // 搜索用的数组
+    private final int[] queue;
+    private final int[] parent;
+    private final int[] distance;
+    private final int[] seen;           // 等于 mark 时表示本次搜索已访问
+    private final int[] blocked;        // 等于 mark 时表示本次搜索中被身体占用
+    private final int[] vacate;         // 被占用的格子在第几步之后空出
+    private int mark;
+    
+    // 当前和假想的身体，第 0 个为头部
+    private final int[] body;
+    private final int[] virtual;
+    
+    // 缓存的路径
+    private final int[] path;
+    private int pathLength;
+    private int pathPos;
+    private int pathStart;
+    private int pathApple = -1;
+    
+    private int expectedHead = -1;      // 按上一次的选择移动后蛇头应在的格子
+    private boolean onCycle;            // 身体已按回路顺序排列，一直沿回路走
+    private int idle;                   // 连续没有直接去吃食物的步数
+    
+    /**
+     * 构造函数
+     * @param cols 列数
+     * @param rows 行数
+     */
+    public SnakeAI(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = cols * rows;
+        this.neighbors = new int[cells * 4];
+        for (int cell = 0; cell < cells; cell++) {
+            int col = cell % cols;
+            int row = cell / cols;
+            neighbors[cell * 4 + Snake.UP] = row > 0 ? cell - cols : -1;
+            neighbors[cell * 4 + Snake.RIGHT] = col < cols - 1 ? cell + 1 : -1;
+            neighbors[cell * 4 + Snake.DOWN] = row < rows - 1 ? cell + cols : -1;
+            neighbors[cell * 4 + Snake.LEFT] = col > 0 ? cell - 1 : -1;
+        }
+        this.cycle = buildCycle();
+        this.cycleThreshold = cells / 8;
+        this.order = new int[cells];
+        if (cycle != null) {
+            for (int i = 0; i < cells; i++) {
+                order[cycle[i]] = i;
+            }
+        }
+        
+        this.queue = new int[cells];
+        this.parent = new int[cells];
+        this.distance = new int[cells];
+        this.seen = new int[cells];
+        this.blocked = new int[cells];
+        this.vacate = new int[cells];
+        this.body = new int[cells];
+        this.virtual = new int[cells];
+        this.path = new int[cells];
+    }
+    
+    /**
+     * 构造哈密顿回路：第 0 列（或第 0 行）留作回程，其余部分蛇形往返
+     * 行数为偶数时按行往返，否则列数须为偶数并按列往返；行数和列数都是奇数时不存在回路
+     */
+    private int[] buildCycle() {
+        boolean byRows = rows % 2 == 0;
+        int major = byRows ? rows : cols;
+        int minor = byRows ? cols : rows;
+        if (major % 2 != 0 || minor < 2) {
+            return null;
+        }
+        int[] result = new int[cells];
+        int n = 0;
+        for (int j = 0; j < minor; j++) {
+            result[n++] = cellAt(byRows, 0, j);
+        }
+        for (int i = 1; i < major; i++) {
+            if (i % 2 == 1) {
+                for (int j = minor - 1; j >= 1; j--) {
+                    result[n++] = cellAt(byRows, i, j);
+                }
+            } else {
+                for (int j = 1; j < minor; j++) {
+                    result[n++] = cellAt(byRows, i, j);
+                }
+            }
+        }
+        for (int i = major - 1; i >= 1; i--) {
+            result[n++] = cellAt(byRows, i, 0);
+        }
+        return result;
+    }
+    
+    private int cellAt(boolean byRows, int i, int j) {
+        return byRows ? i * cols + j : j * cols + i;
+    }
+    
+    /**
+     * 清除上一局留下的状态，每局开始时调用
+     */
+    public void reset() {
+        expectedHead = -1;
+        onCycle = false;
+        idle = 0;
+        pathLength = 0;
+    }
+    
+    /**
+     * 选择下一步的方向
+     * @param snake 蛇（网格大小须一致）
+     * @param apple 食物所在的格子，没有食物时为 -1
+     * @return 方向；无路可走时返回任意方向
+     */
+    public int choose(Snake snake, int apple) {
+        int head = snake.getHead();
+        if (head != expectedHead) {
+            // 蛇没有按上一次的选择移动
+            reset();
+        }
+        int direction = decide(snake, head, apple);
+        expectedHead = neighbors[head * 4 + direction];
+        return direction;
+    }
+    
+    private int decide(Snake snake, int head, int apple) {
+        // 继续沿缓存的路径走：路径上的格子在找到路径时已经确认会按时空出，之后只有蛇头会占用它们
+        if (pathPos < pathLength && apple == pathApple && head == (pathPos == 0 ? pathStart : path[pathPos - 1])) {
+            return directionOf(head, path[pathPos++]);
+        }
+        pathLength = 0;
+        
+        int length = snake.getLength();
+        int growth = snake.getGrowth();
+        boolean isLong = length + growth >= cycleThreshold;
+        boolean stuck = idle > cells;
+        
+        // 蛇较长，或者很久没有安全的路径时，尽量沿回路走，使身体按回路排列
+        if (!onCycle && (isLong || stuck) && cycle != null && isOrdered(snake)) {
+            onCycle = true;
+        }
+        if (onCycle) {
+            // 蛇较长时不再抄近路，以免身体中间留下的空格子来不及填上
+            if (apple >= 0 && length + growth < cells / 2 && searchAhead(head, snake.getTail(), growth, snake.getFreeCount(), apple) > 0) {
+                recordPath(apple);
+                return followPath(head, apple);
+            }
+            int direction = cycleStep(snake, head);
+            if (direction >= 0) {
+                return direction;
+            }
+            onCycle = false;
+        }
+        
+        for (int i = 0; i < length; i++) {
+            body[i] = snake.getSegment(i);
+        }
+        
+        // 蛇较长时直接去吃食物会打乱身体的排列，只在很久排列不好时才去
+        if ((!isLong || stuck) && apple >= 0 && search(body, length, growth, apple) > 0 && isSafePath(length, growth, apple)) {
+            idle = 0;
+            return followPath(head, apple);
+        }
+        idle++;
+        return fallback(snake, head, length, growth, apple, isLong || stuck);
+    }
+    
+    /**
+     * 从 parent 中取出刚找到的路径
+     */
+    private void recordPath(int target) {
+        pathLength = distance[target];
+        int cell = target;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+    }
+    
+    private int followPath(int head, int apple) {
+        pathApple = apple;
+        pathStart = head;
+        pathPos = 0;
+        return directionOf(head, path[pathPos++]);
+    }
+    
+    /**
+     * 沿回路走一步，回路上的下一格是蛇尾而且蛇还在增长时不能走
+     * @return 方向，不能走时为 -1
+     */
+    private int cycleStep(Snake snake, int head) {
+        int next = cycle[order[head] + 1 == cells ? 0 : order[head] + 1];
+        if (next == snake.getTail() && snake.getGrowth() > 0) {
+            return -1;
+        }
+        return directionOf(head, next);
+    }
+    
+    /**
+     * 判断身体从尾部到头部是否按回路顺序排列（中间可以有空格子）
+     */
+    private boolean isOrdered(Snake snake) {
+        int span = 0;
+        for (int i = 0; i < snake.getLength() - 1; i++) {
+            span += cycleDistance(snake.getSegment(i + 1), snake.getSegment(i));
+            if (span >= cells) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 记录刚找到的路径，并检查沿路径吃到食物之后蛇头能否走到蛇尾
+     */
+    private boolean isSafePath(int length, int growth, int apple) {
+        recordPath(apple);
+        
+        // 到达食物时的身体：路径倒过来，后面接上现在的身体
+        int grown = Math.min(growth, pathLength);
+        int virtualLength = Math.min(length + grown, cells);
+        int n = 0;
+        for (int i = pathLength - 1; i >= 0 && n < virtualLength; i--) {
+            virtual[n++] = path[i];
+        }
+        for (int i = 0; n < virtualLength; i++) {
+            virtual[n++] = body[i];
+        }
+        if (virtualLength == cells) {
+            return true;    // 吃完这个食物场地就满了
+        }
+        if (search(virtual, virtualLength, growth - grown + 1, virtual[virtualLength - 1]) < 0) {
+            pathLength = 0;
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * 没有安全的路径时的走法
+     */
+    private int fallback(Snake snake, int head, int length, int growth, int apple, boolean align) {
+        int tail = body[length - 1];
+        int virtualLength = growth > 0 ? length + 1 : length;
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        int escape = -1;            // 没有安全方向时走的方向
+        for (int d = 0; d < 4; d++) {
+            int next = neighbors[head * 4 + d];
+            if (next < 0 || !canEnter(snake, next, length, growth, tail)) {
+                continue;
+            }
+            if (escape < 0 || cycle != null && next == cycle[(order[head] + 1) % cells]) {
+                escape = d;
+            }
+            
+            // 走一步之后蛇头能否走到蛇尾
+            virtual[0] = next;
+            System.arraycopy(body, 0, virtual, 1, virtualLength - 1);
+            int rest = Math.max(growth - 1, 0) + (next == apple ? 1 : 0);
+            int tailDistance = virtualLength == 1 ? 0 : search(virtual, virtualLength, rest, virtual[virtualLength - 1]);
+            if (tailDistance < 0) {
+                continue;
+            }
+            
+            // 一般沿回路或抄近路的方向优先，其次是离蛇尾较远的方向；需要排列身体时优先在回路上前进最少的方向
+            int score = tailDistance;
+            if (cycle != null) {
+                int jump = cycleDistance(head, next);
+                int appleJump = apple >= 0 ? cycleDistance(head, apple) : cells;
+                if (align) {
+                    score = cells * 2 - jump;
+                } else if (jump == 1 || jump <= appleJump && jump + growth + 3 < cycleDistance(head, tail)) {
+                    score = cells + jump;
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = d;
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+        return escape >= 0 ? escape : Snake.UP;
+    }
+    
+    private static boolean canEnter(Snake snake, int cell, int length, int growth, int tail) {
+        // 尾部在这一步离开时可以进入
+        return cell == tail ? growth == 0 && length > 1 : !snake.isOccupied(cell);
+    }
+    
+    /**
+     * 广度优先搜索，考虑身体的移动
+     * @param snakeBody 身体，第 0 个为头部
+     * @param length 身体长度
+     * @param growth 尚未长出的节数
+     * @param target 目标格子
+     * @return 到目标的步数，到不了时为 -1；路径记录在 parent 和 distance 中
+     */
+    private int search(int[] snakeBody, int length, int growth, int target) {
+        if (mark == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(blocked, 0);
+            mark = 0;
+        }
+        mark++;
+        
+        // 第 i 节在 length - i + growth 步之后离开
+        for (int i = 0; i < length; i++) {
+            int cell = snakeBody[i];
+            blocked[cell] = mark;
+            vacate[cell] = length - i + growth;
+        }
+        
+        int start = snakeBody[0];
+        seen[start] = mark;
+        distance[start] = 0;
+        if (start == target) {
+            return 0;
+        }
+        int first = 0;
+        int last = 0;
+        queue[last++] = start;
+        while (first < last) {
+            int cell = queue[first++];
+            int steps = distance[cell] + 1;
+            for (int d = cell * 4, end = d + 4; d < end; d++) {
+                int next = neighbors[d];
+                if (next < 0 || seen[next] == mark || blocked[next] == mark && vacate[next] > steps) {
+                    continue;
+                }
+                seen[next] = mark;
+                parent[next] = cell;
+                distance[next] = steps;
+                if (next == target) {
+                    return steps;
+                }
+                queue[last++] = next;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 身体按回路排列时的广度优先搜索：每一步都必须在回路上前进（可以跳过若干格抄近路），
+     * 并且落在蛇尾之前、为增长留出余地的范围内，所以走完之后身体仍按回路排列
+     * @return 到目标的步数，到不了时为 -1；路径记录在 parent 和 distance 中
+     */
+    private int searchAhead(int head, int tail, int growth, int free, int target) {
+        // 跳过的格子留在身体中间，要等蛇尾经过之后才能再走到；这些格子和尚未长出的节越多，前面需要留的空格子越多
+        int room = cycleDistance(head, tail) - 1;
+        int slack = room - (free - room) - growth;
+        int limit = Math.min(room - growth - 2, slack / 2);
+        if (cycleDistance(head, target) > Math.max(limit, 1)) {
+            return -1;
+        }
+        if (mark == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(blocked, 0);
+            mark = 0;
+        }
+        mark++;
+        
+        seen[head] = mark;
+        distance[head] = 0;
+        int first = 0;
+        int last = 0;
+        queue[last++] = head;
+        while (first < last) {
+            int cell = queue[first++];
+            int position = cycleDistance(head, cell);
+            int steps = distance[cell] + 1;
+            for (int d = cell * 4, end = d + 4; d < end; d++) {
+                int next = neighbors[d];
+                if (next < 0 || seen[next] == mark) {
+                    continue;
+                }
+                int ahead = cycleDistance(head, next);
+                if (ahead <= position || ahead > limit && ahead != 1) {
+                    continue;
+                }
+                seen[next] = mark;
+                parent[next] = cell;
+                distance[next] = steps;
+                if (next == target) {
+                    return steps;
+                }
+                queue[last++] = next;
+            }
+        }
+        return -1;
+    }
+    
+    private int cycleDistance(int from, int to) {
+        int d = order[to] - order[from];
+        return d < 0 ? d + cells : d;
+    }
+    
+    private int directionOf(int from, int to) {
+        for (int d = 0; d < 4; d++) {
+            if (neighbors[from * 4 + d] == to) {
+                return d;
+            }
+        }
+        return Snake.UP;
+    }
+}
\ No newline at end of file
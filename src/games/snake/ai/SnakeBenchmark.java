@@ -0,0 +1,105 @@
+package games.snake.ai;
+
+import games.snake.Snake;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * 贪吃蛇自动驾驶性能测试程序
+ * 用固定种子的无界面对局让自动驾驶一直玩到撞死或占满整个场地，统计每秒的移动步数、占满场地的局数和平均长度。
+ * 所有对局复用同一条蛇、同一个自动驾驶和同一个随机数生成器；JVM 支持时同时统计测试期间分配的内存，
+ * 自动驾驶每一步都不分配对象，所以应当接近 0（JIT 编译偶尔会分配几百字节），与步数无关
+ *
+ * 用法：java games.snake.ai.SnakeBenchmark [局数] [列数] [行数] [起始种子]
+ */
+public class SnakeBenchmark {
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+        
+        System.out.printf("局数: %d, 场地: %dx%d%n", games, cols, rows);
+        Snake snake = new Snake(cols, rows);
+        SnakeAI ai = new SnakeAI(cols, rows);
+        Random random = new Random();
+        long[] result = new long[3];
+        
+        // 预热
+        for (int i = 0; i < Math.min(games, 10); i++) {
+            play(snake, ai, random, -1 - i, result);
+        }
+        
+        // 读取分配量本身也会分配少量内存，先测出来扣除
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        long moves = 0;
+        long length = 0;
+        int full = 0;
+        for (int i = 0; i < games; i++) {
+            play(snake, ai, random, seed + i, result);
+            moves += result[0];
+            length += result[1];
+            full += (int) result[2];
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        allocated = allocated < 0 ? -1 : allocatedBytes() - allocated - overhead;
+        
+        System.out.printf("占满场地: %d/%d, 平均长度: %.1f/%d%n", full, games, (double) length / games, cols * rows);
+        System.out.printf("速度: %.0f 步/秒 (%d 步, %.2f 秒)%n", moves / seconds, moves, seconds);
+        if (allocated >= 0) {
+            System.out.printf("测试期间分配的内存: %d 字节%n", allocated);
+        }
+    }
+    
+    /**
+     * 进行一局
+     * @param result 写入步数、最终长度和是否占满场地（1 或 0）
+     */
+    private static void play(Snake snake, SnakeAI ai, Random random, long seed, long[] result) {
+        int cols = snake.getCols();
+        int cells = cols * snake.getRows();
+        random.setSeed(seed);
+        snake.reset(cols / 2, snake.getRows() / 2, Math.min(3, cols / 2 + 1), Snake.RIGHT);
+        int apple = snake.getFreeCell(random.nextInt(snake.getFreeCount()));
+        ai.reset();
+        
+        // 沿哈密顿回路每个食物最多走 cells 步，超过上限说明在兜圈子
+        long limit = (long) cells * cells;
+        long moves = 0;
+        boolean full = false;
+        while (moves < limit) {
+            moves++;
+            if (!snake.step(ai.choose(snake, apple))) {
+                break;
+            }
+            if (snake.getHead() == apple) {
+                snake.grow(1);
+                if (snake.getFreeCount() == 0) {
+                    full = true;
+                    break;
+                }
+                apple = snake.getFreeCell(random.nextInt(snake.getFreeCount()));
+            }
+        }
+        result[0] = moves;
+        result[1] = snake.getLength();
+        result[2] = full ? 1 : 0;
+    }
+    
+    /**
+     * 当前线程已分配的内存
+     * @return 字节数，JVM 不支持时为 -1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+package games.tetris;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * 按帧推进的下落方块控制器
+ * 游戏以每秒 60 帧的固定步长推进，每帧的结果只取决于场地和这一帧的输入，与界面定时器的抖动无关。
+ * 重力以每帧下落的子单位计（每格 256 个子单位），累积满一格就下移一格，最快为每帧 20 格（20G），此时方块出现后立即落到底。
+ * 方块着地后经过锁定延迟才固定，着地期间成功移动或旋转会重新计时（次数有限）；左右键按下立即移动一格，
+ * 按住 DAS 帧后每 ARR 帧自动移动一格
+ */
+public final class PieceController {
+    /**
+     * 每秒帧数
+     */
+    public static final int FRAMES_PER_SECOND = 60;
+    
+    /**
+     * 每帧的纳秒数
+     */
+    public static final long FRAME_NANOS = 1000000000L / FRAMES_PER_SECOND;
+    
+    /**
+     * 每格的子单位数
+     */
+    public static final int SUBCELLS = 256;
+    
+    /**
+     * 最大重力：每帧 20 格
+     */
+    public static final int MAX_GRAVITY = 20 * SUBCELLS;
+    
+    public static final int LOCK_DELAY = 30;            // 锁定延迟（帧）
+    public static final int MAX_LOCK_RESETS = 15;       // 每个方块着地后最多重新计时的次数
+    public static final int DAS = 10;                   // 自动移动前的延迟（帧）
+    public static final int ARR = 2;                    // 自动移动的间隔（帧）
+    public static final int SOFT_DROP_FACTOR = 20;      // 软降时重力的倍数
+    
+    // 输入位
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int SOFT_DROP = 4;
+    public static final int ROTATE_CW = 8;
+    public static final int ROTATE_CCW = 16;
+    public static final int HARD_DROP = 32;
+    
+    // 各等级的重力（子单位/帧）：1-15 级与原来每 150 - (等级 - 1) * 10 毫秒下落一格相同，之后逐级加快到 20G
+    private static final int[] LEVEL_GRAVITY = levelGravity();
+    
+    private final Playfield field;
+    private Tetromino piece;
+    private int rotation;
+    private int x;
+    private int y;
+    private int gravity = LEVEL_GRAVITY[0];
+    private int fall;                   // 累积的下落子单位
+    private int lowestY;                // 本方块到达过的最低行，到达新的最低行时重置锁定次数
+    private int lockTimer;
+    private int lockResets;
+    private int shiftDirection;         // 当前自动移动的方向（最后按下的方向键）
+    private int shiftTimer;
+    private int previousHeld;
+    
+    /**
+     * 构造函数
+     * @param field 场地
+     */
+    public PieceController(Playfield field) {
+        this.field = field;
+    }
+    
+    private static int[] levelGravity() {
+        int[] gravity = new int[20];
+        for (int level = 1; level <= 15; level++) {
+            int delay = 150 - (level - 1) * 10;
+            gravity[level - 1] = (int) Math.round((double) SUBCELLS * 1000 / FRAMES_PER_SECOND / delay);
+        }
+        int[] fast = {3, 5, 10, 15, 20};
+        for (int i = 0; i < fast.length; i++) {
+            gravity[15 + i] = fast[i] * SUBCELLS;
+        }
+        return gravity;
+    }
+    
+    /**
+     * 把按键转换为输入位
+     * @param keyCode 键码
+     * @return 输入位，与方块无关的键返回 0
+     */
+    public static int inputOf(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                return LEFT;
+            case KeyEvent.VK_RIGHT:
+                return RIGHT;
+            case KeyEvent.VK_DOWN:
+                return SOFT_DROP;
+            case KeyEvent.VK_UP:
+            case KeyEvent.VK_X:
+                return ROTATE_CW;
+            case KeyEvent.VK_Z:
+                return ROTATE_CCW;
+            case KeyEvent.VK_SPACE:
+                return HARD_DROP;
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * 获取等级对应的重力
+     * @param level 等级（从 1 开始，20 级及以上都是 20G）
+     * @return 每帧下落的子单位数
+     */
+    public static int gravityForLevel(int level) {
+        return LEVEL_GRAVITY[Math.max(1, Math.min(level, LEVEL_GRAVITY.length)) - 1];
+    }
+    
+    /**
+     * 在顶部中间放出新方块
+     * @param piece 方块
+     * @return 是否放得下（放不下时游戏结束）
+     */
+    public boolean spawn(Tetromino piece) {
+        this.piece = piece;
+        rotation = 0;
+        x = field.getWidth() / 2 - piece.getSize() / 2;
+        y = 0;
+        fall = 0;
+        lowestY = 0;
+        lockTimer = 0;
+        lockResets = 0;
+        return field.fits(piece, rotation, x, y);
+    }
+    
+    /**
+     * 把方块直接移动到指定位置（自动模式使用）
+     * @param rotation 旋转方向
+     * @param x 方块框左边的列
+     * @param y 方块框上边的行（该位置须能放下方块）
+     */
+    public void moveTo(int rotation, int x, int y) {
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+    }
+    
+    /**
+     * 推进一帧
+     * 顺序为：旋转、左右移动、硬降、重力下落、锁定计时
+     * @param held 本帧按住的键（输入位的组合）
+     * @param pressed 上一帧以来按下过的键，用于识别两帧之间按下又松开的短按
+     * @return 方块是否应在本帧固定（由调用者固定方块、消行并放出新方块）
+     */
+    public boolean step(int held, int pressed) {
+        held |= pressed;
+        int edges = pressed & ~previousHeld;
+        previousHeld = held;
+        
+        if ((edges & ROTATE_CW) != 0) {
+            rotate(1);
+        }
+        if ((edges & ROTATE_CCW) != 0) {
+            rotate(-1);
+        }
+        shift(held, edges);
+        
+        if ((edges & HARD_DROP) != 0) {
+            y = field.dropRow(piece, rotation, x, y);
+            return true;
+        }
+        
+        boolean softDrop = (held & SOFT_DROP) != 0;
+        fall += softDrop ? Math.min(MAX_GRAVITY, Math.max(gravity * SOFT_DROP_FACTOR, SUBCELLS / 2)) : gravity;
+        while (fall >= SUBCELLS) {
+            if (!field.fits(piece, rotation, x, y + 1)) {
+                fall = 0;
+                break;
+            }
+            y++;
+            fall -= SUBCELLS;
+        }
+        if (y > lowestY) {
+            lowestY = y;
+            lockTimer = 0;
+            lockResets = 0;
+        }
+        
+        if (field.fits(piece, rotation, x, y + 1)) {
+            return false;
+        }
+        // 着地：软降时立即固定，否则等待锁定延迟
+        return softDrop || ++lockTimer >= LOCK_DELAY;
+    }
+    
+    private void rotate(int direction) {
+        int kick = field.findKick(piece, rotation, x, y, direction);
+        if (kick >= 0) {
+            x += piece.getKickX(rotation, direction, kick);
+            y += piece.getKickY(rotation, direction, kick);
+            rotation = Tetromino.rotate(rotation, direction);
+            moved();
+        }
+    }
+    
+    /**
+     * 左右移动：刚按下时立即移动一格，按住 DAS 帧后每 ARR 帧移动一格；两个方向同时按住时以最后按下的为准
+     */
+    private void shift(int held, int edges) {
+        if ((edges & LEFT) != 0) {
+            shiftDirection = -1;
+            shiftTimer = 0;
+            move(-1);
+            return;
+        }
+        if ((edges & RIGHT) != 0) {
+            shiftDirection = 1;
+            shiftTimer = 0;
+            move(1);
+            return;
+        }
+        if (shiftDirection != 0 && (held & (shiftDirection < 0 ? LEFT : RIGHT)) == 0) {
+            // 松开了当前方向，另一个方向仍按住时改为它
+            shiftDirection = (held & LEFT) != 0 ? -1 : (held & RIGHT) != 0 ? 1 : 0;
+            shiftTimer = 0;
+        }
+        if (shiftDirection != 0 && ++shiftTimer >= DAS && (shiftTimer - DAS) % ARR == 0) {
+            move(shiftDirection);
+        }
+    }
+    
+    private void move(int dx) {
+        if (field.fits(piece, rotation, x + dx, y)) {
+            x += dx;
+            moved();
+        }
+    }
+    
+    /**
+     * 着地时成功移动或旋转，锁定延迟重新计时
+     */
+    private void moved() {
+        if (lockTimer > 0 && lockResets < MAX_LOCK_RESETS) {
+            lockTimer = 0;
+            lockResets++;
+        }
+    }
+    
+    /**
+     * 设置重力
+     * @param gravity 每帧下落的子单位数（超过 20G 时按 20G）
+     */
+    public void setGravity(int gravity) {
+        this.gravity = Math.min(gravity, MAX_GRAVITY);
+    }
+    
+    // Getters
+    public Tetromino getPiece() {
+        return piece;
+    }
+    
+    public int getRotation() {
+        return rotation;
+    }
+    
+    public int getX() {
+        return x;
+    }
+    
+    public int getY() {
+        return y;
+    }
+    
+    public int getGravity() {
+        return gravity;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package games.tetris;
+
+import java.util.Arrays;
+
+/**
+ * 位棋盘形式的俄罗斯方块场地
+ * 每行是一个 long，第 col 位表示第 col 列被占用，宽度最多 64 列；第 0 行在最上面。
+ * 碰撞检测是方块每行掩码与场地行的按位与，满行检测是与满行掩码比较，消行用 System.arraycopy 整体下移
+ */
+public final class Playfield {
+    /**
+     * 支持的最大宽度
+     */
+    public static final int MAX_WIDTH = 64;
+    
+    private final int width;
+    private final int height;
+    private final long fullRow;         // 满行掩码
+    private final long[] rows;
+    
+    /**
+     * 构造函数
+     * @param width 列数（1-64）
+     * @param height 行数
+     */
+    public Playfield(int width, int height) {
+        if (width <= 0 || width > MAX_WIDTH || height <= 0) {
+            throw new IllegalArgumentException("Invalid playfield size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.fullRow = width == MAX_WIDTH ? -1L : (1L << width) - 1;
+        this.rows = new long[height];
+    }
+    
+    /**
+     * 清空场地
+     */
+    public void clear() {
+        Arrays.fill(rows, 0);
+    }
+    
+    /**
+     * 复制另一个同样大小的场地
+     * @param other 源场地
+     */
+    public void copyFrom(Playfield other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("场地大小不一致");
+        }
+        System.arraycopy(other.rows, 0, rows, 0, height);
+    }
+    
+    /**
+     * 判断方块能否放在指定位置：不出界且不与已固定的方块重叠
+     * @param piece 方块
+     * @param rotation 旋转方向
+     * @param x 方块框左边的列（可以为负，只要被占用的单元格在场地内）
+     * @param y 方块框上边的行
+     * @return 是否可以放置
+     */
+    public boolean fits(Tetromino piece, int rotation, int x, int y) {
+        if (x + piece.getMinCol(rotation) < 0 || x + piece.getMaxCol(rotation) >= width
+                || y + piece.getMinRow(rotation) < 0 || y + piece.getMaxRow(rotation) >= height) {
+            return false;
+        }
+        for (int row = piece.getMinRow(rotation), last = piece.getMaxRow(rotation); row <= last; row++) {
+            if ((rows[y + row] & shift(piece.getMask(rotation, row), x)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 按 SRS 旋转方块：依次尝试各个踢墙偏移，找到第一个能放下旋转后方块的位置
+     * @param piece 方块
+     * @param rotation 当前方向
+     * @param x 方块框左边的列
+     * @param y 方块框上边的行
+     * @param direction 1 表示顺时针，-1 表示逆时针
+     * @return 成功的尝试序号，无法旋转时返回 -1
+     */
+    public int findKick(Tetromino piece, int rotation, int x, int y, int direction) {
+        int target = Tetromino.rotate(rotation, direction);
+        for (int test = 0, tests = piece.getKickCount(rotation, direction); test < tests; test++) {
+            if (fits(piece, target, x + piece.getKickX(rotation, direction, test), y + piece.getKickY(rotation, direction, test))) {
+                return test;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 计算方块从指定位置直接落下后所在的行
+     * @param piece 方块
+     * @param rotation 旋转方向
+     * @param x 方块框左边的列
+     * @param y 方块框上边的行（该位置须能放下方块）
+     * @return 落地后方块框上边的行
+     */
+    public int dropRow(Tetromino piece, int rotation, int x, int y) {
+        while (fits(piece, rotation, x, y + 1)) {
+            y++;
+        }
+        return y;
+    }
+    
+    /**
+     * 固定方块并消除填满的行
+     * @param piece 方块
+     * @param rotation 旋转方向
+     * @param x 方块框左边的列
+     * @param y 方块框上边的行（该位置须能放下方块）
+     * @return 消除的行数
+     */
+    public int lock(Tetromino piece, int rotation, int x, int y) {
+        int first = y + piece.getMinRow(rotation);
+        int last = y + piece.getMaxRow(rotation);
+        for (int row = first; row <= last; row++) {
+            rows[row] |= shift(piece.getMask(rotation, row - y), x);
+        }
+        return clearLines(first, last);
+    }
+    
+    /**
+     * 消除指定范围内填满的行，上面的行整体下移
+     * 从上往下处理，下移只影响已处理过的行之上的部分，范围内尚未检查的行位置不变
+     * @param first 起始行（包含）
+     * @param last 结束行（包含）
+     * @return 消除的行数
+     */
+    public int clearLines(int first, int last) {
+        int cleared = 0;
+        for (int row = first; row <= last; row++) {
+            if (rows[row] == fullRow) {
+                System.arraycopy(rows, 0, rows, 1, row);
+                rows[0] = 0;
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+    
+    /**
+     * 从底部加入垃圾行，已有的行整体上移
+     * @param lines 加入的行数
+     * @param row 垃圾行的掩码
+     * @return 是否有已占用的单元格被挤出顶部
+     */
+    public boolean raise(int lines, long row) {
+        lines = Math.min(lines, height);
+        boolean overflow = false;
+        for (int i = 0; i < lines; i++) {
+            overflow |= rows[i] != 0;
+        }
+        System.arraycopy(rows, lines, rows, 0, height - lines);
+        Arrays.fill(rows, height - lines, height, row & fullRow);
+        return overflow;
+    }
+    
+    private static long shift(long mask, int x) {
+        return x >= 0 ? mask << x : mask >>> -x;
+    }
+    
+    /**
+     * 判断单元格是否被占用
+     * @param row 行
+     * @param col 列
+     * @return 是否被占用
+     */
+    public boolean isOccupied(int row, int col) {
+        return (rows[row] >>> col & 1) != 0;
+    }
+    
+    /**
+     * 获取一行的掩码
+     * @param row 行
+     * @return 行掩码
+     */
+    public long getRow(int row) {
+        return rows[row];
+    }
+    
+    /**
+     * 设置一行的掩码
+     * @param row 行
+     * @param mask 行掩码（超出宽度的位被忽略）
+     */
+    public void setRow(int row, long mask) {
+        rows[row] = mask & fullRow;
+    }
+    
+    // Getters
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public long getFullRow() {
+        return fullRow;
+    }
+}
\ No newline at end of file
@@ -1,8 +1,12 @@
 package games.tetris;
 
+import games.tetris.ai.Evaluator;
+import games.tetris.ai.TetrisAI;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.Random;
 
 /**
@@ -31,72 +35,40 @@ public class TetrisGame {
         private static final int SCREEN_WIDTH = 400;
         private static final int SCREEN_HEIGHT = 600;
         private static final int UNIT_SIZE = 25;
-        private static final int DELAY = 150;
+        private static final int TIMER_DELAY = 4;           // 定时器只用来检查时间，游戏按固定的帧推进
+        private static final int MAX_CATCH_UP_FRAMES = 6;   // 一次最多补上的帧数，落后更多时丢弃多余的时间
+        private static final int AUTOPLAY_FRAMES = 9;       // 自动模式每个方块停留的帧数
+        private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+        private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 30);
         
-        private final int[][] grid;
+        private final Playfield playfield;
+        private final PieceController controller;
         private final int ROWS;
         private final int COLS;
         
-        private int x;
-        private int y;
-        private int currentPiece;
-        private int currentRotation;
+        // 静态层：网格和已固定的方块画在离屏图像中，只重画与上次不同的行
+        private BufferedImage staticLayer;
+        private final long[] layerRows;
+        
+        private Tetromino nextPiece;
         private int score;
         private int level;
         private boolean gameOver;
         private Timer timer;
         private Random random;
-        
-        // 俄罗斯方块的形状定义
-        private final int[][][] TETROMINOS = {
-            // I型方块
-            {
-                {0, 0, 0, 0},
-                {1, 1, 1, 1},
-                {0, 0, 0, 0},
-                {0, 0, 0, 0}
-            },
-            // J型方块
-            {
-                {1, 0, 0},
-                {1, 1, 1},
-                {0, 0, 0}
-            },
-            // L型方块
-            {
-                {0, 0, 1},
-                {1, 1, 1},
-                {0, 0, 0}
-            },
-            // O型方块
-            {
-                {1, 1},
-                {1, 1}
-            },
-            // S型方块
-            {
-                {0, 1, 1},
-                {1, 1, 0},
-                {0, 0, 0}
-            },
-            // T型方块
-            {
-                {0, 1, 0},
-                {1, 1, 1},
-                {0, 0, 0}
-            },
-            // Z型方块
-            {
-                {1, 1, 0},
-                {0, 1, 1},
-                {0, 0, 0}
-            }
-        };
+        private TetrisAI ai;            // 自动模式的落点 AI，第一次打开自动模式时创建
+        private boolean autoplay;
+        private int autoplayTimer;
+        private long frameTime;         // 下一帧的时间（System.nanoTime）
+        private int heldKeys;           // 当前按住的键（PieceController 的输入位）
+        private int pressedKeys;        // 上一帧以来按下过的键
         
         public GamePanel() {
             COLS = SCREEN_WIDTH / UNIT_SIZE;
             ROWS = SCREEN_HEIGHT / UNIT_SIZE;
-            grid = new int[ROWS][COLS];
+            playfield = new Playfield(COLS, ROWS);
+            controller = new PieceController(playfield);
+            layerRows = new long[ROWS];
             
             random = new Random();
             this.setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
@@ -105,117 +77,86 @@ public class TetrisGame {
             this.addKeyListener(this);
             
             initializeGrid();
+            nextPiece = randomPiece();
             spawnNewPiece();
             startGame();
         }
         
         private void initializeGrid() {
-            for (int row = 0; row < ROWS; row++) {
-                for (int col = 0; col < COLS; col++) {
-                    grid[row][col] = 0;
-                }
-            }
+            playfield.clear();
         }
         
         private void startGame() {
             score = 0;
             level = 1;
             gameOver = false;
-            timer = new Timer(DELAY, this);
+            controller.setGravity(PieceController.gravityForLevel(level));
+            heldKeys = 0;
+            pressedKeys = 0;
+            frameTime = System.nanoTime();
+            timer = new Timer(TIMER_DELAY, this);
             timer.start();
         }
         
+        private Tetromino randomPiece() {
+            return Tetromino.of(random.nextInt(Tetromino.values().length));
+        }
+        
         private void spawnNewPiece() {
-            currentPiece = random.nextInt(TETROMINOS.length);
-            currentRotation = 0;
-            x = COLS / 2 - TETROMINOS[currentPiece][currentRotation].length / 2;
-            y = 0;
+            Tetromino piece = nextPiece;
+            nextPiece = randomPiece();
+            autoplayTimer = 0;
             
             // 检查游戏是否结束
-            if (!isValidMove(0, 0, 0)) {
+            if (!controller.spawn(piece)) {
                 gameOver = true;
-                timer.stop();
-            }
-        }
-        
-        private boolean isValidMove(int rowOffset, int colOffset, int rotationOffset) {
-            int[][][] piece = TETROMINOS;
-            int newRotation = (currentRotation + rotationOffset) % piece[currentPiece].length;
-            
-            for (int row = 0; row < piece[currentPiece][newRotation].length; row++) {
-                for (int col = 0; col < piece[currentPiece][newRotation][row].length; col++) {
-                    if (piece[currentPiece][newRotation][row][col] != 0) {
-                        int newRow = y + row + rowOffset;
-                        int newCol = x + col + colOffset;
-                        
-                        if (newRow < 0 || newRow >= ROWS || newCol < 0 || newCol >= COLS || grid[newRow][newCol] != 0) {
-                            return false;
-                        }
-                    }
+                if (timer != null) {
+                    timer.stop();
                 }
             }
-            return true;
         }
         
         private void placePiece() {
-            int[][][] piece = TETROMINOS;
-            
-            for (int row = 0; row < piece[currentPiece][currentRotation].length; row++) {
-                for (int col = 0; col < piece[currentPiece][currentRotation][row].length; col++) {
-                    if (piece[currentPiece][currentRotation][row][col] != 0) {
-                        grid[y + row][x + col] = piece[currentPiece][currentRotation][row][col];
-                    }
-                }
-            }
-            
-            checkLines();
+            int linesCleared = playfield.lock(controller.getPiece(), controller.getRotation(), controller.getX(), controller.getY());
+            checkLines(linesCleared);
             spawnNewPiece();
         }
         
-        private void checkLines() {
-            int linesCleared = 0;
-            
-            for (int row = ROWS - 1; row >= 0; row--) {
-                boolean fullLine = true;
-                
-                for (int col = 0; col < COLS; col++) {
-                    if (grid[row][col] == 0) {
-                        fullLine = false;
-                        break;
-                    }
-                }
-                
-                if (fullLine) {
-                    linesCleared++;
-                    
-                    // 清除当前行并将上面的行下移
-                    for (int r = row; r > 0; r--) {
-                        for (int col = 0; col < COLS; col++) {
-                            grid[r][col] = grid[r - 1][col];
-                        }
-                    }
-                    
-                    // 顶部行清空
-                    for (int col = 0; col < COLS; col++) {
-                        grid[0][col] = 0;
-                    }
-                    
-                    // 重新检查当前行（因为上面的行下移了）
-                    row++;
-                }
-            }
-            
+        private void checkLines(int linesCleared) {
             if (linesCleared > 0) {
                 score += linesCleared * 100 * level;
                 level = score / 1000 + 1;
-                timer.setDelay(DELAY - (level - 1) * 10);
+                controller.setGravity(PieceController.gravityForLevel(level));
             }
         }
         
-        private void moveDown() {
-            if (isValidMove(1, 0, 0)) {
-                y++;
+        /**
+         * 自动模式：由 AI 选择当前方块的落点并直接固定
+         */
+        private void autoPlace() {
+            if (ai == null) {
+                ai = new TetrisAI(COLS, ROWS, Evaluator.DEFAULT_WEIGHTS, Runtime.getRuntime().availableProcessors());
+            }
+            if (ai.choose(playfield, controller.getPiece(), controller.getRotation(), controller.getX(), controller.getY(), nextPiece)) {
+                controller.moveTo(ai.getRotation(), ai.getX(), ai.getY());
             } else {
+                controller.moveTo(controller.getRotation(), controller.getX(),
+                    playfield.dropRow(controller.getPiece(), controller.getRotation(), controller.getX(), controller.getY()));
+            }
+            placePiece();
+        }
+        
+        /**
+         * 推进一帧
+         */
+        private void stepFrame() {
+            int pressed = pressedKeys;
+            pressedKeys = 0;
+            if (autoplay) {
+                if (++autoplayTimer >= AUTOPLAY_FRAMES) {
+                    autoPlace();
+                }
+            } else if (controller.step(heldKeys, pressed)) {
                 placePiece();
             }
         }
@@ -227,32 +168,17 @@ public class TetrisGame {
         }
         
         private void draw(Graphics g) {
-            // 绘制网格
-            for (int i = 0; i < ROWS; i++) {
-                g.drawLine(0, i * UNIT_SIZE, SCREEN_WIDTH, i * UNIT_SIZE);
-            }
-            
-            for (int j = 0; j < COLS; j++) {
-                g.drawLine(j * UNIT_SIZE, 0, j * UNIT_SIZE, SCREEN_HEIGHT);
-            }
-            
-            // 绘制已放置的方块
-            for (int row = 0; row < ROWS; row++) {
-                for (int col = 0; col < COLS; col++) {
-                    if (grid[row][col] != 0) {
-                        g.setColor(Color.CYAN);
-                        g.fillRect(col * UNIT_SIZE, row * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
-                        g.setColor(Color.GRAY);
-                        g.drawRect(col * UNIT_SIZE, row * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
-                    }
-                }
-            }
+            // 绘制网格和已放置的方块
+            updateStaticLayer();
+            g.drawImage(staticLayer, 0, 0, null);
             
             // 绘制当前方块
-            int[][][] piece = TETROMINOS;
-            for (int row = 0; row < piece[currentPiece][currentRotation].length; row++) {
-                for (int col = 0; col < piece[currentPiece][currentRotation][row].length; col++) {
-                    if (piece[currentPiece][currentRotation][row][col] != 0) {
+            Tetromino currentPiece = controller.getPiece();
+            int x = controller.getX();
+            int y = controller.getY();
+            for (int row = 0; row < currentPiece.getSize(); row++) {
+                for (int col = 0; col < currentPiece.getSize(); col++) {
+                    if (currentPiece.isCell(controller.getRotation(), row, col)) {
                         g.setColor(Color.ORANGE);
                         g.fillRect((x + col) * UNIT_SIZE, (y + row) * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
                         g.setColor(Color.GRAY);
@@ -263,30 +189,106 @@ public class TetrisGame {
             
             // 绘制分数和等级
             g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 16));
+            g.setFont(HUD_FONT);
             g.drawString("分数: " + score, 10, 20);
             g.drawString("等级: " + level, 10, 40);
             
             // 绘制游戏结束信息
             if (gameOver) {
                 g.setColor(Color.RED);
-                g.setFont(new Font("Arial", Font.BOLD, 30));
+                g.setFont(TITLE_FONT);
                 FontMetrics metrics = getFontMetrics(g.getFont());
                 g.drawString("游戏结束", (SCREEN_WIDTH - metrics.stringWidth("游戏结束")) / 2, SCREEN_HEIGHT / 2);
                 
                 g.setColor(Color.WHITE);
-                g.setFont(new Font("Arial", Font.BOLD, 16));
+                g.setFont(HUD_FONT);
                 metrics = getFontMetrics(g.getFont());
                 g.drawString("按任意键重新开始", (SCREEN_WIDTH - metrics.stringWidth("按任意键重新开始")) / 2, SCREEN_HEIGHT / 2 + 50);
             }
         }
         
+        /**
+         * 把场地与静态层中画出的内容比较，重画变化的行。
+         * 每行的方块边框会多画一个像素到下一行的顶边上，所以第 row 行变化时第 row 和 row + 1 条都要重画
+         */
+        private void updateStaticLayer() {
+            boolean redrawAll = staticLayer == null;
+            if (redrawAll) {
+                GraphicsConfiguration config = getGraphicsConfiguration();
+                staticLayer = config != null
+                    ? config.createCompatibleImage(SCREEN_WIDTH, SCREEN_HEIGHT)
+                    : new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            }
+            
+            Graphics2D layer = null;
+            boolean aboveChanged = false;
+            for (int row = 0; row < ROWS; row++) {
+                long bits = playfield.getRow(row);
+                boolean changed = bits != layerRows[row];
+                if (redrawAll || changed || aboveChanged) {
+                    if (layer == null) {
+                        layer = staticLayer.createGraphics();
+                    }
+                    drawStrip(layer, row);
+                }
+                layerRows[row] = bits;
+                aboveChanged = changed;
+            }
+            if (layer != null) {
+                layer.dispose();
+            }
+        }
+        
+        /**
+         * 重画静态层中第 row 行所在的横条：背景、网格线、上一行方块的下边框和本行的方块
+         */
+        private void drawStrip(Graphics2D layer, int row) {
+            int top = row * UNIT_SIZE;
+            layer.setClip(0, top, SCREEN_WIDTH, UNIT_SIZE);
+            layer.setColor(getBackground());
+            layer.fillRect(0, top, SCREEN_WIDTH, UNIT_SIZE);
+            
+            layer.setColor(getForeground());
+            layer.drawLine(0, top, SCREEN_WIDTH, top);
+            for (int j = 0; j < COLS; j++) {
+                layer.drawLine(j * UNIT_SIZE, top, j * UNIT_SIZE, top + UNIT_SIZE);
+            }
+            
+            if (row > 0) {
+                drawRowCells(layer, row - 1);
+            }
+            drawRowCells(layer, row);
+        }
+        
+        private void drawRowCells(Graphics2D layer, int row) {
+            long bits = playfield.getRow(row);
+            while (bits != 0) {
+                int col = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                layer.setColor(Color.CYAN);
+                layer.fillRect(col * UNIT_SIZE, row * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
+                layer.setColor(Color.GRAY);
+                layer.drawRect(col * UNIT_SIZE, row * UNIT_SIZE, UNIT_SIZE, UNIT_SIZE);
+            }
+        }
+        
         @Override
         public void actionPerformed(ActionEvent e) {
-            if (!gameOver) {
-                moveDown();
+            // 按经过的时间推进整数个帧，定时器早到或晚到只影响在哪一次回调中推进，不影响推进的帧数
+            long now = System.nanoTime();
+            int frames = 0;
+            while (!gameOver && now - frameTime >= PieceController.FRAME_NANOS) {
+                if (frames == MAX_CATCH_UP_FRAMES) {
+                    frameTime = now;
+                    break;
+                }
+                stepFrame();
+                frameTime += PieceController.FRAME_NANOS;
+                frames++;
+            }
+            if (frames > 0) {
+                repaint();
             }
-            repaint();
         }
         
         @Override
@@ -298,38 +300,23 @@ public class TetrisGame {
                 return;
             }
             
-            switch (e.getKeyCode()) {
-                case KeyEvent.VK_LEFT:
-                    if (isValidMove(0, -1, 0)) {
-                        x--;
-                    }
-                    break;
-                case KeyEvent.VK_RIGHT:
-                    if (isValidMove(0, 1, 0)) {
-                        x++;
-                    }
-                    break;
-                case KeyEvent.VK_DOWN:
-                    moveDown();
-                    break;
-                case KeyEvent.VK_UP:
-                    if (isValidMove(0, 0, 1)) {
-                        currentRotation = (currentRotation + 1) % TETROMINOS[currentPiece].length;
-                    }
-                    break;
-                case KeyEvent.VK_SPACE:
-                    // 快速下落
-                    while (isValidMove(1, 0, 0)) {
-                        y++;
-                    }
-                    placePiece();
-                    break;
+            if (e.getKeyCode() == KeyEvent.VK_A) {
+                autoplay = !autoplay;
+                return;
+            }
+            
+            // 按键只记录下来，在下一帧统一处理；按住不放时系统重复发出的按下事件不算新的按下
+            int input = PieceController.inputOf(e.getKeyCode());
+            if ((heldKeys & input) == 0) {
+                pressedKeys |= input;
             }
-            repaint();
+            heldKeys |= input;
         }
         
         @Override
-        public void keyReleased(KeyEvent e) {}
+        public void keyReleased(KeyEvent e) {
+            heldKeys &= ~PieceController.inputOf(e.getKeyCode());
+        }
         
         @Override
         public void keyTyped(KeyEvent e) {}
@@ -0,0 +1,235 @@
+package games.tetris;
+
+/**
+ * 七种俄罗斯方块
+ * 每种方块的四个旋转方向在类初始化时预先计算为行掩码：第 row 行的第 col 位表示方块框内 (row, col) 被占用。
+ * 放到棋盘上只需把掩码左移方块框所在的列，碰撞检测和固定方块都是按行的位运算。
+ * 旋转采用 SRS：方向依次为 0、R、2、L，每次旋转依次尝试 5 个踢墙偏移（O 型只有 1 个），
+ * 偏移表同样在类初始化时展开为每个方向、每个旋转方向的数组
+ */
+public enum Tetromino {
+    I(Kicks.I, new int[][] {
+        {0, 0, 0, 0},
+        {1, 1, 1, 1},
+        {0, 0, 0, 0},
+        {0, 0, 0, 0}
+    }),
+    J(Kicks.JLSTZ, new int[][] {
+        {1, 0, 0},
+        {1, 1, 1},
+        {0, 0, 0}
+    }),
+    L(Kicks.JLSTZ, new int[][] {
+        {0, 0, 1},
+        {1, 1, 1},
+        {0, 0, 0}
+    }),
+    O(Kicks.O, new int[][] {
+        {1, 1},
+        {1, 1}
+    }),
+    S(Kicks.JLSTZ, new int[][] {
+        {0, 1, 1},
+        {1, 1, 0},
+        {0, 0, 0}
+    }),
+    T(Kicks.JLSTZ, new int[][] {
+        {0, 1, 0},
+        {1, 1, 1},
+        {0, 0, 0}
+    }),
+    Z(Kicks.JLSTZ, new int[][] {
+        {1, 1, 0},
+        {0, 1, 1},
+        {0, 0, 0}
+    });
+    
+    /**
+     * 旋转方向数量
+     */
+    public static final int ROTATIONS = 4;
+    
+    private static final Tetromino[] VALUES = values();
+    
+    private final int size;             // 方块框边长
+    private final long[][] masks;       // [旋转方向][框内行] -> 行掩码
+    private final int[] minRow;         // 每个旋转方向被占用的最小、最大框内行和列
+    private final int[] maxRow;
+    private final int[] minCol;
+    private final int[] maxCol;
+    private final int[][] kickX;        // [旋转方向 * 2 + (顺时针 ? 0 : 1)][尝试序号] -> 列偏移
+    private final int[][] kickY;        // 同上，行偏移（向下为正）
+    
+    /**
+     * SRS 顺时针旋转的踢墙偏移，按起始方向 0、R、2、L 排列，每个偏移为 (列, 行)，行向上为正（与 SRS 文档一致）。
+     * 逆时针旋转的偏移是对应顺时针旋转偏移的相反数
+     */
+    private static final class Kicks {
+        static final int[][] JLSTZ = {
+            {0, 0, -1, 0, -1, 1, 0, -2, -1, -2},    // 0 -> R
+            {0, 0, 1, 0, 1, -1, 0, 2, 1, 2},        // R -> 2
+            {0, 0, 1, 0, 1, 1, 0, -2, 1, -2},       // 2 -> L
+            {0, 0, -1, 0, -1, -1, 0, 2, -1, 2}      // L -> 0
+        };
+        static final int[][] I = {
+            {0, 0, -2, 0, 1, 0, -2, -1, 1, 2},      // 0 -> R
+            {0, 0, -1, 0, 2, 0, -1, 2, 2, -1},      // R -> 2
+            {0, 0, 2, 0, -1, 0, 2, 1, -1, -2},      // 2 -> L
+            {0, 0, 1, 0, -2, 0, 1, -2, -2, 1}       // L -> 0
+        };
+        static final int[][] O = {{0, 0}, {0, 0}, {0, 0}, {0, 0}};
+    }
+    
+    /**
+     * 构造函数
+     * @param clockwiseKicks 顺时针旋转的踢墙偏移
+     * @param shape 初始方向的形状（方块框内 1 表示被占用）
+     */
+    Tetromino(int[][] clockwiseKicks, int[][] shape) {
+        this.size = shape.length;
+        this.masks = new long[ROTATIONS][size];
+        this.minRow = new int[ROTATIONS];
+        this.maxRow = new int[ROTATIONS];
+        this.minCol = new int[ROTATIONS];
+        this.maxCol = new int[ROTATIONS];
+        
+        // 每个方向由上一个方向在方块框内顺时针旋转 90 度得到
+        int[][] current = shape;
+        for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+            minRow[rotation] = size;
+            minCol[rotation] = size;
+            maxRow[rotation] = -1;
+            maxCol[rotation] = -1;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    if (current[row][col] != 0) {
+                        masks[rotation][row] |= 1L << col;
+                        minRow[rotation] = Math.min(minRow[rotation], row);
+                        maxRow[rotation] = Math.max(maxRow[rotation], row);
+                        minCol[rotation] = Math.min(minCol[rotation], col);
+                        maxCol[rotation] = Math.max(maxCol[rotation], col);
+                    }
+                }
+            }
+            int[][] rotated = new int[size][size];
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    rotated[col][size - 1 - row] = current[row][col];
+                }
+            }
+            current = rotated;
+        }
+        
+        // 展开踢墙表：从方向 r 逆时针旋转的偏移是从方向 r - 1 顺时针旋转的偏移取反
+        this.kickX = new int[ROTATIONS * 2][];
+        this.kickY = new int[ROTATIONS * 2][];
+        for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+            int[] clockwise = clockwiseKicks[rotation];
+            int[] counterClockwise = clockwiseKicks[(rotation + ROTATIONS - 1) % ROTATIONS];
+            int tests = clockwise.length / 2;
+            kickX[rotation * 2] = new int[tests];
+            kickY[rotation * 2] = new int[tests];
+            kickX[rotation * 2 + 1] = new int[tests];
+            kickY[rotation * 2 + 1] = new int[tests];
+            for (int test = 0; test < tests; test++) {
+                kickX[rotation * 2][test] = clockwise[test * 2];
+                kickY[rotation * 2][test] = -clockwise[test * 2 + 1];
+                kickX[rotation * 2 + 1][test] = -counterClockwise[test * 2];
+                kickY[rotation * 2 + 1][test] = counterClockwise[test * 2 + 1];
+            }
+        }
+    }
+    
+    /**
+     * 按编号获取方块
+     * @param ordinal 编号
+     * @return 方块
+     */
+    public static Tetromino of(int ordinal) {
+        return VALUES[ordinal];
+    }
+    
+    /**
+     * 获取方块框内一行的掩码
+     * @param rotation 旋转方向
+     * @param row 框内行
+     * @return 行掩码，第 col 位表示框内第 col 列
+     */
+    public long getMask(int rotation, int row) {
+        return masks[rotation][row];
+    }
+    
+    /**
+     * 判断方块框内的单元格是否被占用
+     * @param rotation 旋转方向
+     * @param row 框内行
+     * @param col 框内列
+     * @return 是否被占用
+     */
+    public boolean isCell(int rotation, int row, int col) {
+        return (masks[rotation][row] >>> col & 1) != 0;
+    }
+    
+    /**
+     * 计算旋转后的方向
+     * @param rotation 当前方向
+     * @param direction 1 表示顺时针，-1 表示逆时针
+     * @return 旋转后的方向
+     */
+    public static int rotate(int rotation, int direction) {
+        return (rotation + direction) & (ROTATIONS - 1);
+    }
+    
+    /**
+     * 获取旋转时依次尝试的踢墙偏移数量
+     * @param rotation 当前方向
+     * @param direction 1 表示顺时针，-1 表示逆时针
+     * @return 偏移数量
+     */
+    public int getKickCount(int rotation, int direction) {
+        return kickX[rotation * 2 + (direction > 0 ? 0 : 1)].length;
+    }
+    
+    /**
+     * 获取踢墙的列偏移
+     * @param rotation 当前方向
+     * @param direction 1 表示顺时针，-1 表示逆时针
+     * @param test 尝试序号
+     * @return 列偏移（向右为正）
+     */
+    public int getKickX(int rotation, int direction, int test) {
+        return kickX[rotation * 2 + (direction > 0 ? 0 : 1)][test];
+    }
+    
+    /**
+     * 获取踢墙的行偏移
+     * @param rotation 当前方向
+     * @param direction 1 表示顺时针，-1 表示逆时针
+     * @param test 尝试序号
+     * @return 行偏移（向下为正）
+     */
+    public int getKickY(int rotation, int direction, int test) {
+        return kickY[rotation * 2 + (direction > 0 ? 0 : 1)][test];
+    }
+    
+    // Getters
+    public int getSize() {
+        return size;
+    }
+    
+    public int getMinRow(int rotation) {
+        return minRow[rotation];
+    }
+    
+    public int getMaxRow(int rotation) {
+        return maxRow[rotation];
+    }
+    
+    public int getMinCol(int rotation) {
+        return minCol[rotation];
+    }
+    
+    public int getMaxCol(int rotation) {
+        return maxCol[rotation];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package games.tetris.ai;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 俄罗斯方块 AI 性能测试程序
+ * 用固定种子的无界面对局连续放置方块（游戏结束后换下一个种子重新开始），统计每秒放置的方块数量和消除的行数
+ *
+ * 用法：java games.tetris.ai.AIBenchmark [方块数] [线程数] [起始种子] [列数] [行数] [权重文件]
+ */
+public class AIBenchmark {
+    public static void main(String[] args) throws IOException {
+        long pieces = args.length > 0 ? Long.parseLong(args[0]) : 100000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        int width = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int height = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        double[] weights = args.length > 5 ? Evaluator.readWeights(Paths.get(args[5])) : Evaluator.DEFAULT_WEIGHTS;
+        
+        System.out.printf("方块数: %d, 线程数: %d, 场地: %dx%d%n", pieces, threads, width, height);
+        TetrisAI ai = new TetrisAI(width, height, weights, threads);
+        
+        // 预热
+        new HeadlessGame(width, height, ai, -1).play(Math.min(pieces, 2000));
+        
+        long start = System.nanoTime();
+        long placed = 0;
+        long lines = 0;
+        int games = 0;
+        while (placed < pieces) {
+            HeadlessGame game = new HeadlessGame(width, height, ai, seed + games);
+            lines += game.play(pieces - placed);
+            placed += game.getPieces();
+            games++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ai.shutdown();
+        
+        System.out.printf("对局数: %d, 消除行数: %d, 平均每行方块数: %.3f%n", games, lines, lines == 0 ? 0 : (double) placed / lines);
+        System.out.printf("速度: %.0f 方块/秒 (%.2f 秒)%n", placed / seconds, seconds);
+    }
+}
\ No newline at end of file
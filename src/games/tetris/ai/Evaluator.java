@@ -0,0 +1,123 @@
+package games.tetris.ai;
+
+import games.tetris.Playfield;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 基于特征的局面评估
+ * 得分是各特征的加权和：总高度、消除行数、空洞数量和凹凸度（相邻列高度差之和）。
+ * 所有特征都从位棋盘一次自上而下的扫描中得到，评估过程不分配内存；一个评估器只能在一个线程中使用
+ */
+public final class Evaluator {
+    // 权重下标
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int LINES = 1;
+    public static final int HOLES = 2;
+    public static final int BUMPINESS = 3;
+    public static final int FEATURES = 4;
+    
+    /**
+     * 默认权重
+     */
+    public static final double[] DEFAULT_WEIGHTS = {-0.510066, 0.760666, -0.35663, -0.184483};
+    
+    private final double[] weights;
+    private final int[] heights = new int[Playfield.MAX_WIDTH];
+    
+    /**
+     * 构造函数
+     * @param weights 各特征的权重，长度为 {@link #FEATURES}
+     */
+    public Evaluator(double[] weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("权重数量应为 " + FEATURES);
+        }
+        this.weights = weights.clone();
+    }
+    
+    /**
+     * 评估局面
+     * @param field 场地（已固定方块并消行）
+     * @param lines 到达该局面时消除的行数
+     * @return 得分，越高越好
+     */
+    public double evaluate(Playfield field, int lines) {
+        int width = field.getWidth();
+        int height = field.getHeight();
+        for (int col = 0; col < width; col++) {
+            heights[col] = 0;
+        }
+        
+        // 自上而下扫描：某列第一次出现方块的行决定该列高度，之后该列的空格都是空洞
+        long covered = 0;
+        int holes = 0;
+        for (int row = 0; row < height; row++) {
+            long bits = field.getRow(row);
+            long newColumns = bits & ~covered;
+            while (newColumns != 0) {
+                heights[Long.numberOfTrailingZeros(newColumns)] = height - row;
+                newColumns &= newColumns - 1;
+            }
+            holes += Long.bitCount(covered & ~bits);
+            covered |= bits;
+        }
+        
+        int aggregateHeight = heights[0];
+        int bumpiness = 0;
+        for (int col = 1; col < width; col++) {
+            aggregateHeight += heights[col];
+            bumpiness += Math.abs(heights[col] - heights[col - 1]);
+        }
+        return weights[AGGREGATE_HEIGHT] * aggregateHeight + weights[LINES] * lines
+            + weights[HOLES] * holes + weights[BUMPINESS] * bumpiness;
+    }
+    
+    /**
+     * 把权重写入文本文件（一行，以空格分隔）
+     * @param path 文件路径
+     * @param weights 权重
+     * @throws IOException 写入失败
+     */
+    public static void writeWeights(Path path, double[] weights) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < weights.length; i++) {
+            line.append(i == 0 ? "" : " ").append(String.format(Locale.ROOT, "%.6f", weights[i]));
+        }
+        Files.write(path, (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 从 {@link #writeWeights(Path, double[])} 写入的文件读取权重
+     * @param path 文件路径
+     * @return 权重
+     * @throws IOException 读取失败或权重数量不对
+     */
+    public static double[] readWeights(Path path) throws IOException {
+        String[] parts = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim().split("\\s+");
+        if (parts.length != FEATURES) {
+            throw new IOException("权重文件应包含 " + FEATURES + " 个数");
+        }
+        double[] weights = new double[FEATURES];
+        try {
+            for (int i = 0; i < FEATURES; i++) {
+                weights[i] = Double.parseDouble(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("权重文件格式错误: " + e.getMessage());
+        }
+        return weights;
+    }
+    
+    /**
+     * 获取权重的副本
+     * @return 权重
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package games.tetris.ai;
+
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+
+import java.util.Random;
+
+/**
+ * 无界面的俄罗斯方块对局
+ * 与游戏面板相同的规则：方块从顶部中间出现，出现的位置放不下时游戏结束。
+ * 每一步由 AI 在出生位置可达的落点中选择一个直接固定，不模拟下落过程。对局只使用自己的场地和随机数，可以在多个线程中同时进行
+ */
+public class HeadlessGame {
+    private final Playfield field;
+    private final TetrisAI ai;
+    private final Random random;
+    private final boolean lookahead;
+    private Tetromino current;
+    private Tetromino next;
+    private long pieces;
+    private long lines;
+    private boolean gameOver;
+    
+    /**
+     * 构造函数，AI 选择落点时考虑下一个方块
+     * @param width 场地列数
+     * @param height 场地行数
+     * @param ai 落点 AI（场地大小须一致）
+     * @param seed 方块序列的随机种子
+     */
+    public HeadlessGame(int width, int height, TetrisAI ai, long seed) {
+        this(width, height, ai, seed, true);
+    }
+    
+    /**
+     * 构造函数
+     * @param width 场地列数
+     * @param height 场地行数
+     * @param ai 落点 AI（场地大小须一致）
+     * @param seed 方块序列的随机种子
+     * @param lookahead AI 选择落点时是否考虑下一个方块
+     */
+    public HeadlessGame(int width, int height, TetrisAI ai, long seed, boolean lookahead) {
+        this.field = new Playfield(width, height);
+        this.ai = ai;
+        this.random = new Random(seed);
+        this.lookahead = lookahead;
+        this.next = randomPiece();
+        spawn();
+    }
+    
+    private Tetromino randomPiece() {
+        return Tetromino.of(random.nextInt(Tetromino.values().length));
+    }
+    
+    private void spawn() {
+        current = next;
+        next = randomPiece();
+        if (!field.fits(current, 0, MoveGenerator.spawnX(field.getWidth(), current), 0)) {
+            gameOver = true;
+        }
+    }
+    
+    /**
+     * 放置一个方块
+     * @return 游戏是否仍在继续
+     */
+    public boolean step() {
+        if (gameOver) {
+            return false;
+        }
+        if (!ai.choose(field, current, lookahead ? next : null)) {
+            gameOver = true;
+            return false;
+        }
+        lines += field.lock(current, ai.getRotation(), ai.getX(), ai.getY());
+        pieces++;
+        spawn();
+        return !gameOver;
+    }
+    
+    /**
+     * 一直进行到游戏结束或达到方块数量上限
+     * @param maxPieces 方块数量上限
+     * @return 消除的总行数
+     */
+    public long play(long maxPieces) {
+        while (pieces < maxPieces && step()) {
+            // 继续
+        }
+        return lines;
+    }
+    
+    // Getters
+    public Playfield getField() {
+        return field;
+    }
+    
+    public long getPieces() {
+        return pieces;
+    }
+    
+    public long getLines() {
+        return lines;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
\ No newline at end of file
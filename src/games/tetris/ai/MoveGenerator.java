@@ -0,0 +1,247 @@
+package games.tetris.ai;
+
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+
+import java.util.Arrays;
+
+/**
+ * 可达落点生成器
+ * 从出生位置出发，对 (列, 行, 旋转方向) 状态做广度优先搜索，走法为左移、右移、顺/逆时针旋转（SRS 踢墙）和软降；
+ * 硬降就是连续软降，不产生新状态。不能再下移的状态就是一个落点，因此能找到直接落下找不到的塞入和旋转踢入的位置。
+ * 状态编号为 ((方向 * 行跨度) + 行 + PAD) * 列跨度 + 列 + PAD，访问标记和落点去重都用位集，每个状态只展开一次。
+ * 最高的已占用行之上只受左右边界限制，所有方向和列都可达，因此从出生位置搜索时把离堆顶足够远（旋转踢墙后也碰不到堆）的状态
+ * 一次标记为已访问，只从这些状态与堆顶之间的状态开始搜索，搜索量只与堆顶附近的状态数有关。
+ * 形状相同的旋转方向（O、I、S、Z 型）固定后占用的单元格相同，只报告一次。生成过程不分配内存；一个生成器只能在一个线程中使用
+ */
+public final class MoveGenerator {
+    private static final int PAD = 3;                       // 方块框左、上边最多可以在场地外 3 格
+    private static final int MAX_KICK_DOWN = 2;             // 踢墙最多向下移动的行数
+    private static final int[][] CANONICAL = canonicalRotations();
+    
+    private final int width;
+    private final int height;
+    private final int colSpan;
+    private final int rotationSpan;
+    private final long[] visited;
+    private final long[] placed;
+    private final int[] queue;
+    private final int[] rotations;
+    private final int[] xs;
+    private final int[] ys;
+    private int count;
+    
+    /**
+     * 构造函数
+     * @param width 场地列数
+     * @param height 场地行数
+     */
+    public MoveGenerator(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.colSpan = width + PAD;
+        this.rotationSpan = (height + PAD) * colSpan;
+        int states = Tetromino.ROTATIONS * rotationSpan;
+        this.visited = new long[(states + 63) >>> 6];
+        this.placed = new long[(states + 63) >>> 6];
+        this.queue = new int[states];
+        this.rotations = new int[states];
+        this.xs = new int[states];
+        this.ys = new int[states];
+    }
+    
+    /**
+     * 为每种方块的每个旋转方向找到形状相同的第一个方向（记为规范方向）
+     */
+    private static int[][] canonicalRotations() {
+        int[][] result = new int[Tetromino.values().length][Tetromino.ROTATIONS];
+        for (Tetromino piece : Tetromino.values()) {
+            for (int rotation = 0; rotation < Tetromino.ROTATIONS; rotation++) {
+                int canonical = 0;
+                while (!sameShape(piece, canonical, rotation)) {
+                    canonical++;
+                }
+                result[piece.ordinal()][rotation] = canonical;
+            }
+        }
+        return result;
+    }
+    
+    private static boolean sameShape(Tetromino piece, int a, int b) {
+        int rows = piece.getMaxRow(a) - piece.getMinRow(a);
+        if (rows != piece.getMaxRow(b) - piece.getMinRow(b)) {
+            return false;
+        }
+        for (int i = 0; i <= rows; i++) {
+            long maskA = piece.getMask(a, piece.getMinRow(a) + i) >>> piece.getMinCol(a);
+            long maskB = piece.getMask(b, piece.getMinRow(b) + i) >>> piece.getMinCol(b);
+            if (maskA != maskB) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 计算方块的出生列（与游戏面板一致：方块框在场地中间，出生在第 0 行、方向 0）
+     * @param width 场地列数
+     * @param piece 方块
+     * @return 方块框左边的列
+     */
+    public static int spawnX(int width, Tetromino piece) {
+        return width / 2 - piece.getSize() / 2;
+    }
+    
+    /**
+     * 从出生位置生成所有可达落点
+     * @param field 场地
+     * @param piece 方块
+     * @return 落点数量，出生位置放不下时为 0
+     */
+    public int generate(Playfield field, Tetromino piece) {
+        int top = 0;
+        while (top < height && field.getRow(top) == 0) {
+            top++;
+        }
+        int spawnX = spawnX(width, piece);
+        if (top < piece.getSize() || !field.fits(piece, 0, spawnX, 0)) {
+            // 堆已经接近出生位置，从出生位置开始逐步搜索
+            return generate(field, piece, 0, spawnX, 0);
+        }
+        
+        begin(field);
+        // 第 safe 行及以上的状态，包括旋转踢墙在内的所有后继都在堆顶之上，整体标记为已访问；
+        // 从 safe 下一行（不高于第 0 行）到方块底部紧贴堆顶的各个状态都可达，作为搜索的起点
+        int safe = top - 1 - (piece.getSize() - 1) - MAX_KICK_DOWN - 1;
+        int tail = 0;
+        for (int rotation = 0; rotation < Tetromino.ROTATIONS; rotation++) {
+            for (int i = rotation * rotationSpan, last = index(rotation, colSpan - 1 - PAD, safe); i <= last; i++) {
+                visited[i >>> 6] |= 1L << i;
+            }
+            for (int y = Math.max(safe + 1, 0), bottom = top - 1 - piece.getMaxRow(rotation); y <= bottom; y++) {
+                for (int x = -piece.getMinCol(rotation), end = width - 1 - piece.getMaxCol(rotation); x <= end; x++) {
+                    if (field.fits(piece, rotation, x, y)) {
+                        queue[tail++] = mark(rotation, x, y);
+                    }
+                }
+            }
+        }
+        return search(field, piece, tail);
+    }
+    
+    /**
+     * 从指定位置生成所有可达落点，结果通过 {@link #getRotation(int)}、{@link #getX(int)}、{@link #getY(int)} 获取
+     * @param field 场地
+     * @param piece 方块
+     * @param rotation 起始方向
+     * @param x 起始列
+     * @param y 起始行
+     * @return 落点数量，起始位置放不下时为 0
+     */
+    public int generate(Playfield field, Tetromino piece, int rotation, int x, int y) {
+        begin(field);
+        if (!field.fits(piece, rotation, x, y)) {
+            return 0;
+        }
+        queue[0] = mark(rotation, x, y);
+        return search(field, piece, 1);
+    }
+    
+    private void begin(Playfield field) {
+        if (field.getWidth() != width || field.getHeight() != height) {
+            throw new IllegalArgumentException("场地大小与生成器不一致");
+        }
+        count = 0;
+        Arrays.fill(visited, 0);
+        Arrays.fill(placed, 0);
+    }
+    
+    /**
+     * 从队列中已有的状态开始广度优先搜索
+     * @param tail 队列中的状态数量（这些状态都已标记为已访问）
+     * @return 落点数量
+     */
+    private int search(Playfield field, Tetromino piece, int tail) {
+        int[] canonical = CANONICAL[piece.ordinal()];
+        int head = 0;
+        while (head < tail) {
+            int state = queue[head++];
+            int rotation = state / rotationSpan;
+            int x = state % colSpan - PAD;
+            int y = state % rotationSpan / colSpan - PAD;
+            
+            // 左移、右移
+            if (!isVisited(rotation, x - 1, y) && field.fits(piece, rotation, x - 1, y)) {
+                queue[tail++] = mark(rotation, x - 1, y);
+            }
+            if (!isVisited(rotation, x + 1, y) && field.fits(piece, rotation, x + 1, y)) {
+                queue[tail++] = mark(rotation, x + 1, y);
+            }
+            
+            // 顺时针、逆时针旋转
+            for (int direction = 1; direction >= -1; direction -= 2) {
+                int test = field.findKick(piece, rotation, x, y, direction);
+                if (test >= 0) {
+                    int target = Tetromino.rotate(rotation, direction);
+                    int kickedX = x + piece.getKickX(rotation, direction, test);
+                    int kickedY = y + piece.getKickY(rotation, direction, test);
+                    if (!isVisited(target, kickedX, kickedY)) {
+                        queue[tail++] = mark(target, kickedX, kickedY);
+                    }
+                }
+            }
+            
+            // 软降；不能下移时就是落点，按规范方向去重。下方的状态已访问说明它能放下（整体标记的状态都在起点之上）
+            if (isVisited(rotation, x, y + 1)) {
+                continue;
+            }
+            if (field.fits(piece, rotation, x, y + 1)) {
+                queue[tail++] = mark(rotation, x, y + 1);
+            } else {
+                int same = canonical[rotation];
+                int key = index(same, x + piece.getMinCol(rotation) - piece.getMinCol(same),
+                    y + piece.getMinRow(rotation) - piece.getMinRow(same));
+                if ((placed[key >>> 6] & 1L << key) == 0) {
+                    placed[key >>> 6] |= 1L << key;
+                    rotations[count] = rotation;
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    private int index(int rotation, int x, int y) {
+        return rotation * rotationSpan + (y + PAD) * colSpan + x + PAD;
+    }
+    
+    private boolean isVisited(int rotation, int x, int y) {
+        int index = index(rotation, x, y);
+        return (visited[index >>> 6] & 1L << index) != 0;
+    }
+    
+    private int mark(int rotation, int x, int y) {
+        int index = index(rotation, x, y);
+        visited[index >>> 6] |= 1L << index;
+        return index;
+    }
+    
+    // Getters
+    public int getCount() {
+        return count;
+    }
+    
+    public int getRotation(int i) {
+        return rotations[i];
+    }
+    
+    public int getX(int i) {
+        return xs[i];
+    }
+    
+    public int getY(int i) {
+        return ys[i];
+    }
+}
\ No newline at end of file
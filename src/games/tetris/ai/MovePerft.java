@@ -0,0 +1,132 @@
+package games.tetris.ai;
+
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+
+/**
+ * 落点生成器的 perft 测试程序
+ * 在固定的场地上递归统计可达落点数：深度 1 是七种方块各自的落点数之和，深度 d 是对每个落点固定方块（并消行）后
+ * 再统计深度 d - 1 的落点数。与记录的期望值比较可以发现生成器的正确性回归，计时可以发现性能回归。
+ *
+ * 用法：java games.tetris.ai.MovePerft [深度] [重复次数]
+ */
+public class MovePerft {
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 20;
+    
+    // 场地底部的若干行，'#' 表示被占用
+    private static final String[] NAMES = {"空场地", "塞入", "T 旋", "高低不平"};
+    private static final String[][] FIXTURES = {
+        {},
+        {
+            "....######",
+            "##........",
+            "##.......#"
+        },
+        {
+            "##........",
+            "#...######",
+            "##.#######"
+        },
+        {
+            "#.........",
+            "#.#....#..",
+            "###.#..##.",
+            "#####.###."
+        }
+    };
+    // 每个场地深度 1、2 的期望落点数
+    private static final long[][] EXPECTED = {
+        {162, 26760},
+        {218, 43218},
+        {167, 28276},
+        {162, 27021}
+    };
+    
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        
+        MoveGenerator[] generators = new MoveGenerator[depth];
+        Playfield[] fields = new Playfield[depth + 1];
+        for (int d = 0; d < depth; d++) {
+            generators[d] = new MoveGenerator(WIDTH, HEIGHT);
+        }
+        for (int d = 0; d <= depth; d++) {
+            fields[d] = new Playfield(WIDTH, HEIGHT);
+        }
+        
+        System.out.printf("深度: %d, 重复次数: %d, 场地: %dx%d%n", depth, repeats, WIDTH, HEIGHT);
+        boolean allMatch = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (int f = 0; f < FIXTURES.length; f++) {
+            load(fields[depth], FIXTURES[f]);
+            long[] nodes = new long[depth];
+            perft(fields, generators, depth, nodes);   // 预热并统计各深度的落点数
+            
+            long start = System.nanoTime();
+            for (int r = 0; r < repeats; r++) {
+                perft(fields, generators, depth, new long[depth]);
+            }
+            long nanos = System.nanoTime() - start;
+            long calls = 0;
+            for (int d = 0; d < depth; d++) {
+                calls += d == 0 ? Tetromino.values().length : nodes[d - 1] * Tetromino.values().length;
+            }
+            totalNodes += calls * repeats;
+            totalNanos += nanos;
+            
+            StringBuilder line = new StringBuilder(NAMES[f]);
+            for (int d = 0; d < depth; d++) {
+                line.append(String.format("  深度 %d: %d", d + 1, nodes[d]));
+                if (d < EXPECTED[f].length && nodes[d] != EXPECTED[f][d]) {
+                    line.append(String.format(" (期望 %d)", EXPECTED[f][d]));
+                    allMatch = false;
+                }
+            }
+            System.out.println(line);
+        }
+        
+        System.out.println(allMatch ? "落点数全部与期望值一致" : "落点数与期望值不一致！");
+        System.out.printf("生成速度: %.0f 次/秒 (%.2f 秒)%n", totalNodes / (totalNanos / 1e9), totalNanos / 1e9);
+    }
+    
+    /**
+     * 把场地底部设置为给定的行
+     */
+    private static void load(Playfield field, String[] rows) {
+        field.clear();
+        for (int i = 0; i < rows.length; i++) {
+            long mask = 0;
+            for (int col = 0; col < WIDTH; col++) {
+                if (rows[i].charAt(col) == '#') {
+                    mask |= 1L << col;
+                }
+            }
+            field.setRow(HEIGHT - rows.length + i, mask);
+        }
+    }
+    
+    /**
+     * 从 fields[remaining] 出发递归统计，nodes[d] 累加深度 d + 1 的落点数
+     */
+    private static void perft(Playfield[] fields, MoveGenerator[] generators, int remaining, long[] nodes) {
+        int level = nodes.length - remaining;
+        Playfield field = fields[remaining];
+        MoveGenerator generator = generators[remaining - 1];
+        for (Tetromino piece : Tetromino.values()) {
+            int count = generator.generate(field, piece);
+            nodes[level] += count;
+            if (remaining == 1) {
+                continue;
+            }
+            Playfield child = fields[remaining - 1];
+            for (int i = 0; i < count; i++) {
+                child.copyFrom(field);
+                child.lock(piece, generator.getRotation(i), generator.getX(i), generator.getY(i));
+                perft(fields, generators, remaining - 1, nodes);
+            }
+        }
+    }
+}
\ No newline at end of file
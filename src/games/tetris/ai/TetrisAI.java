@@ -0,0 +1,214 @@
+package games.tetris.ai;
+
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 俄罗斯方块落点 AI
+ * 用 {@link MoveGenerator} 找出当前方块从出生位置可达的所有落点；给出下一个方块时，对每个落点再生成下一个方块的所有落点，
+ * 以两步之后的最佳评估作为该落点的得分。当前方块的候选落点由多个工作任务从共享计数器领取并行评估，
+ * 每个任务有自己的场地副本和评估器，选择过程不分配内存。
+ * 得分相同时选择编号最小的候选，结果与线程数和调度顺序无关。一个 AI 对象只能在一个线程中使用
+ */
+public class TetrisAI {
+    private static final double LOST = -1e18;           // 下一个方块无处可放时的得分
+    
+    private final int width;
+    private final int height;
+    private final ForkJoinPool pool;                    // 单线程时为 null，直接在调用线程中评估
+    private final Worker[] workers;
+    private final RecursiveAction root;
+    
+    // 当前这次选择的输入和候选落点
+    private Playfield field;
+    private Tetromino current;
+    private Tetromino next;
+    private final MoveGenerator candidates;
+    private int candidateCount;
+    private final AtomicInteger nextCandidate = new AtomicInteger();
+    
+    // 选择结果
+    private int bestRotation;
+    private int bestX;
+    private int bestY;
+    private double bestScore;
+    
+    /**
+     * 构造函数
+     * @param width 场地列数
+     * @param height 场地行数
+     * @param weights 评估权重
+     * @param threads 并行评估的线程数，1 表示只在调用线程中评估
+     */
+    public TetrisAI(int width, int height, double[] weights, int threads) {
+        this.width = width;
+        this.height = height;
+        this.candidates = new MoveGenerator(width, height);
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(new Evaluator(weights));
+        }
+        if (workers.length > 1) {
+            this.pool = new ForkJoinPool(workers.length);
+            this.root = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(workers);
+                }
+            };
+        } else {
+            this.pool = null;
+            this.root = null;
+        }
+    }
+    
+    /**
+     * 为刚出生的当前方块选择落点
+     * @param field 场地（只读取）
+     * @param current 当前方块
+     * @param next 下一个方块，null 表示不向前看
+     * @return 是否找到落点
+     */
+    public boolean choose(Playfield field, Tetromino current, Tetromino next) {
+        return choose(field, current, 0, MoveGenerator.spawnX(width, current), 0, next);
+    }
+    
+    /**
+     * 为当前方块选择从指定位置可达的落点，结果通过 {@link #getRotation()}、{@link #getX()}、{@link #getY()} 获取
+     * @param field 场地（只读取）
+     * @param current 当前方块
+     * @param rotation 当前方向
+     * @param x 当前列
+     * @param y 当前行
+     * @param next 下一个方块，null 表示不向前看
+     * @return 是否找到落点
+     */
+    public boolean choose(Playfield field, Tetromino current, int rotation, int x, int y, Tetromino next) {
+        if (field.getWidth() != width || field.getHeight() != height) {
+            throw new IllegalArgumentException("场地大小与 AI 不一致");
+        }
+        this.field = field;
+        this.current = current;
+        this.next = next;
+        candidateCount = candidates.generate(field, current, rotation, x, y);
+        if (candidateCount == 0) {
+            return false;
+        }
+        
+        nextCandidate.set(0);
+        if (pool == null) {
+            workers[0].reset();
+            workers[0].evaluateCandidates();
+        } else {
+            for (Worker worker : workers) {
+                worker.reinitialize();
+                worker.reset();
+            }
+            root.reinitialize();
+            pool.invoke(root);
+        }
+        
+        // 合并各任务的结果：得分最高者胜，得分相同时取编号最小的候选
+        int best = -1;
+        double score = 0;
+        for (Worker worker : workers) {
+            if (worker.bestIndex >= 0 && (best < 0 || worker.bestScore > score
+                    || (worker.bestScore == score && worker.bestIndex < best))) {
+                best = worker.bestIndex;
+                score = worker.bestScore;
+            }
+        }
+        bestRotation = candidates.getRotation(best);
+        bestX = candidates.getX(best);
+        bestY = candidates.getY(best);
+        bestScore = score;
+        return true;
+    }
+    
+    /**
+     * 释放并行评估使用的线程
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    // Getters
+    public int getRotation() {
+        return bestRotation;
+    }
+    
+    public int getX() {
+        return bestX;
+    }
+    
+    public int getY() {
+        return bestY;
+    }
+    
+    public double getScore() {
+        return bestScore;
+    }
+    
+    /**
+     * 评估任务：反复领取当前方块的候选落点并评估，记录自己见过的最佳候选
+     */
+    private final class Worker extends RecursiveAction {
+        private final Evaluator evaluator;
+        private final Playfield afterCurrent;
+        private final Playfield afterNext;
+        private final MoveGenerator moves;
+        private int bestIndex;
+        private double bestScore;
+        
+        Worker(Evaluator evaluator) {
+            this.evaluator = evaluator;
+            this.afterCurrent = new Playfield(width, height);
+            this.afterNext = new Playfield(width, height);
+            this.moves = new MoveGenerator(width, height);
+        }
+        
+        void reset() {
+            bestIndex = -1;
+            bestScore = 0;
+        }
+        
+        @Override
+        protected void compute() {
+            evaluateCandidates();
+        }
+        
+        void evaluateCandidates() {
+            int index;
+            while ((index = nextCandidate.getAndIncrement()) < candidateCount) {
+                double score = evaluateCandidate(index);
+                if (bestIndex < 0 || score > bestScore || (score == bestScore && index < bestIndex)) {
+                    bestIndex = index;
+                    bestScore = score;
+                }
+            }
+        }
+        
+        private double evaluateCandidate(int index) {
+            afterCurrent.copyFrom(field);
+            int lines = afterCurrent.lock(current, candidates.getRotation(index), candidates.getX(index), candidates.getY(index));
+            if (next == null) {
+                return evaluator.evaluate(afterCurrent, lines);
+            }
+            
+            int count = moves.generate(afterCurrent, next);
+            double best = LOST;
+            for (int i = 0; i < count; i++) {
+                afterNext.copyFrom(afterCurrent);
+                int nextLines = afterNext.lock(next, moves.getRotation(i), moves.getX(i), moves.getY(i));
+                best = Math.max(best, evaluator.evaluate(afterNext, lines + nextLines));
+            }
+            return best;
+        }
+    }
+}
\ No newline at end of file
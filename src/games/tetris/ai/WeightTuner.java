@@ -0,0 +1,226 @@
+package games.tetris.ai;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 评估权重的遗传算法调优程序
+ * 种群中每个候选是一个单位长度的权重向量，适应度是它在同一组固定种子的无界面对局中消除的总行数（每局方块数有上限）。
+ * 每代用锦标赛选出两个父代，按适应度加权平均得到子代并以小概率变异，子代替换适应度最低的一部分候选。
+ * 对局在 fork/join 线程池中并行进行：每局创建自己的 AI 和场地，任务只读取不变的输入并通过返回值汇总结果，没有共享的可变状态。
+ * 选择和变异只在主线程中用固定种子的随机数进行，同样的参数总是得到同样的结果。
+ * 每代结束后把这一代的最佳权重写入 weights.txt，并向 fitness.csv 追加一行记录
+ *
+ * 用法：java games.tetris.ai.WeightTuner [代数] [种群大小] [每个候选的对局数] [每局方块上限] [线程数] [随机种子] [输出目录]
+ */
+public class WeightTuner {
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 20;
+    private static final double TOURNAMENT = 0.1;       // 锦标赛抽取的种群比例
+    private static final double REPLACED = 0.3;         // 每代替换的种群比例
+    private static final double MUTATION_RATE = 0.05;
+    private static final double MUTATION_STEP = 0.2;
+    
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int populationSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int maxPieces = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0L;
+        Path outputDir = Paths.get(args.length > 6 ? args[6] : ".");
+        
+        System.out.printf("代数: %d, 种群: %d, 每个候选 %d 局 (每局最多 %d 个方块), 线程数: %d%n",
+            generations, populationSize, games, maxPieces, threads);
+        Files.createDirectories(outputDir);
+        Path weightsFile = outputDir.resolve("weights.txt");
+        Path logFile = outputDir.resolve("fitness.csv");
+        
+        Random random = new Random(seed);
+        double[][] population = new double[populationSize][];
+        for (int i = 0; i < populationSize; i++) {
+            double[] weights = new double[Evaluator.FEATURES];
+            for (int f = 0; f < weights.length; f++) {
+                weights[f] = random.nextDouble() * 2 - 1;
+            }
+            population[i] = normalize(weights);
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (BufferedWriter log = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+            log.write("代数,最佳适应度,平均适应度,总高度,消除行数,空洞,凹凸度");
+            log.newLine();
+            for (int generation = 0; generation < generations; generation++) {
+                // 每代换一组种子，避免权重只适应某几局的方块序列
+                long start = System.nanoTime();
+                long firstSeed = seed + (long) generation * games;
+                long[] fitness = pool.invoke(new GenerationTask(population, firstSeed, games, maxPieces));
+                double seconds = (System.nanoTime() - start) / 1e9;
+                
+                Integer[] order = rank(fitness);
+                double[] best = population[order[0]];
+                double mean = 0;
+                for (long value : fitness) {
+                    mean += value;
+                }
+                mean /= populationSize;
+                
+                System.out.printf("第 %d 代: 最佳 %d 行, 平均 %.1f 行, 权重 %s (%.2f 秒)%n",
+                    generation + 1, fitness[order[0]], mean, Arrays.toString(best), seconds);
+                log.write(String.format(Locale.ROOT, "%d,%d,%.2f,%.6f,%.6f,%.6f,%.6f", generation + 1, fitness[order[0]], mean,
+                    best[Evaluator.AGGREGATE_HEIGHT], best[Evaluator.LINES], best[Evaluator.HOLES], best[Evaluator.BUMPINESS]));
+                log.newLine();
+                log.flush();
+                Evaluator.writeWeights(weightsFile, best);
+                
+                if (generation + 1 < generations) {
+                    population = breed(population, fitness, order, random);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("最佳权重已写入 " + weightsFile.toAbsolutePath());
+    }
+    
+    /**
+     * 按适应度从高到低排序候选编号（适应度相同时编号小的在前）
+     */
+    private static Integer[] rank(long[] fitness) {
+        Integer[] order = new Integer[fitness.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> fitness[a] != fitness[b] ? Long.compare(fitness[b], fitness[a]) : Integer.compare(a, b));
+        return order;
+    }
+    
+    /**
+     * 产生下一代：保留适应度较高的候选，其余位置由子代替换
+     */
+    private static double[][] breed(double[][] population, long[] fitness, Integer[] order, Random random) {
+        int size = population.length;
+        int replaced = Math.min(size - 2, (int) Math.round(size * REPLACED));
+        int tournament = Math.max(2, (int) Math.round(size * TOURNAMENT));
+        double[][] next = population.clone();
+        for (int child = 0; child < replaced; child++) {
+            // 锦标赛：随机抽取若干候选，适应度最高的两个作为父代
+            int first = -1;
+            int second = -1;
+            for (int i = 0; i < tournament; i++) {
+                int pick = random.nextInt(size);
+                if (first < 0 || fitness[pick] > fitness[first]) {
+                    second = first;
+                    first = pick;
+                } else if (pick != first && (second < 0 || fitness[pick] > fitness[second])) {
+                    second = pick;
+                }
+            }
+            if (second < 0) {
+                second = first;
+            }
+            
+            // 按适应度加权平均，两个父代都没有消行时取简单平均
+            double a = fitness[first];
+            double b = fitness[second];
+            if (a + b == 0) {
+                a = 1;
+                b = 1;
+            }
+            double[] weights = new double[Evaluator.FEATURES];
+            for (int f = 0; f < weights.length; f++) {
+                weights[f] = a * population[first][f] + b * population[second][f];
+            }
+            if (random.nextDouble() < MUTATION_RATE) {
+                weights[random.nextInt(weights.length)] += (random.nextDouble() * 2 - 1) * MUTATION_STEP;
+            }
+            next[order[size - 1 - child]] = normalize(weights);
+        }
+        return next;
+    }
+    
+    private static double[] normalize(double[] weights) {
+        double length = 0;
+        for (double weight : weights) {
+            length += weight * weight;
+        }
+        length = Math.sqrt(length);
+        if (length > 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= length;
+            }
+        }
+        return weights;
+    }
+    
+    /**
+     * 评估整个种群：每个候选一个子任务，返回各候选的适应度
+     */
+    private static final class GenerationTask extends RecursiveTask<long[]> {
+        private final double[][] population;
+        private final long firstSeed;
+        private final int games;
+        private final int maxPieces;
+        
+        GenerationTask(double[][] population, long firstSeed, int games, int maxPieces) {
+            this.population = population;
+            this.firstSeed = firstSeed;
+            this.games = games;
+            this.maxPieces = maxPieces;
+        }
+        
+        @Override
+        protected long[] compute() {
+            GameTask[] tasks = new GameTask[population.length];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new GameTask(population[i], firstSeed, games, maxPieces);
+            }
+            invokeAll(tasks);
+            long[] fitness = new long[tasks.length];
+            for (int i = 0; i < tasks.length; i++) {
+                fitness[i] = tasks[i].join();
+            }
+            return fitness;
+        }
+    }
+    
+    /**
+     * 用一组权重进行种子连续的若干局，返回消除的总行数；多于一局时对半拆分
+     */
+    private static final class GameTask extends RecursiveTask<Long> {
+        private final double[] weights;
+        private final long firstSeed;
+        private final int games;
+        private final int maxPieces;
+        
+        GameTask(double[] weights, long firstSeed, int games, int maxPieces) {
+            this.weights = weights;
+            this.firstSeed = firstSeed;
+            this.games = games;
+            this.maxPieces = maxPieces;
+        }
+        
+        @Override
+        protected Long compute() {
+            if (games > 1) {
+                int half = games / 2;
+                GameTask left = new GameTask(weights, firstSeed, half, maxPieces);
+                GameTask right = new GameTask(weights, firstSeed + half, games - half, maxPieces);
+                left.fork();
+                return right.compute() + left.join();
+            }
+            // 评估时不向前看下一个方块，每局的速度快一个数量级
+            TetrisAI ai = new TetrisAI(WIDTH, HEIGHT, weights, 1);
+            return new HeadlessGame(WIDTH, HEIGHT, ai, firstSeed, false).play(maxPieces);
+        }
+    }
+}
\ No newline at end of file
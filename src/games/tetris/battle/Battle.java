@@ -0,0 +1,155 @@
+package games.tetris.battle;
+
+import games.tetris.ai.Evaluator;
+import games.tetris.ai.TetrisAI;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 多人对战
+ * 第 0 块场地由玩家控制，其余由电脑控制。每一帧所有场地在 fork/join 线程池中并行推进：
+ * 每块场地只修改自己的状态，给对手的垃圾放进对方的无锁收件箱，需要的其他场地信息只读取上一帧结束时的存活快照。
+ * 一帧全部推进完后在调用线程中更新快照和名次，所以对战过程只取决于种子和玩家的输入，与线程数无关
+ */
+public class Battle {
+    private static final int STEP_THRESHOLD = 4;    // 每个任务至少推进的场地数
+    
+    private final BattleBoard[] boards;
+    private final boolean[] alive;          // 上一帧结束时各场地是否还在游戏中
+    private final int[] places;             // 各场地的名次，0 表示还在游戏中
+    private final ForkJoinPool pool;        // 单线程时为 null
+    private int aliveCount;
+    private long tick;
+    
+    // 本帧玩家的输入
+    private int held;
+    private int pressed;
+    
+    /**
+     * 构造函数
+     * @param count 场地数量（含玩家）
+     * @param width 场地列数
+     * @param height 场地行数
+     * @param seed 随机种子
+     * @param threads 并行推进的线程数
+     */
+    public Battle(int count, int width, int height, long seed, int threads) {
+        boards = new BattleBoard[count];
+        for (int i = 0; i < count; i++) {
+            TetrisAI ai = i == 0 ? null : new TetrisAI(width, height, Evaluator.DEFAULT_WEIGHTS, 1);
+            boards[i] = new BattleBoard(i, width, height, seed * 1000003L + i, ai);
+        }
+        alive = new boolean[count];
+        places = new int[count];
+        for (int i = 0; i < count; i++) {
+            alive[i] = true;
+        }
+        aliveCount = count;
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+    
+    /**
+     * 推进一帧
+     * @param held 玩家按住的键
+     * @param pressed 玩家上一帧以来按下过的键
+     */
+    public void tick(int held, int pressed) {
+        if (isOver()) {
+            return;
+        }
+        this.held = held;
+        this.pressed = pressed;
+        if (pool == null) {
+            stepRange(0, boards.length);
+        } else {
+            pool.invoke(new StepTask(0, boards.length));
+        }
+        
+        // 同一帧出局的场地名次相同
+        int place = aliveCount;
+        for (int i = 0; i < boards.length; i++) {
+            if (alive[i] && !boards[i].isAlive()) {
+                alive[i] = false;
+                places[i] = place;
+                aliveCount--;
+            }
+        }
+        if (aliveCount == 1) {
+            for (int i = 0; i < boards.length; i++) {
+                if (alive[i]) {
+                    places[i] = 1;
+                }
+            }
+        }
+        tick++;
+    }
+    
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            boards[i].step(tick, held, pressed, boards, alive);
+        }
+    }
+    
+    /**
+     * 释放并行推进使用的线程
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * 判断对战是否结束（最多只剩一块场地）
+     * @return 是否结束
+     */
+    public boolean isOver() {
+        return aliveCount <= 1;
+    }
+    
+    /**
+     * 获取场地的名次
+     * @param index 场地编号
+     * @return 名次，还在游戏中时为 0
+     */
+    public int getPlace(int index) {
+        return places[index];
+    }
+    
+    // Getters
+    public BattleBoard[] getBoards() {
+        return boards;
+    }
+    
+    public int getAliveCount() {
+        return aliveCount;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * 推进一段场地的任务，场地较多时对半拆分
+     */
+    private final class StepTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= STEP_THRESHOLD) {
+                stepRange(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StepTask(from, mid), new StepTask(mid, to));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,273 @@
+package games.tetris.battle;
+
+import games.tetris.PieceController;
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+import games.tetris.ai.TetrisAI;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 对战中的一块场地
+ * 规则与单人游戏相同（{@link PieceController} 的重力、锁定延迟和按键重复，同样的计分和等级），另外可以给对手发送垃圾行：
+ * 一次消除 2、3、4 行分别发送 1、2、4 行。收到的垃圾先用消行抵消，剩下的在下一次不消行的固定时从底部升起，每批有一个随机的缺口。
+ * 垃圾通过无锁队列传递：第 t 帧发出的垃圾放进对方第 t + 1 帧的收件箱，收件箱按帧的奇偶交替使用，
+ * 所以读取时不会有其他线程同时写入；读出的垃圾按发送者排序，结果与各场地推进的先后顺序无关。
+ * 电脑玩家在每个方块出现后思考若干帧，然后用 AI 选择落点直接固定
+ */
+public class BattleBoard {
+    private static final int[] GARBAGE = {0, 0, 1, 2, 4};  // 消除行数 -> 发送的垃圾行数
+    private static final int MIN_THINK_FRAMES = 8;
+    private static final int MAX_THINK_FRAMES = 40;
+    
+    private final int index;
+    private final Playfield field;
+    private final PieceController controller;
+    private final Random random;
+    private final TetrisAI ai;              // 玩家的场地为 null
+    private final int thinkFrames;          // 电脑玩家平均每个方块的思考帧数
+    
+    // 垃圾收件箱：元素为 发送者 << 8 | 行数，按帧的奇偶交替使用
+    private final ConcurrentLinkedQueue<Integer> evenInbox = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Integer> oddInbox = new ConcurrentLinkedQueue<>();
+    private int[] pending = new int[16];    // 等待升起的垃圾（同样的编码）
+    private int pendingCount;
+    
+    private Tetromino nextPiece;
+    private int thinkTimer;
+    private int score;
+    private int level = 1;
+    private int lines;
+    private int sent;
+    private boolean alive = true;
+    private int version;                    // 场地或方块每次变化时加 1，界面据此判断是否需要重画
+    
+    /**
+     * 构造函数
+     * @param index 场地编号
+     * @param width 列数
+     * @param height 行数
+     * @param seed 方块序列和垃圾缺口的随机种子
+     * @param ai 电脑玩家的 AI，玩家的场地为 null
+     */
+    public BattleBoard(int index, int width, int height, long seed, TetrisAI ai) {
+        this.index = index;
+        this.field = new Playfield(width, height);
+        this.controller = new PieceController(field);
+        this.random = new Random(seed);
+        this.ai = ai;
+        this.thinkFrames = MIN_THINK_FRAMES + random.nextInt(MAX_THINK_FRAMES - MIN_THINK_FRAMES + 1);
+        this.nextPiece = randomPiece();
+        spawn();
+    }
+    
+    private Tetromino randomPiece() {
+        return Tetromino.of(random.nextInt(Tetromino.values().length));
+    }
+    
+    private void spawn() {
+        Tetromino piece = nextPiece;
+        nextPiece = randomPiece();
+        thinkTimer = thinkFrames / 2 + random.nextInt(thinkFrames + 1);
+        if (!controller.spawn(piece)) {
+            alive = false;
+        }
+    }
+    
+    private ConcurrentLinkedQueue<Integer> inbox(long tick) {
+        return (tick & 1) == 0 ? evenInbox : oddInbox;
+    }
+    
+    /**
+     * 收取垃圾，可以在任何线程中调用
+     * @param tick 送达的帧
+     * @param sender 发送者编号
+     * @param count 垃圾行数
+     */
+    void receive(long tick, int sender, int count) {
+        inbox(tick).offer(sender << 8 | count);
+    }
+    
+    /**
+     * 推进一帧
+     * @param tick 帧序号
+     * @param held 玩家按住的键（电脑玩家忽略）
+     * @param pressed 玩家上一帧以来按下过的键
+     * @param boards 所有场地
+     * @param alive 上一帧结束时各场地是否还在游戏中（只读）
+     */
+    void step(long tick, int held, int pressed, BattleBoard[] boards, boolean[] alive) {
+        if (!this.alive) {
+            return;
+        }
+        collectGarbage(inbox(tick));
+        
+        int rotation = controller.getRotation();
+        int x = controller.getX();
+        int y = controller.getY();
+        boolean lock;
+        if (ai != null && --thinkTimer <= 0) {
+            if (ai.choose(field, controller.getPiece(), rotation, x, y, null)) {
+                controller.moveTo(ai.getRotation(), ai.getX(), ai.getY());
+            }
+            lock = true;
+        } else {
+            lock = controller.step(ai == null ? held : 0, ai == null ? pressed : 0);
+        }
+        
+        if (lock) {
+            place(tick, boards, alive);
+        } else if (rotation != controller.getRotation() || x != controller.getX() || y != controller.getY()) {
+            version++;
+        }
+    }
+    
+    private void collectGarbage(ConcurrentLinkedQueue<Integer> inbox) {
+        int start = pendingCount;
+        Integer packet;
+        while ((packet = inbox.poll()) != null) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = packet;
+        }
+        if (pendingCount > start) {
+            Arrays.sort(pending, start, pendingCount);
+            version++;
+        }
+    }
+    
+    /**
+     * 固定方块：计分、抵消或发送垃圾、升起剩下的垃圾，然后放出下一个方块
+     */
+    private void place(long tick, BattleBoard[] boards, boolean[] alive) {
+        int cleared = field.lock(controller.getPiece(), controller.getRotation(), controller.getX(), controller.getY());
+        version++;
+        if (cleared > 0) {
+            score += cleared * 100 * level;
+            level = score / 1000 + 1;
+            lines += cleared;
+            controller.setGravity(PieceController.gravityForLevel(level));
+            
+            int attack = GARBAGE[Math.min(cleared, GARBAGE.length - 1)];
+            attack = cancelGarbage(attack);
+            if (attack > 0) {
+                sendGarbage(tick, attack, boards, alive);
+            }
+        } else if (pendingCount > 0) {
+            riseGarbage();
+        }
+        if (this.alive) {
+            spawn();
+        }
+    }
+    
+    /**
+     * 用发出的垃圾抵消等待升起的垃圾
+     * @return 抵消后剩下的行数
+     */
+    private int cancelGarbage(int attack) {
+        int used = 0;
+        while (attack > 0 && used < pendingCount) {
+            int count = pending[used] & 0xFF;
+            int cancel = Math.min(attack, count);
+            attack -= cancel;
+            if (cancel == count) {
+                used++;
+            } else {
+                pending[used] -= cancel;
+            }
+        }
+        System.arraycopy(pending, used, pending, 0, pendingCount - used);
+        pendingCount -= used;
+        return attack;
+    }
+    
+    /**
+     * 随机选择一个上一帧还在游戏中的对手发送垃圾
+     */
+    private void sendGarbage(long tick, int count, BattleBoard[] boards, boolean[] alive) {
+        int opponents = 0;
+        for (int i = 0; i < alive.length; i++) {
+            if (alive[i] && i != index) {
+                opponents++;
+            }
+        }
+        if (opponents == 0) {
+            return;
+        }
+        int target = random.nextInt(opponents);
+        for (int i = 0; i < alive.length; i++) {
+            if (alive[i] && i != index && target-- == 0) {
+                boards[i].receive(tick + 1, index, count);
+                sent += count;
+                return;
+            }
+        }
+    }
+    
+    private void riseGarbage() {
+        for (int i = 0; i < pendingCount; i++) {
+            long row = field.getFullRow() & ~(1L << random.nextInt(field.getWidth()));
+            if (field.raise(pending[i] & 0xFF, row)) {
+                alive = false;
+            }
+        }
+        pendingCount = 0;
+    }
+    
+    /**
+     * 获取等待升起的垃圾行数
+     * @return 行数
+     */
+    public int getPendingLines() {
+        int total = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            total += pending[i] & 0xFF;
+        }
+        return total;
+    }
+    
+    // Getters
+    public int getIndex() {
+        return index;
+    }
+    
+    public Playfield getField() {
+        return field;
+    }
+    
+    public PieceController getController() {
+        return controller;
+    }
+    
+    public boolean isHuman() {
+        return ai == null;
+    }
+    
+    public boolean isAlive() {
+        return alive;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public int getLines() {
+        return lines;
+    }
+    
+    public int getSent() {
+        return sent;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package games.tetris.battle;
+
+import javax.swing.*;
+
+/**
+ * 俄罗斯方块多人对战
+ * 玩家与电脑同时在各自的场地中游戏，消行时给对手发送垃圾行，最后留下的获胜
+ *
+ * 用法：java games.tetris.battle.BattleGame [场地数] [线程数] [随机种子]
+ */
+public class BattleGame {
+    public static void main(String[] args) {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 99;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("俄罗斯方块对战");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setResizable(false);
+            
+            frame.add(new BattlePanel(Math.max(2, boards), threads, seed));
+            
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package games.tetris.battle;
+
+import games.tetris.PieceController;
+import games.tetris.Playfield;
+import games.tetris.Tetromino;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * 对战面板
+ * 左边是玩家的大场地，右边把电脑的场地排成网格。每块场地画在自己的缓存图像中，
+ * 只有场地的版本号变化（方块移动、固定或收到垃圾）时才重画，每次绘制面板只是把各个图像贴上去
+ */
+public class BattlePanel extends JPanel implements ActionListener, KeyListener {
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 20;
+    private static final int PLAYER_CELL = 20;
+    private static final int TILE_CELL = 4;
+    private static final int TILE_COLUMNS = 14;
+    private static final int GAP = 4;
+    private static final int MARGIN = 20;
+    private static final int TIMER_DELAY = 4;
+    private static final int MAX_CATCH_UP_FRAMES = 6;
+    
+    private static final Font INFO_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Font PLACE_FONT = new Font("Arial", Font.BOLD, 14);
+    
+    private final int boardCount;
+    private final int threads;
+    private long seed;
+    private Battle battle;
+    private BufferedImage[] images;
+    private int[] imageVersions;
+    private final Timer timer;
+    private long frameTime;
+    private int heldKeys;
+    private int pressedKeys;
+    
+    /**
+     * 构造函数
+     * @param boardCount 场地数量（含玩家）
+     * @param threads 并行推进的线程数
+     * @param seed 随机种子
+     */
+    public BattlePanel(int boardCount, int threads, long seed) {
+        this.boardCount = boardCount;
+        this.threads = threads;
+        this.seed = seed;
+        int tileRows = (boardCount - 1 + TILE_COLUMNS - 1) / TILE_COLUMNS;
+        int width = MARGIN * 3 + WIDTH * PLAYER_CELL + TILE_COLUMNS * (WIDTH * TILE_CELL + GAP);
+        int height = Math.max(MARGIN * 2 + HEIGHT * PLAYER_CELL + 100, MARGIN * 2 + tileRows * (HEIGHT * TILE_CELL + GAP));
+        setPreferredSize(new Dimension(width, height));
+        setBackground(Color.DARK_GRAY);
+        setFocusable(true);
+        addKeyListener(this);
+        
+        newBattle();
+        timer = new Timer(TIMER_DELAY, this);
+        timer.start();
+    }
+    
+    private void newBattle() {
+        if (battle != null) {
+            battle.shutdown();
+        }
+        battle = new Battle(boardCount, WIDTH, HEIGHT, seed++, threads);
+        images = new BufferedImage[boardCount];
+        imageVersions = new int[boardCount];
+        for (int i = 0; i < boardCount; i++) {
+            int cell = i == 0 ? PLAYER_CELL : TILE_CELL;
+            images[i] = new BufferedImage(WIDTH * cell, HEIGHT * cell, BufferedImage.TYPE_INT_RGB);
+            imageVersions[i] = -1;
+        }
+        heldKeys = 0;
+        pressedKeys = 0;
+        frameTime = System.nanoTime();
+    }
+    
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        // 与单人游戏相同：按经过的时间推进整数个帧
+        long now = System.nanoTime();
+        int frames = 0;
+        while (!battle.isOver() && now - frameTime >= PieceController.FRAME_NANOS) {
+            if (frames == MAX_CATCH_UP_FRAMES) {
+                frameTime = now;
+                break;
+            }
+            int pressed = pressedKeys;
+            pressedKeys = 0;
+            battle.tick(heldKeys, pressed);
+            frameTime += PieceController.FRAME_NANOS;
+            frames++;
+        }
+        if (frames > 0) {
+            repaint();
+        }
+    }
+    
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        BattleBoard[] boards = battle.getBoards();
+        
+        // 只重画有变化的场地
+        for (int i = 0; i < boards.length; i++) {
+            int version = boards[i].getVersion();
+            if (version != imageVersions[i]) {
+                drawBoard(images[i], boards[i], i == 0 ? PLAYER_CELL : TILE_CELL);
+                imageVersions[i] = version;
+            }
+        }
+        
+        // 玩家的场地和等待升起的垃圾
+        BattleBoard player = boards[0];
+        g.drawImage(images[0], MARGIN, MARGIN, null);
+        int pending = Math.min(player.getPendingLines(), HEIGHT);
+        g.setColor(Color.RED);
+        g.fillRect(MARGIN - 8, MARGIN + (HEIGHT - pending) * PLAYER_CELL, 6, pending * PLAYER_CELL);
+        
+        int infoY = MARGIN + HEIGHT * PLAYER_CELL + 25;
+        g.setColor(Color.WHITE);
+        g.setFont(INFO_FONT);
+        g.drawString("剩余: " + battle.getAliveCount() + "/" + boards.length, MARGIN, infoY);
+        g.drawString("分数: " + player.getScore() + "  等级: " + player.getLevel(), MARGIN, infoY + 20);
+        g.drawString("消除: " + player.getLines() + "  发送: " + player.getSent(), MARGIN, infoY + 40);
+        
+        // 电脑的场地
+        int left = MARGIN * 2 + WIDTH * PLAYER_CELL;
+        g.setFont(PLACE_FONT);
+        for (int i = 1; i < boards.length; i++) {
+            int tileX = left + (i - 1) % TILE_COLUMNS * (WIDTH * TILE_CELL + GAP);
+            int tileY = MARGIN + (i - 1) / TILE_COLUMNS * (HEIGHT * TILE_CELL + GAP);
+            g.drawImage(images[i], tileX, tileY, null);
+            int place = battle.getPlace(i);
+            if (place > 0) {
+                g.setColor(place == 1 ? Color.YELLOW : Color.LIGHT_GRAY);
+                g.drawString(String.valueOf(place), tileX + 4, tileY + HEIGHT * TILE_CELL / 2);
+            }
+        }
+        
+        int place = battle.getPlace(0);
+        if (place > 0) {
+            String title = place == 1 ? "你赢了！" : "第 " + place + " 名";
+            g.setFont(TITLE_FONT);
+            g.setColor(place == 1 ? Color.YELLOW : Color.RED);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(title, MARGIN + (WIDTH * PLAYER_CELL - metrics.stringWidth(title)) / 2, MARGIN + HEIGHT * PLAYER_CELL / 2);
+            g.setFont(INFO_FONT);
+            g.setColor(Color.WHITE);
+            metrics = g.getFontMetrics();
+            String hint = "按回车键重新开始";
+            g.drawString(hint, MARGIN + (WIDTH * PLAYER_CELL - metrics.stringWidth(hint)) / 2, MARGIN + HEIGHT * PLAYER_CELL / 2 + 40);
+        }
+    }
+    
+    /**
+     * 把一块场地画到它的缓存图像中
+     */
+    private static void drawBoard(BufferedImage image, BattleBoard board, int cell) {
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        
+        Playfield field = board.getField();
+        boolean large = cell >= 10;
+        Color blockColor = board.isAlive() ? Color.CYAN : Color.GRAY;
+        for (int row = 0; row < HEIGHT; row++) {
+            long bits = field.getRow(row);
+            while (bits != 0) {
+                int col = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                g.setColor(blockColor);
+                g.fillRect(col * cell, row * cell, cell, cell);
+                if (large) {
+                    g.setColor(Color.GRAY);
+                    g.drawRect(col * cell, row * cell, cell, cell);
+                }
+            }
+        }
+        
+        if (board.isAlive()) {
+            PieceController controller = board.getController();
+            Tetromino piece = controller.getPiece();
+            for (int row = 0; row < piece.getSize(); row++) {
+                for (int col = 0; col < piece.getSize(); col++) {
+                    if (piece.isCell(controller.getRotation(), row, col)) {
+                        int px = (controller.getX() + col) * cell;
+                        int py = (controller.getY() + row) * cell;
+                        g.setColor(Color.ORANGE);
+                        g.fillRect(px, py, cell, cell);
+                        if (large) {
+                            g.setColor(Color.GRAY);
+                            g.drawRect(px, py, cell, cell);
+                        }
+                    }
+                }
+            }
+        }
+        g.dispose();
+    }
+    
+    @Override
+    public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_ENTER && battle.getPlace(0) > 0) {
+            newBattle();
+            repaint();
+            return;
+        }
+        // 与单人游戏相同：按键在下一帧统一处理
+        int input = PieceController.inputOf(e.getKeyCode());
+        if ((heldKeys & input) == 0) {
+            pressedKeys |= input;
+        }
+        heldKeys |= input;
+    }
+    
+    @Override
+    public void keyReleased(KeyEvent e) {
+        heldKeys &= ~PieceController.inputOf(e.getKeyCode());
+    }
+    
+    @Override
+    public void keyTyped(KeyEvent e) {}
+}
\ No newline at end of file